@@ -0,0 +1,67 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.service.BenchmarkInputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a summary cache key, which digests the whole input text, and of the
+ * lookups a key takes part in once built: its hash, equality and tenant id
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryCacheKeyBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int inputChars;
+
+    private TenantSettings settings;
+    private String inputText;
+    private SummaryCacheKey key;
+    private SummaryCacheKey equalKey;
+
+    @Setup
+    public void setUp() {
+        settings = BenchmarkInputs.settings();
+        inputText = BenchmarkInputs.text(inputChars);
+        key = SummaryCacheKey.of("tenant1", inputText, settings, "1");
+        equalKey = SummaryCacheKey.of("tenant1", inputText, settings, "1");
+    }
+
+    @Benchmark
+    public SummaryCacheKey construct() {
+        return SummaryCacheKey.of("tenant1", inputText, settings, "1");
+    }
+
+    @Benchmark
+    public int hashCodeOfBuiltKey() {
+        return key.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfEqualKeys() {
+        return key.equals(equalKey);
+    }
+
+    @Benchmark
+    public String tenantId() {
+        TenantScopedKey scoped = key;
+        return scoped.getTenantId();
+    }
+}
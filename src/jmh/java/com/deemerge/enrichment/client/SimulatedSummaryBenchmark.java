@@ -0,0 +1,48 @@
+package com.deemerge.enrichment.client;
+
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.service.BenchmarkInputs;
+import com.deemerge.enrichment.service.PromptBuilderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the simulator's summary, without its simulated latency, for prompts built
+ * from inputs of growing size
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulatedSummaryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int inputChars;
+
+    private TenantSettings settings;
+    private String prompt;
+
+    @Setup
+    public void setUp() {
+        settings = BenchmarkInputs.settings();
+        prompt = new PromptBuilderImpl().buildSummarizationPrompt(settings, BenchmarkInputs.text(inputChars));
+    }
+
+    @Benchmark
+    public String generateSimulatedSummary() {
+        return SimulatedModelClient.generateSimulatedSummary(prompt, settings);
+    }
+}
@@ -0,0 +1,101 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.cache.SummaryCacheKey;
+import com.deemerge.enrichment.model.SummaryResponse;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.service.BenchmarkInputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes of the tenant-aware summary cache through the Spring {@link Cache} API,
+ * as the service uses it, from one thread and from as many threads as there are cores.
+ * Every operation routes its key to the tenant's cache by the key's tenant id. Other thread
+ * counts can be run with the JMH -t option.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryCacheBenchmark {
+
+    private static final int KEYS_PER_TENANT = 512;
+
+    @Param({"1", "16"})
+    private int tenants;
+
+    private Cache cache;
+    private SummaryCacheKey[] keys;
+    private SummaryResponse[] values;
+
+    @Setup
+    public void setUp() {
+        SummaryCacheProperties properties = new SummaryCacheProperties();
+        // Room for every key, so that reads measure hits rather than eviction
+        properties.setDefaultTenantBudgetBytes(64L * 1024 * 1024);
+        cache = new TenantAwareCacheManager(properties, tenantId -> Optional.empty()).getCache("summaryCache");
+
+        TenantSettings settings = BenchmarkInputs.settings();
+        keys = new SummaryCacheKey[tenants * KEYS_PER_TENANT];
+        values = new SummaryResponse[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            String tenantId = "tenant" + (i % tenants);
+            String text = BenchmarkInputs.text(200) + i;
+            keys[i] = SummaryCacheKey.of(tenantId, text, settings, "1");
+            values[i] = SummaryResponse.builder()
+                    .summary("Summary: " + text.substring(0, 60))
+                    .tenantId(tenantId)
+                    .timestamp(Instant.now())
+                    .build();
+            cache.put(keys[i], values[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Cache.ValueWrapper get() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cache.ValueWrapper getContended() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void put() {
+        int index = ThreadLocalRandom.current().nextInt(keys.length);
+        cache.put(keys[index], values[index]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void putContended() {
+        int index = ThreadLocalRandom.current().nextInt(keys.length);
+        cache.put(keys[index], values[index]);
+    }
+
+    private SummaryCacheKey randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+}
@@ -0,0 +1,110 @@
+package com.deemerge.enrichment.model;
+
+import com.deemerge.enrichment.service.BenchmarkInputs;
+import com.deemerge.enrichment.util.ContentDigest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson reading of the summarize request body and writing of its response, for inputs of
+ * growing size, with a mapper configured like Spring Boot's (java.time support, ISO dates).
+ * The response carries its input's digest, as the service returns it, and is also written in
+ * lean mode and gzipped at the default level, as the server compresses it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int inputChars;
+
+    private ObjectReader requestReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter responseWriter;
+    private SummarizationRequest request;
+    private SummaryResponse response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        requestReader = objectMapper.readerFor(SummarizationRequest.class);
+        requestWriter = objectMapper.writerFor(SummarizationRequest.class);
+        responseReader = objectMapper.readerFor(SummaryResponse.class);
+        responseWriter = objectMapper.writerFor(SummaryResponse.class);
+
+        String inputText = BenchmarkInputs.text(inputChars);
+        request = new SummarizationRequest(inputText);
+        response = SummaryResponse.builder()
+                .inputText(inputText)
+                .summary("Summary: " + inputText.substring(0, Math.min(inputText.length(), 80)))
+                .tenantId("tenant1")
+                .timestamp(Instant.now())
+                .inputDigest(ContentDigest.sha256Hex(inputText))
+                .build();
+        requestJson = requestWriter.writeValueAsBytes(request);
+        responseJson = responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public SummarizationRequest readRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeRequest() throws JsonProcessingException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public SummaryResponse readResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws JsonProcessingException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeLeanResponse() throws JsonProcessingException {
+        return responseWriter.writeValueAsBytes(ResponseMode.LEAN.apply(response));
+    }
+
+    @Benchmark
+    public byte[] writeGzippedResponse() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            responseWriter.writeValue(gzip, response);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.model.TenantSettings;
+
+/**
+ * Inputs shared by the benchmarks: tenant settings and English-like text of a given length
+ */
+public final class BenchmarkInputs {
+
+    private static final String[] WORDS = {
+            "the", "enrichment", "service", "summarizes", "text", "for", "tenants", "and", "caches",
+            "each", "summary", "so", "that", "repeated", "requests", "skip", "the", "model", "call"
+    };
+
+    private BenchmarkInputs() {
+    }
+
+    public static TenantSettings settings() {
+        return TenantSettings.builder()
+                .model("gpt-4")
+                .tone("formal")
+                .maxTokens(100_000)
+                .retryAttempts(3)
+                .build();
+    }
+
+    /**
+     * Text of exactly the given number of characters, in sentences over several lines
+     */
+    public static String text(int chars) {
+        StringBuilder text = new StringBuilder(chars + 16);
+        for (int i = 0; text.length() < chars; i++) {
+            text.append(WORDS[i % WORDS.length]);
+            text.append(i % 12 == 11 ? ".\n" : " ");
+        }
+        text.setLength(chars);
+        return text.toString();
+    }
+}
@@ -0,0 +1,240 @@
+package com.deemerge.enrichment.breaker;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker over the outcomes of the last windowSize calls to one backend.
+ * <p>
+ * While CLOSED every call is permitted. Once the window holds at least minimumCalls
+ * outcomes and their failure rate reaches the threshold, the breaker OPENs and rejects
+ * calls for openDuration, so that callers fail fast instead of adding load to a failing
+ * backend. The first call asking for permission after that moves it to HALF_OPEN, where
+ * only halfOpenProbes calls are let through: if they all succeed the breaker CLOSEs with
+ * an empty window, and the first one to fail OPENs it again.
+ * <p>
+ * Every permit carries the generation of the state it was granted in, and outcomes are only
+ * counted in that same generation. A slow call started while CLOSED therefore cannot pass
+ * for a probe, nor reopen the breaker, once it finishes after a transition.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * What {@link #tryAcquirePermission()} returns for a call that is not permitted
+     */
+    public static final long NOT_PERMITTED = -1;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<BiConsumer<State, State>> transitionListeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by lock
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAtNanos;
+    private int probesPermitted;
+    private int probesSucceeded;
+    private long rejected;
+    private final Map<State, Long> transitions = new EnumMap<>(State.class);
+
+    /**
+     * @param ticker source of nanosecond time; null uses {@link System#nanoTime()}
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenProbes, LongSupplier ticker) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Window must satisfy 1 <= minimumCalls <= windowSize");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+        }
+        if (halfOpenProbes < 1) {
+            throw new IllegalArgumentException("halfOpenProbes must be at least 1");
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.ticker = ticker != null ? ticker : System::nanoTime;
+    }
+
+    /**
+     * Asks whether a call may be made now. A permitted call must report its outcome
+     * through {@link #onSuccess(long)} or {@link #onError(long)}.
+     *
+     * @return the permit to report the outcome with, or {@link #NOT_PERMITTED}
+     */
+    public long tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && ticker.getAsLong() - openedAtNanos >= openDurationNanos) {
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return generation;
+            }
+            if (state == State.HALF_OPEN && probesPermitted < halfOpenProbes) {
+                probesPermitted++;
+                return generation;
+            }
+            rejected++;
+            return NOT_PERMITTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports that the call given the permit succeeded; ignored if the breaker has changed
+     * state since the permit was granted
+     */
+    public void onSuccess(long permit) {
+        lock.lock();
+        try {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.CLOSED) {
+                record(false);
+            } else if (state == State.HALF_OPEN && ++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports that the call given the permit failed; ignored if the breaker has changed
+     * state since the permit was granted
+     */
+    public void onError(long permit) {
+        lock.lock();
+        try {
+            if (permit != generation) {
+                return;
+            }
+            if (state == State.CLOSED) {
+                record(true);
+                if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+                    transitionTo(State.OPEN);
+                }
+            } else if (state == State.HALF_OPEN) {
+                transitionTo(State.OPEN);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current state; an OPEN breaker whose open duration has passed only moves to
+     * HALF_OPEN when a call next asks for permission
+     */
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Share of failures among the calls in the window, 0 when it is empty
+     */
+    public double failureRate() {
+        lock.lock();
+        try {
+            return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of times the breaker entered the given state
+     */
+    public long transitionCount(State to) {
+        lock.lock();
+        try {
+            return transitions.getOrDefault(to, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of calls refused while OPEN, or HALF_OPEN with all probes out
+     */
+    public long rejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a listener called with the previous and the new state on every transition.
+     * It runs while the breaker is locked, so it must be quick and must not call back into it.
+     */
+    public void addTransitionListener(BiConsumer<State, State> listener) {
+        transitionListeners.add(listener);
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        generation++;
+        transitions.merge(next, 1L, Long::sum);
+        if (next == State.OPEN) {
+            openedAtNanos = ticker.getAsLong();
+        } else if (next == State.HALF_OPEN) {
+            probesPermitted = 0;
+            probesSucceeded = 0;
+        } else {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+        for (BiConsumer<State, State> listener : transitionListeners) {
+            listener.accept(previous, next);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.deemerge.enrichment.bulkhead;
+
+/**
+ * Concurrency limit that adapts to the latency of successful model calls, in the manner of
+ * TCP congestion control (AIMD). The lowest recent latency serves as the no-load latency.
+ * When the smoothed latency exceeds latencyTolerance times the no-load latency, the limit
+ * is cut by backoffRatio; otherwise a sample taken while at least half the limit was in
+ * use raises it by 1/limit, so by about one per round of calls. A limit that is barely
+ * used is not raised, since its calls say nothing about more load.
+ * <p>
+ * A call cuts the limit only if it is slow and so is the exponentially weighted moving
+ * average of latency, so only sustained slowness, such as calls queueing at the model,
+ * cuts the limit, not the odd slow call.
+ * Failed calls are not sampled: they mostly say something about the model, not about load,
+ * and the circuit breaker and retry budget already act on them.
+ * <p>
+ * The no-load latency is the minimum over the current and the previous window of
+ * {@value #LATENCY_WINDOW} successful calls, so it follows the model if it becomes
+ * permanently slower. Not thread-safe: guarded by its {@link TenantBulkhead}.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    static final int LATENCY_WINDOW = 100;
+    static final double SMOOTHING = 0.1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private long previousWindowMinNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private double smoothedNanos = -1;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double backoffRatio, double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        if (latencyTolerance < 1) {
+            throw new IllegalArgumentException("latencyTolerance must be at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Current number of calls that may be in flight at once
+     */
+    public int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Lowest recent latency of a successful call, or {@link Long#MAX_VALUE} before the first one
+     */
+    public long noLoadLatencyNanos() {
+        return Math.min(previousWindowMinNanos, windowMinNanos);
+    }
+
+    /**
+     * Adjusts the limit to a successful model call
+     *
+     * @param latencyNanos how long the call took, not counting queueing or retry backoff
+     * @param inFlight     calls in flight when it completed, itself included
+     */
+    public void onSample(long latencyNanos, int inFlight) {
+        recordLatency(latencyNanos);
+        smoothedNanos = smoothedNanos < 0
+                ? latencyNanos
+                : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+        long noLoadLatency = noLoadLatencyNanos();
+        double slowNanos = noLoadLatency * latencyTolerance;
+        // The call itself must be slow too, or a slow first call would cut the limit while the average decays
+        if (latencyNanos > slowNanos && smoothedNanos > slowNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            // Start over from the no-load latency, so the limit is cut again only if slowness persists
+            smoothedNanos = noLoadLatency;
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        if (++windowSamples >= LATENCY_WINDOW) {
+            previousWindowMinNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.deemerge.enrichment.bulkhead;
+
+import com.deemerge.enrichment.exception.TenantOverloadedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps the asynchronous calls one tenant has in flight at its {@link AdaptiveConcurrencyLimit}.
+ * A call over the limit waits in a bounded FIFO queue and is started when a slot frees up;
+ * once the queue is full too, the call fails at once with {@link TenantOverloadedException}.
+ * No thread blocks: a queued call is just a pending future.
+ * <p>
+ * A call holds its slot until it completes, retries and their backoff included, but the
+ * limit learns only from the latency of single model attempts, reported through
+ * {@link #onLatency(long)}; the backoff between retries says nothing about load.
+ */
+public final class TenantBulkhead {
+
+    private final String tenantId;
+    private final int maxQueued;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final AdaptiveConcurrencyLimit limit;
+    private final Queue<Pending<?>> queue = new ArrayDeque<>();
+    private int inFlight;
+    private long rejected;
+
+    public TenantBulkhead(String tenantId, AdaptiveConcurrencyLimit limit, int maxQueued) {
+        this.tenantId = tenantId;
+        this.limit = limit;
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    /**
+     * Starts the call now if the tenant is under its limit, queues it otherwise
+     *
+     * @return the call's result, or a future failed with {@link TenantOverloadedException}
+     * when the queue is full
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        Pending<T> pending = new Pending<>(call);
+        lock.lock();
+        try {
+            if (inFlight < limit.limit()) {
+                inFlight++;
+            } else if (queue.size() < maxQueued) {
+                queue.add(pending);
+                return pending.result;
+            } else {
+                rejected++;
+                return CompletableFuture.failedFuture(
+                        new TenantOverloadedException(tenantId, limit.limit(), queue.size()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        start(pending);
+        return pending.result;
+    }
+
+    /**
+     * Feeds the latency of a successful model attempt into the limit
+     *
+     * @param latencyNanos how long the attempt took, without queueing or retry backoff
+     */
+    public void onLatency(long latencyNanos) {
+        List<Pending<?>> next = new ArrayList<>();
+        lock.lock();
+        try {
+            limit.onSample(latencyNanos, inFlight);
+            admitQueued(next);
+        } finally {
+            lock.unlock();
+        }
+        startAll(next);
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return limit.limit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calls the tenant may have in flight or queued before further calls are rejected
+     */
+    public int capacity() {
+        lock.lock();
+        try {
+            return limit.limit() + maxQueued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> void start(Pending<T> pending) {
+        CompletableFuture<T> call;
+        try {
+            call = pending.call.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((value, ex) -> {
+            release();
+            if (ex != null) {
+                pending.result.completeExceptionally(ex);
+            } else {
+                pending.result.complete(value);
+            }
+        });
+    }
+
+    private void release() {
+        List<Pending<?>> next = new ArrayList<>();
+        lock.lock();
+        try {
+            inFlight--;
+            admitQueued(next);
+        } finally {
+            lock.unlock();
+        }
+        startAll(next);
+    }
+
+    // Called with the lock held; a raised limit can admit more than one call
+    private void admitQueued(List<Pending<?>> next) {
+        while (inFlight < limit.limit() && !queue.isEmpty()) {
+            inFlight++;
+            next.add(queue.poll());
+        }
+    }
+
+    private void startAll(List<Pending<?>> next) {
+        for (Pending<?> pending : next) {
+            start(pending);
+        }
+    }
+
+    private static final class Pending<T> {
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Pending(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+    }
+}
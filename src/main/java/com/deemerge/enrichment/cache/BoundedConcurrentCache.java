@@ -0,0 +1,571 @@
+package com.deemerge.enrichment.cache;
+
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded concurrent cache with lock-free reads and frequency-aware eviction.
+ * The bound is either an entry count or a total weight computed by a {@link Weigher}.
+ * <p>
+ * Reads only touch the {@link ConcurrentHashMap} and record the access in a striped,
+ * lossy read buffer, so readers of a hot key never serialize on a monitor. Writes update
+ * the map, whose bins are locked independently, and queue the policy change in a write
+ * buffer. Whichever thread wins a {@code tryLock} on the eviction lock replays both
+ * buffers against the eviction policy; no other thread waits for it.
+ * <p>
+ * The policy is W-TinyLFU: new entries enter a small LRU admission window, and an entry
+ * leaving the window only displaces the main space's least recently used entry when a
+ * count-min frequency sketch says it is accessed more often. One-off lookups therefore
+ * cannot flush entries that are read repeatedly.
+ * <p>
+ * Entries can also expire a fixed time after they were written or last read. Reads never
+ * return an expired entry; removal happens during maintenance, where a {@link TimerWheel}
+ * hands over just the entries that are due. With refresh-after-write, {@link #isRefreshDue}
+ * tells the caller when an entry is old enough to be reloaded in the background while the
+ * current value is still served. Optional settings are passed through {@link #builder()}.
+ */
+public class BoundedConcurrentCache<K, V> {
+
+    private static final double WINDOW_FRACTION = 0.01;
+    private static final int WRITE_BUFFER_MAX = 128;
+
+    private static final int ALIVE = 0;
+    private static final int RETIRED = 1;
+    private static final int DEAD = 2;
+
+    private static final int IN_NONE = 0;
+    private static final int IN_WINDOW = 1;
+    private static final int IN_MAIN = 2;
+
+    private static final Weigher<Object, Object> SINGLETON_WEIGHER = (key, value) -> 1;
+    // Assumed average entry weight when sizing the frequency sketch of a weighted cache
+    private static final int EXPECTED_ENTRY_WEIGHT = 1024;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final StripedReadBuffer<Node<K, V>> readBuffer = new StripedReadBuffer<>();
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder evictionCount = new LongAdder();
+
+    // Guarded by evictionLock
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> main = new AccessOrderDeque<>();
+    private final FrequencySketch sketch;
+    private final Weigher<? super K, ? super V> weigher;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private long windowWeight;
+    private long mainWeight;
+
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final long refreshAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final long startTime;
+    // Null unless entries expire; guarded by evictionLock
+    private final TimerWheel timerWheel;
+
+    /**
+     * Creates a cache holding at most the given number of entries
+     */
+    public BoundedConcurrentCache(long maximumSize) {
+        this(maximumSize, SINGLETON_WEIGHER);
+    }
+
+    /**
+     * Creates a cache whose entries' total weight stays within the given maximum
+     */
+    public BoundedConcurrentCache(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        this(maximumWeight, weigher, null, null, null, null);
+    }
+
+    /**
+     * @param maximumWeight     maximum total weight, or entry count without a weigher
+     * @param weigher           entry weigher; null counts entries
+     * @param expireAfterWrite  lifetime of an entry after it was written; null or zero never expires
+     * @param expireAfterAccess lifetime of an entry after it was last read or written; null or zero never expires
+     * @param refreshAfterWrite age after which {@link #isRefreshDue} reports an entry; null or zero never
+     * @param ticker            source of nanosecond time; null uses {@link System#nanoTime()}
+     */
+    @Builder
+    private BoundedConcurrentCache(long maximumWeight, Weigher<? super K, ? super V> weigher,
+                                   Duration expireAfterWrite, Duration expireAfterAccess,
+                                   Duration refreshAfterWrite, LongSupplier ticker) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximum must be positive: " + maximumWeight);
+        }
+        this.weigher = weigher != null ? weigher : SINGLETON_WEIGHER;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_FRACTION));
+        this.sketch = new FrequencySketch(this.weigher == SINGLETON_WEIGHER
+                ? maximumWeight
+                : maximumWeight / EXPECTED_ENTRY_WEIGHT);
+        this.expireAfterWriteNanos = toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = toNanos(expireAfterAccess);
+        this.refreshAfterWriteNanos = toNanos(refreshAfterWrite);
+        this.ticker = ticker != null ? ticker : System::nanoTime;
+        this.startTime = this.ticker.getAsLong();
+        this.timerWheel = expires() ? new TimerWheel(0) : null;
+    }
+
+    /**
+     * Returns the cached value without taking any lock, or null if absent
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        if (expires()) {
+            long now = now();
+            if (hasExpired(node, now)) {
+                tryMaintenance();
+                return null;
+            }
+            if (expireAfterAccessNanos > 0) {
+                node.accessTime = now;
+            }
+        }
+        if (readBuffer.offer(node) == StripedReadBuffer.FULL) {
+            tryMaintenance();
+        }
+        return value;
+    }
+
+    /**
+     * Returns whether the key's live entry was written at least refreshAfterWrite ago
+     */
+    public boolean isRefreshDue(K key) {
+        if (refreshAfterWriteNanos == 0) {
+            return false;
+        }
+        Node<K, V> node = data.get(key);
+        return node != null && now() - node.writeTime >= refreshAfterWriteNanos;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative: " + weight);
+        }
+        long now = tracksTime() ? now() : 0;
+        Node<K, V> created = new Node<>(key, value, weight, now);
+        Node<K, V> node = data.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+            existing.value = value;
+            existing.weight = weight;
+            existing.writeTime = now;
+            existing.accessTime = now;
+            return existing;
+        });
+
+        if (node == created) {
+            afterWrite(() -> onAdd(created));
+        } else {
+            afterWrite(() -> onUpdate(node));
+        }
+    }
+
+    /**
+     * Removes the mapping for the key
+     *
+     * @return the removed value, or null if absent
+     */
+    public V remove(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        node.state = RETIRED;
+        afterWrite(() -> onRemove(node));
+        return node.value;
+    }
+
+    /**
+     * Removes all mappings
+     */
+    public void invalidateAll() {
+        for (K key : data.keySet()) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of mappings, which may briefly exceed the maximum until pending
+     * writes have been applied
+     */
+    public long estimatedSize() {
+        return data.mappingCount();
+    }
+
+    /**
+     * Returns the maximum total weight, or entry count without a weigher
+     */
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the total weight of the entries known to the eviction policy
+     */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return windowWeight + mainWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries removed because of the size bound or because they expired
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Applies all pending reads and writes to the eviction policy, waiting for the lock if needed
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.offer(task);
+        if (pendingWrites.incrementAndGet() > WRITE_BUFFER_MAX) {
+            // Writers are outpacing maintenance; make this writer pay for it
+            cleanUp();
+        } else {
+            tryMaintenance();
+        }
+    }
+
+    private void tryMaintenance() {
+        while (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+            // A writer that failed its tryLock while we held the lock relies on us to pick up its task
+            if (writeBuffer.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void maintenance() {
+        readBuffer.drainTo(this::onAccess);
+
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+
+        if (timerWheel != null) {
+            long now = now();
+            timerWheel.advance(now, node -> expire(castNode(node), now));
+        }
+        evictEntries();
+    }
+
+    private void onAdd(Node<K, V> node) {
+        if (node.state != ALIVE) {
+            // Removed before its addition was applied
+            return;
+        }
+        sketch.increment(node.key);
+        node.policyWeight = node.weight;
+        if (node.policyWeight > maximumWeight) {
+            // Could never fit; admitting it would flush the whole cache first
+            evict(node);
+            return;
+        }
+        window.addLast(node);
+        node.queue = IN_WINDOW;
+        windowWeight += node.policyWeight;
+        if (timerWheel != null) {
+            node.expirationTime = expirationTime(node);
+            timerWheel.schedule(node);
+        }
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        if (node.queue == IN_NONE) {
+            return;
+        }
+        int weight = node.weight;
+        if (weight > maximumWeight) {
+            evict(node);
+            return;
+        }
+        if (node.queue == IN_WINDOW) {
+            windowWeight += weight - node.policyWeight;
+        } else {
+            mainWeight += weight - node.policyWeight;
+        }
+        node.policyWeight = weight;
+        onAccess(node);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == IN_NONE) {
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.queue == IN_WINDOW) {
+            window.moveToBack(node);
+        } else {
+            main.moveToBack(node);
+        }
+        if (timerWheel != null) {
+            node.expirationTime = expirationTime(node);
+            timerWheel.reschedule(node);
+        }
+    }
+
+    /**
+     * Removes the entry if it is still mapped and has expired
+     *
+     * @return false if the entry is live again and must stay scheduled
+     */
+    private boolean expire(Node<K, V> node, long now) {
+        if (node.state != ALIVE) {
+            // Its removal task is queued and will unlink it
+            return true;
+        }
+        boolean[] removed = new boolean[1];
+        data.computeIfPresent(node.key, (k, current) -> {
+            if (current == node && hasExpired(current, now)) {
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        if (!removed[0]) {
+            // Written or read again since it was scheduled
+            node.expirationTime = expirationTime(node);
+            return false;
+        }
+        unlink(node);
+        node.state = DEAD;
+        evictionCount.increment();
+        return true;
+    }
+
+    private boolean hasExpired(Node<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    private long expirationTime(Node<K, V> node) {
+        if (expireAfterWriteNanos == 0) {
+            return node.accessTime + expireAfterAccessNanos;
+        }
+        long afterWrite = node.writeTime + expireAfterWriteNanos;
+        if (expireAfterAccessNanos == 0) {
+            return afterWrite;
+        }
+        long afterAccess = node.accessTime + expireAfterAccessNanos;
+        return afterAccess - afterWrite < 0 ? afterAccess : afterWrite;
+    }
+
+    // Nanoseconds since the cache was created, which keeps timer wheel times non-negative
+    private long now() {
+        return ticker.getAsLong() - startTime;
+    }
+
+    private boolean expires() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    private boolean tracksTime() {
+        return expires() || refreshAfterWriteNanos > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> castNode(TimerWheel.TimerNode node) {
+        return (Node<K, V>) node;
+    }
+
+    private static long toNanos(Duration duration) {
+        if (duration == null) {
+            return 0;
+        }
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("duration must not be negative: " + duration);
+        }
+        return duration.toNanos();
+    }
+
+    private void onRemove(Node<K, V> node) {
+        unlink(node);
+        deschedule(node);
+        node.state = DEAD;
+    }
+
+    private void evictEntries() {
+        // Entries overflowing the window move to the most recently used end of the main space
+        // and become admission candidates. The newest entry always stays in the window, even when
+        // it alone outweighs it, so it is not rejected before it had a chance to be read again.
+        int candidates = 0;
+        while (windowWeight > windowMaximum && window.peekFirst() != window.peekLast()) {
+            Node<K, V> node = window.peekFirst();
+            unlink(node);
+            main.addLast(node);
+            node.queue = IN_MAIN;
+            mainWeight += node.policyWeight;
+            candidates++;
+        }
+
+        while (windowWeight + mainWeight > maximumWeight) {
+            Node<K, V> victim = main.peekFirst();
+            if (victim == null) {
+                evict(window.peekFirst());
+                continue;
+            }
+
+            Node<K, V> candidate = candidates > 0 ? main.peekLast() : null;
+            if (candidate == null || candidate == victim) {
+                evict(victim);
+                if (candidate != null) {
+                    candidates--;
+                }
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                candidates--;
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        deschedule(node);
+        // If the removal fails the entry was already removed and its task is still queued
+        if (data.remove(node.key, node)) {
+            evictionCount.increment();
+        }
+        node.state = DEAD;
+    }
+
+    private void deschedule(Node<K, V> node) {
+        if (timerWheel != null) {
+            timerWheel.deschedule(node);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.queue == IN_WINDOW) {
+            window.unlink(node);
+            windowWeight -= node.policyWeight;
+        } else if (node.queue == IN_MAIN) {
+            main.unlink(node);
+            mainWeight -= node.policyWeight;
+        }
+        node.queue = IN_NONE;
+    }
+
+    private static final class Node<K, V> extends TimerWheel.TimerNode {
+        final K key;
+        volatile V value;
+        volatile int weight;
+        volatile int state = ALIVE;
+        // Times since the cache was created; only maintained when entries expire or refresh
+        volatile long writeTime;
+        volatile long accessTime;
+
+        // Guarded by evictionLock
+        Node<K, V> prev;
+        Node<K, V> next;
+        int queue = IN_NONE;
+        // The weight last accounted for by the policy
+        int policyWeight;
+
+        Node(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list ordered from least to most recently used
+     */
+    private static final class AccessOrderDeque<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+
+        Node<K, V> peekFirst() {
+            return head;
+        }
+
+        Node<K, V> peekLast() {
+            return tail;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        void unlink(Node<K, V> node) {
+            Node<K, V> prev = node.prev;
+            Node<K, V> next = node.next;
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+    }
+}
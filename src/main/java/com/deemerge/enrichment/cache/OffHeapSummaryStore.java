@@ -0,0 +1,422 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.SummaryResponse;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Log-structured store of encoded summaries in direct memory, used as the second tier
+ * behind the on-heap tenant caches.
+ * <p>
+ * Memory is a fixed ring of equally sized direct buffer segments, allocated on first use.
+ * Records ({@link SummaryCodec}-encoded key and value) are appended to the active segment;
+ * when the ring wraps, the oldest segment is reused and every record in it is evicted at once,
+ * so eviction is FIFO and never compacts or frees individual records. The heap only holds an
+ * open-addressing index of two longs per entry, mapping a 64-bit hash of the encoded key to
+ * the record's address. Lookups compare the stored key bytes, so a hash collision is a miss
+ * rather than a wrong summary; the colliding entries simply replace each other.
+ * <p>
+ * An address packs a marker bit, the segment number (11 bits), the segment's generation (20 bits)
+ * and the offset within it (32 bits). Reusing a segment bumps its generation, which invalidates
+ * its index entries without visiting them; stale entries are dropped when the index is rebuilt.
+ * <p>
+ * With a time to live, each record carries its write time and reads treat older records as
+ * misses. Expired records keep their space, and count towards {@link #size()}, until their
+ * segment is reused.
+ */
+public final class OffHeapSummaryStore {
+
+    // Record header: total record length, write time, then key length
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Short.BYTES;
+    private static final int WRITE_TIME_OFFSET = Integer.BYTES;
+    private static final int KEY_LENGTH_OFFSET = Integer.BYTES + Long.BYTES;
+    private static final int MAX_SEGMENTS = 1 << 11;
+    private static final int GENERATION_MASK = (1 << 20) - 1;
+    private static final int MIN_INDEX_CAPACITY = 1 << 10;
+    private static final long EMPTY = 0;
+
+    private final int segmentBytes;
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+    private final ByteBuffer[] segments;
+    private final int[] generations;
+    private final int[] liveRecords;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by lock
+    private long[] indexHashes = new long[MIN_INDEX_CAPACITY];
+    private long[] indexAddresses = new long[MIN_INDEX_CAPACITY];
+    private int indexOccupied;
+    private int activeSegment;
+    private int writeOffset;
+    private volatile long entries;
+    private volatile int allocatedSegments;
+
+    /**
+     * @param capacityBytes total direct memory to use, rounded down to whole segments
+     * @param segmentBytes  size of each segment, which also caps the size of a single record
+     */
+    public OffHeapSummaryStore(long capacityBytes, int segmentBytes) {
+        this(capacityBytes, segmentBytes, null);
+    }
+
+    /**
+     * @param timeToLive how long after being written a summary is served; null or zero forever
+     */
+    public OffHeapSummaryStore(long capacityBytes, int segmentBytes, Duration timeToLive) {
+        this(capacityBytes, segmentBytes, timeToLive, System::nanoTime);
+    }
+
+    OffHeapSummaryStore(long capacityBytes, int segmentBytes, Duration timeToLive, LongSupplier ticker) {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("segmentBytes must be at least 1024: " + segmentBytes);
+        }
+        long segmentCount = capacityBytes / segmentBytes;
+        if (segmentCount < 2 || segmentCount > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("capacityBytes must hold between 2 and " + MAX_SEGMENTS
+                    + " segments: " + capacityBytes);
+        }
+        this.segmentBytes = segmentBytes;
+        this.timeToLiveNanos = timeToLive != null ? timeToLive.toNanos() : 0;
+        this.ticker = ticker;
+        this.segments = new ByteBuffer[(int) segmentCount];
+        this.generations = new int[segments.length];
+        this.liveRecords = new int[segments.length];
+    }
+
+    /**
+     * Returns the stored summary, or null if absent
+     */
+    public SummaryResponse get(SummaryCacheKey key) {
+        byte[] keyBytes = SummaryCodec.encodeKey(key);
+        long hash = hash(keyBytes);
+        long now = ticker.getAsLong();
+        byte[] valueBytes = null;
+
+        lock.readLock().lock();
+        try {
+            long address = indexAddresses[slotOf(hash)];
+            if (address != EMPTY && isLive(address)) {
+                valueBytes = readValue(address, keyBytes, now);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (valueBytes == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return SummaryCodec.decodeValue(key, valueBytes);
+    }
+
+    /**
+     * Stores the summary, replacing any previous one for the key
+     *
+     * @return false if the encoded entry is larger than a segment and was not stored
+     */
+    public boolean put(SummaryCacheKey key, SummaryResponse value) {
+        byte[] keyBytes = SummaryCodec.encodeKey(key);
+        byte[] valueBytes = SummaryCodec.encodeValue(key, value);
+        int recordBytes = HEADER_BYTES + keyBytes.length + valueBytes.length;
+        if (keyBytes.length > Short.MAX_VALUE || recordBytes > segmentBytes) {
+            return false;
+        }
+        long hash = hash(keyBytes);
+        long now = ticker.getAsLong();
+
+        lock.writeLock().lock();
+        try {
+            if (writeOffset + recordBytes > segmentBytes || segments[activeSegment] == null) {
+                advanceSegment();
+            }
+            ByteBuffer segment = segments[activeSegment];
+            int offset = writeOffset;
+            segment.putInt(offset, recordBytes);
+            segment.putLong(offset + WRITE_TIME_OFFSET, now);
+            segment.putShort(offset + KEY_LENGTH_OFFSET, (short) keyBytes.length);
+            segment.put(offset + HEADER_BYTES, keyBytes);
+            segment.put(offset + HEADER_BYTES + keyBytes.length, valueBytes);
+            writeOffset += recordBytes;
+            liveRecords[activeSegment]++;
+            entries++;
+
+            if ((indexOccupied + 1) * 2L > indexHashes.length) {
+                rebuildIndex();
+            }
+            int slot = slotOf(hash);
+            if (indexHashes[slot] == EMPTY) {
+                indexHashes[slot] = hash;
+                indexOccupied++;
+            } else {
+                release(indexAddresses[slot]);
+            }
+            indexAddresses[slot] = address(activeSegment, generations[activeSegment], offset);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the summary stored for the key, if any
+     */
+    public void remove(SummaryCacheKey key) {
+        long hash = hash(SummaryCodec.encodeKey(key));
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(hash);
+            if (indexHashes[slot] != EMPTY) {
+                release(indexAddresses[slot]);
+                deleteSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every summary of the tenant. Visits the whole index, so it is meant for rare
+     * events such as a change of the tenant's settings.
+     *
+     * @return the number of summaries removed
+     */
+    public int removeTenant(String tenantId) {
+        byte[] prefix = SummaryCodec.encodeTenantPrefix(tenantId);
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            int slot = 0;
+            while (slot < indexHashes.length) {
+                long address = indexAddresses[slot];
+                if (indexHashes[slot] != EMPTY && isLive(address) && keyStartsWith(address, prefix)) {
+                    release(address);
+                    // Shifts a later entry into this slot, so look at it again
+                    deleteSlot(slot);
+                    removed++;
+                } else {
+                    slot++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all summaries, keeping the allocated segments for reuse
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                generations[i] = (generations[i] + 1) & GENERATION_MASK;
+                liveRecords[i] = 0;
+            }
+            indexHashes = new long[MIN_INDEX_CAPACITY];
+            indexAddresses = new long[MIN_INDEX_CAPACITY];
+            indexOccupied = 0;
+            activeSegment = 0;
+            writeOffset = 0;
+            entries = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored summaries
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * Returns the direct memory allocated so far
+     */
+    public long allocatedBytes() {
+        return (long) allocatedSegments * segmentBytes;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of summaries dropped because their segment was reused
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void advanceSegment() {
+        if (segments[activeSegment] != null) {
+            activeSegment = (activeSegment + 1) % segments.length;
+        }
+        if (segments[activeSegment] == null) {
+            segments[activeSegment] = ByteBuffer.allocateDirect(segmentBytes);
+            allocatedSegments++;
+        } else {
+            // Reuse the oldest segment: everything still in it is evicted
+            int evicted = liveRecords[activeSegment];
+            evictions.add(evicted);
+            entries -= evicted;
+            liveRecords[activeSegment] = 0;
+            generations[activeSegment] = (generations[activeSegment] + 1) & GENERATION_MASK;
+        }
+        writeOffset = 0;
+    }
+
+    private byte[] readValue(long address, byte[] keyBytes, long now) {
+        ByteBuffer segment = segments[segmentOf(address)];
+        int offset = offsetOf(address);
+        int recordBytes = segment.getInt(offset);
+        int keyLength = segment.getShort(offset + KEY_LENGTH_OFFSET);
+        // A generation that wrapped around could point into the middle of a newer record
+        if (keyLength != keyBytes.length || recordBytes < HEADER_BYTES + keyLength
+                || recordBytes > segmentBytes - offset) {
+            return null;
+        }
+        byte[] storedKey = new byte[keyLength];
+        segment.get(offset + HEADER_BYTES, storedKey);
+        if (!Arrays.equals(storedKey, keyBytes)) {
+            return null;
+        }
+        if (timeToLiveNanos > 0 && now - segment.getLong(offset + WRITE_TIME_OFFSET) >= timeToLiveNanos) {
+            return null;
+        }
+        byte[] value = new byte[recordBytes - HEADER_BYTES - keyLength];
+        segment.get(offset + HEADER_BYTES + keyLength, value);
+        return value;
+    }
+
+    private boolean keyStartsWith(long address, byte[] prefix) {
+        ByteBuffer segment = segments[segmentOf(address)];
+        int offset = offsetOf(address);
+        int recordBytes = segment.getInt(offset);
+        int keyLength = segment.getShort(offset + KEY_LENGTH_OFFSET);
+        if (keyLength < prefix.length || recordBytes < HEADER_BYTES + keyLength
+                || recordBytes > segmentBytes - offset) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (segment.get(offset + HEADER_BYTES + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isLive(long address) {
+        return generationOf(address) == generations[segmentOf(address)];
+    }
+
+    private void release(long address) {
+        if (isLive(address)) {
+            liveRecords[segmentOf(address)]--;
+            entries--;
+        }
+    }
+
+    /**
+     * Returns the slot holding the hash, or the empty slot where it belongs
+     */
+    private int slotOf(long hash) {
+        int mask = indexHashes.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (indexHashes[slot] != EMPTY && indexHashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Backward shift deletion keeps linear probing free of tombstones
+    private void deleteSlot(int slot) {
+        int mask = indexHashes.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long hash = indexHashes[next];
+            if (hash == EMPTY) {
+                break;
+            }
+            int home = (int) (hash ^ (hash >>> 32)) & mask;
+            // Move the entry back unless its home lies cyclically in (slot, next]
+            boolean stays = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+            if (!stays) {
+                indexHashes[slot] = hash;
+                indexAddresses[slot] = indexAddresses[next];
+                slot = next;
+            }
+        }
+        indexHashes[slot] = EMPTY;
+        indexAddresses[slot] = EMPTY;
+        indexOccupied--;
+    }
+
+    private void rebuildIndex() {
+        long[] oldHashes = indexHashes;
+        long[] oldAddresses = indexAddresses;
+        int live = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY && isLive(oldAddresses[i])) {
+                live++;
+            }
+        }
+        // Dropping stale entries may free enough room to keep the current capacity
+        int capacity = Math.max(MIN_INDEX_CAPACITY, Integer.highestOneBit(Math.max(1, live + 1) * 4 - 1) << 1);
+        indexHashes = new long[capacity];
+        indexAddresses = new long[capacity];
+        indexOccupied = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY && isLive(oldAddresses[i])) {
+                int slot = slotOf(oldHashes[i]);
+                indexHashes[slot] = oldHashes[i];
+                indexAddresses[slot] = oldAddresses[i];
+                indexOccupied++;
+            }
+        }
+    }
+
+    private static long address(int segment, int generation, int offset) {
+        // Offsets start at 0, so set the top bit to tell a real address from an empty slot
+        return Long.MIN_VALUE | ((long) segment << 52) | ((long) generation << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 52) & (MAX_SEGMENTS - 1);
+    }
+
+    private static int generationOf(long address) {
+        return (int) (address >>> 32) & GENERATION_MASK;
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    // 64-bit FNV-1a; zero is reserved for empty index slots
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY ? 1 : hash;
+    }
+}
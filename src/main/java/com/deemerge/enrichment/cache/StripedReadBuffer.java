@@ -0,0 +1,96 @@
+package com.deemerge.enrichment.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped ring buffers that record cache reads without taking a lock.
+ * Each reader picks a stripe by its thread id and claims a slot with a single CAS;
+ * if the stripe is full or the CAS is contended the access is simply dropped, which
+ * only makes the recency order slightly less precise. The buffers are drained by the
+ * single thread that holds the cache's eviction lock.
+ */
+final class StripedReadBuffer<E> {
+
+    static final int SUCCESS = 0;
+    static final int FULL = 1;
+    static final int FAILED = -1;
+
+    private static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    private final Stripe<E>[] stripes;
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    StripedReadBuffer() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Records an element
+     *
+     * @return {@link #SUCCESS}, {@link #FULL} when the stripe needs draining,
+     * or {@link #FAILED} when the slot was lost to a concurrent reader
+     */
+    int offer(E element) {
+        return stripes[probe() & stripeMask].offer(element);
+    }
+
+    /**
+     * Hands every recorded element to the consumer. Must only be called by one thread at a time.
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe<E> {
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        int offer(E element) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            if (tail - head >= BUFFER_SIZE) {
+                return FULL;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & BUFFER_MASK), element);
+                return SUCCESS;
+            }
+            return FAILED;
+        }
+
+        void drainTo(Consumer<E> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & BUFFER_MASK);
+                E element = buffer.get(index);
+                if (element == null) {
+                    // The slot was claimed but not yet published; pick it up on the next drain
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(element);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.util.ContentDigest;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+/**
+ * Content-addressed key of a cached summary. Two requests share a summary only when
+ * they come from the same tenant, have the same text (by SHA-256 digest) and would be
+ * sent to the model with the same model, tone and prompt template.
+ * Build it once per request with {@link #of} and reuse it for lookup and store.
+ */
+@Value
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
+public class SummaryCacheKey implements TenantScopedKey {
+
+    String tenantId;
+    String textDigest;
+    String model;
+    String tone;
+    String promptTemplateVersion;
+
+    /**
+     * Creates the key for a request, digesting the input text exactly once
+     */
+    public static SummaryCacheKey of(String tenantId, String inputText, TenantSettings settings,
+                                     String promptTemplateVersion) {
+        return new SummaryCacheKey(tenantId, ContentDigest.sha256Hex(inputText),
+                settings.getModel(), settings.getTone(), promptTemplateVersion);
+    }
+}
@@ -0,0 +1,163 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.SummaryResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding of summary cache keys and values for the off-heap tier.
+ * Strings are written as a varint of their UTF-8 length plus one (zero for null)
+ * followed by the UTF-8 bytes. A value starts with a flag byte; its tenant ID is
+ * not repeated when it equals its key's, and its timestamp is optional.
+ */
+final class SummaryCodec {
+
+    private static final int TENANT_ID_OF_KEY = 1;
+    private static final int HAS_TIMESTAMP = 1 << 1;
+
+    private SummaryCodec() {
+    }
+
+    static byte[] encodeKey(SummaryCacheKey key) {
+        Writer writer = new Writer(128);
+        writer.writeString(key.getTenantId());
+        writer.writeString(key.getTextDigest());
+        writer.writeString(key.getModel());
+        writer.writeString(key.getTone());
+        writer.writeString(key.getPromptTemplateVersion());
+        return writer.toByteArray();
+    }
+
+    /**
+     * Returns the bytes every encoded key of the tenant starts with
+     */
+    static byte[] encodeTenantPrefix(String tenantId) {
+        Writer writer = new Writer(32);
+        writer.writeString(tenantId);
+        return writer.toByteArray();
+    }
+
+    static byte[] encodeValue(SummaryCacheKey key, SummaryResponse value) {
+        boolean tenantIdOfKey = Objects.equals(key.getTenantId(), value.getTenantId());
+        Instant timestamp = value.getTimestamp();
+        int flags = (tenantIdOfKey ? TENANT_ID_OF_KEY : 0) | (timestamp != null ? HAS_TIMESTAMP : 0);
+
+        Writer writer = new Writer(64 + (value.getSummary() != null ? value.getSummary().length() : 0));
+        writer.writeByte(flags);
+        writer.writeString(value.getInputText());
+        writer.writeString(value.getSummary());
+        if (!tenantIdOfKey) {
+            writer.writeString(value.getTenantId());
+        }
+        if (timestamp != null) {
+            writer.writeVarLong(zigZag(timestamp.getEpochSecond()));
+            writer.writeVarLong(timestamp.getNano());
+        }
+        return writer.toByteArray();
+    }
+
+    static SummaryResponse decodeValue(SummaryCacheKey key, byte[] bytes) {
+        Reader reader = new Reader(bytes);
+        int flags = reader.readByte();
+        SummaryResponse.SummaryResponseBuilder builder = SummaryResponse.builder()
+                .inputText(reader.readString())
+                .summary(reader.readString())
+                .tenantId((flags & TENANT_ID_OF_KEY) != 0 ? key.getTenantId() : reader.readString());
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            long seconds = unZigZag(reader.readVarLong());
+            builder.timestamp(Instant.ofEpochSecond(seconds, reader.readVarLong()));
+        }
+        return builder.build();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int length;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, buffer, length, utf8.length);
+            length += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        String readString() {
+            int length = (int) readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
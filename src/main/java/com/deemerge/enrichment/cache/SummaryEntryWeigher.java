@@ -0,0 +1,58 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.SummaryResponse;
+
+/**
+ * Estimates the heap retained by a summary cache entry in bytes.
+ * The estimate counts two bytes per character and ignores string sharing,
+ * so it errs high and a tenant's cache stays within its budget.
+ */
+public final class SummaryEntryWeigher implements Weigher<Object, Object> {
+
+    // Map node, policy node and their references
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    // String object plus the header of its backing array
+    private static final int STRING_OVERHEAD = 24 + 16;
+    private static final int INSTANT = 24;
+    // Values of unknown type are assumed to be about this large
+    private static final int UNKNOWN_VALUE = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = ENTRY_OVERHEAD + sizeOf(key) + sizeOf(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    static long sizeOf(Object object) {
+        if (object == null) {
+            return 0;
+        }
+        if (object instanceof CharSequence) {
+            return sizeOf((CharSequence) object);
+        }
+        if (object instanceof SummaryCacheKey) {
+            SummaryCacheKey key = (SummaryCacheKey) object;
+            return OBJECT_HEADER + 6 * REFERENCE
+                    + sizeOf(key.getTenantId())
+                    + sizeOf(key.getTextDigest())
+                    + sizeOf(key.getModel())
+                    + sizeOf(key.getTone())
+                    + sizeOf(key.getPromptTemplateVersion());
+        }
+        if (object instanceof SummaryResponse) {
+            SummaryResponse response = (SummaryResponse) object;
+            return OBJECT_HEADER + 4 * REFERENCE
+                    + sizeOf(response.getInputText())
+                    + sizeOf(response.getSummary())
+                    + sizeOf(response.getTenantId())
+                    + (response.getTimestamp() != null ? INSTANT : 0);
+        }
+        return UNKNOWN_VALUE;
+    }
+
+    private static long sizeOf(CharSequence text) {
+        return text == null ? 0 : STRING_OVERHEAD + 2L * text.length();
+    }
+}
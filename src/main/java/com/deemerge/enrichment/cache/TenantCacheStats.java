@@ -0,0 +1,113 @@
+package com.deemerge.enrichment.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of one tenant's summary cache. Lookups and loads are counted on striped
+ * {@link LongAdder}s, so recording them from many request threads does not contend;
+ * size and eviction figures are read from the tenant's {@link BoundedConcurrentCache}.
+ * <p>
+ * A hit saves the model call a miss would have made, so {@link #averageLoadTimeNanos()}
+ * doubles as the model-call time saved per hit.
+ * <p>
+ * When the tenant's cache is replaced, for a new budget, the statistics move to the new
+ * cache and keep counting, so meters bound to them stay valid.
+ */
+public final class TenantCacheStats {
+
+    private volatile BoundedConcurrentCache<?, ?> cache;
+    // Evictions of the caches this one replaced
+    private final LongAdder replacedEvictions = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+    public TenantCacheStats(BoundedConcurrentCache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Moves the statistics to the cache that replaces the tenant's current one
+     */
+    public void replaceCache(BoundedConcurrentCache<?, ?> replacement) {
+        replacedEvictions.add(cache.evictionCount());
+        cache = replacement;
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccesses.increment();
+        totalLoadTimeNanos.add(loadTimeNanos);
+    }
+
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailures.increment();
+        totalLoadTimeNanos.add(loadTimeNanos);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long loadSuccessCount() {
+        return loadSuccesses.sum();
+    }
+
+    public long loadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    public long loadCount() {
+        return loadSuccessCount() + loadFailureCount();
+    }
+
+    public long totalLoadTimeNanos() {
+        return totalLoadTimeNanos.sum();
+    }
+
+    /**
+     * Returns the share of lookups that were hits, or 0 before the first lookup
+     */
+    public double hitRatio() {
+        long hitCount = hitCount();
+        long total = hitCount + missCount();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the mean duration of a load, including failed ones, or 0 before the first load
+     */
+    public double averageLoadTimeNanos() {
+        long loads = loadCount();
+        return loads == 0 ? 0 : (double) totalLoadTimeNanos() / loads;
+    }
+
+    public long evictionCount() {
+        return replacedEvictions.sum() + cache.evictionCount();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public long weightedSize() {
+        return cache.weightedSize();
+    }
+
+    public long budgetBytes() {
+        return cache.maximumWeight();
+    }
+}
@@ -0,0 +1,13 @@
+package com.deemerge.enrichment.cache;
+
+/**
+ * Cache key that belongs to a single tenant. The tenant-aware cache partitions
+ * its entries by {@link #getTenantId()} instead of parsing it out of a string key.
+ */
+public interface TenantScopedKey {
+
+    /**
+     * @return the tenant that owns the cached entry
+     */
+    String getTenantId();
+}
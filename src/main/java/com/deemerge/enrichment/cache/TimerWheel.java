@@ -0,0 +1,164 @@
+package com.deemerge.enrichment.cache;
+
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timer wheel that finds expired cache entries in amortized O(1).
+ * <p>
+ * Each level is an array of buckets, a bucket being a circular list of the entries whose
+ * expiration time falls in its span. Levels have coarser spans, roughly a second, a minute,
+ * an hour and a day, so a timer is placed in the finest level that covers its distance from
+ * now. Advancing the clock only visits the buckets whose span has elapsed; an entry found
+ * there that is not due yet is rescheduled into a finer bucket. No thread per entry and no
+ * full scan is needed.
+ * <p>
+ * Times are nanoseconds and must not be negative, since bucket indices are derived from
+ * their bits; the cache measures them from its own creation. Not thread-safe: only used
+ * by the thread holding the cache's eviction lock.
+ */
+final class TimerWheel {
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            1L << 30, // 1.07 s
+            1L << 36, // 1.14 m
+            1L << 42, // 1.22 h
+            1L << 47, // 1.63 d
+            1L << 49, // 6.5 d
+            1L << 49, // 6.5 d
+    };
+    private static final int[] SHIFT = {30, 36, 42, 47, 49};
+
+    private final Sentinel[][] wheel;
+    private long nanos;
+
+    TimerWheel(long nanos) {
+        this.nanos = nanos;
+        this.wheel = new Sentinel[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new Sentinel[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = new Sentinel();
+            }
+        }
+    }
+
+    /**
+     * Adds the node at its {@link TimerNode#expirationTime}
+     */
+    void schedule(TimerNode node) {
+        link(findBucket(node.expirationTime), node);
+    }
+
+    /**
+     * Moves a scheduled node to the bucket of its updated expiration time
+     */
+    void reschedule(TimerNode node) {
+        if (node.nextInTimer != null) {
+            unlink(node);
+            schedule(node);
+        }
+    }
+
+    /**
+     * Removes the node if it is scheduled
+     */
+    void deschedule(TimerNode node) {
+        unlink(node);
+        node.prevInTimer = null;
+        node.nextInTimer = null;
+    }
+
+    /**
+     * Advances the clock and offers every node whose bucket has elapsed to the expirer.
+     * A node the expirer declines, for example because it was written again in the
+     * meantime, is scheduled again at its current expiration time.
+     */
+    void advance(long currentTimeNanos, Predicate<TimerNode> expirer) {
+        long previousTimeNanos = nanos;
+        nanos = currentTimeNanos;
+
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTimeNanos >>> SHIFT[i];
+            long currentTicks = currentTimeNanos >>> SHIFT[i];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(i, previousTicks, delta, expirer);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Predicate<TimerNode> expirer) {
+        Sentinel[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+
+        for (int i = start; i < end; i++) {
+            Sentinel sentinel = buckets[i & mask];
+            TimerNode node = sentinel.nextInTimer;
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+
+            while (node != sentinel) {
+                TimerNode next = node.nextInTimer;
+                node.prevInTimer = null;
+                node.nextInTimer = null;
+                if (node.expirationTime - nanos > 0 || !expirer.test(node)) {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private TimerNode findBucket(long time) {
+        // An overdue timer goes to the current bucket, which the next advance visits first
+        if (time - nanos < 0) {
+            time = nanos;
+        }
+        long duration = time - nanos;
+        int last = wheel.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    private static void link(TimerNode sentinel, TimerNode node) {
+        node.prevInTimer = sentinel.prevInTimer;
+        node.nextInTimer = sentinel;
+        sentinel.prevInTimer.nextInTimer = node;
+        sentinel.prevInTimer = node;
+    }
+
+    private static void unlink(TimerNode node) {
+        TimerNode next = node.nextInTimer;
+        if (next != null) {
+            TimerNode prev = node.prevInTimer;
+            next.prevInTimer = prev;
+            prev.nextInTimer = next;
+        }
+    }
+
+    /**
+     * Links of an entry in the wheel. Guarded by the cache's eviction lock.
+     */
+    abstract static class TimerNode {
+        long expirationTime;
+        TimerNode prevInTimer;
+        TimerNode nextInTimer;
+    }
+
+    private static final class Sentinel extends TimerNode {
+        Sentinel() {
+            prevInTimer = this;
+            nextInTimer = this;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.deemerge.enrichment.cache;
+
+/**
+ * Computes the relative weight of a cache entry, e.g. its estimated size in bytes
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * @return the weight of the entry; must not be negative
+     */
+    int weigh(K key, V value);
+}
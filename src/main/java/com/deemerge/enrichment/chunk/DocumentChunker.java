@@ -0,0 +1,273 @@
+package com.deemerge.enrichment.chunk;
+
+import com.deemerge.enrichment.token.BpeTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a text too long for one model call into chunks of at most a given number of
+ * tokens, cutting between sentences and paragraphs.
+ * <p>
+ * Where a chunk ends is decided by the text rather than by position: once a chunk holds a
+ * quarter of the limit, it ends after the next paragraph, or after the next sentence whose
+ * hash marks it as a boundary, one sentence in four on average. An edit therefore only moves
+ * the boundaries up to the first such sentence after it, and the chunks beyond come out the
+ * same as before, so their cached summaries still apply. When the next sentence would not fit
+ * before any boundary, the chunk ends after the sentence with the lowest hash instead, which
+ * another split of the text most likely picks too. A sentence over the limit on its own is
+ * cut between words, or within a word as a last resort.
+ * <p>
+ * Sentences end at a line break, or at whitespace after '.', '!' or '?' and any closing
+ * quotes or brackets. Chunks are the document's text with the whitespace around them trimmed,
+ * and their token counts are exact: each sentence is counted once, together with the
+ * whitespace before it. Instances are immutable and safe to share between threads.
+ */
+public final class DocumentChunker {
+
+    // A chunk may end at a content-defined boundary once it holds this share of the limit
+    private static final int MIN_FILL_DIVISOR = 4;
+    // One sentence in 2^BOUNDARY_BITS is a boundary
+    private static final int BOUNDARY_BITS = 2;
+
+    private final BpeTokenizer tokenizer;
+
+    public DocumentChunker(BpeTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * Splits the text into chunks of at most maxTokens tokens each, in document order.
+     * A text that fits comes back as a single chunk, a blank one as none.
+     *
+     * @throws IllegalArgumentException if maxTokens is too small to hold a character
+     */
+    public List<String> split(String text, int maxTokens) {
+        return split(text, maxTokens, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Splits the text like {@link #split(String, int)}, but stops as soon as there are more
+     * than maxChunks chunks, without reading or counting the rest of the text. The chunks
+     * then returned are the first ones of the full split, more than maxChunks of them.
+     *
+     * @throws IllegalArgumentException if maxTokens is too small to hold a character
+     */
+    public List<String> split(String text, int maxTokens, int maxChunks) {
+        if (maxTokens < 4) {
+            // A character is at most four byte tokens
+            throw new IllegalArgumentException("Chunks must allow at least 4 tokens");
+        }
+        int minTokens = maxTokens / MIN_FILL_DIVISOR;
+        List<String> chunks = new ArrayList<>();
+        int length = text.length();
+        int chunkStart = -1;
+        int chunkEnd = 0;
+        int chunkTokens = 0;
+        // End of the sentence past the minimum with the lowest boundary hash, to cut at if none is a boundary
+        int fallbackEnd = -1;
+        int fallbackHash = 0;
+        int position = 0;
+        while (chunks.size() <= maxChunks) {
+            int sentenceStart = skipWhitespace(text, position, length);
+            if (sentenceStart == length) {
+                break;
+            }
+            int sentenceEnd = sentenceEnd(text, sentenceStart);
+
+            if (chunkStart >= 0) {
+                // Counted with the whitespace before it, as it appears within the chunk
+                int tokens = tokenizer.countTokens(text.subSequence(position, sentenceEnd), maxTokens - chunkTokens);
+                if (chunkTokens + tokens <= maxTokens) {
+                    chunkTokens += tokens;
+                    chunkEnd = sentenceEnd;
+                } else if (fallbackEnd >= 0) {
+                    // Cut where another split of the same text would most likely cut too, and go on from there
+                    chunks.add(text.substring(chunkStart, fallbackEnd));
+                    chunkStart = -1;
+                    position = fallbackEnd;
+                    continue;
+                } else {
+                    chunks.add(text.substring(chunkStart, chunkEnd));
+                    chunkStart = -1;
+                }
+            }
+            if (chunkStart < 0) {
+                int tokens = tokenizer.countTokens(text.subSequence(sentenceStart, sentenceEnd), maxTokens);
+                if (tokens > maxTokens) {
+                    splitSentence(text, sentenceStart, sentenceEnd, maxTokens, maxChunks, chunks);
+                    position = sentenceEnd;
+                    continue;
+                }
+                chunkStart = sentenceStart;
+                chunkEnd = sentenceEnd;
+                chunkTokens = tokens;
+                fallbackEnd = -1;
+            }
+            if (chunkTokens >= minTokens) {
+                int next = skipWhitespace(text, sentenceEnd, length);
+                int hash = boundaryHash(text, sentenceStart, sentenceEnd);
+                if (next == length || isParagraphBreak(text, sentenceEnd, next)
+                        || hash >>> (Integer.SIZE - BOUNDARY_BITS) == 0) {
+                    chunks.add(text.substring(chunkStart, chunkEnd));
+                    chunkStart = -1;
+                } else if (fallbackEnd < 0 || Integer.compareUnsigned(hash, fallbackHash) < 0) {
+                    fallbackEnd = sentenceEnd;
+                    fallbackHash = hash;
+                }
+            }
+            position = sentenceEnd;
+        }
+        if (chunkStart >= 0 && chunks.size() <= maxChunks) {
+            chunks.add(text.substring(chunkStart, chunkEnd));
+        }
+        return chunks;
+    }
+
+    /**
+     * Cuts a sentence over the limit into chunks between words, stopping once there are more
+     * than maxChunks chunks
+     */
+    private void splitSentence(String text, int start, int end, int maxTokens, int maxChunks, List<String> chunks) {
+        int chunkStart = -1;
+        int chunkEnd = 0;
+        int chunkTokens = 0;
+        int position = start;
+        while (position < end) {
+            int wordStart = skipWhitespace(text, position, end);
+            int wordEnd = wordStart;
+            while (wordEnd < end && !Character.isWhitespace(text.charAt(wordEnd))) {
+                wordEnd++;
+            }
+            if (chunkStart >= 0) {
+                int tokens = tokenizer.countTokens(text.subSequence(position, wordEnd), maxTokens - chunkTokens);
+                if (chunkTokens + tokens <= maxTokens) {
+                    chunkTokens += tokens;
+                    chunkEnd = wordEnd;
+                    position = wordEnd;
+                    continue;
+                }
+                chunks.add(text.substring(chunkStart, chunkEnd));
+                if (chunks.size() > maxChunks) {
+                    return;
+                }
+            }
+            int tokens = tokenizer.countTokens(text.subSequence(wordStart, wordEnd), maxTokens);
+            if (tokens > maxTokens) {
+                wordStart = splitWord(text, wordStart, wordEnd, maxTokens, maxChunks, chunks);
+                if (chunks.size() > maxChunks) {
+                    return;
+                }
+                tokens = tokenizer.countTokens(text.subSequence(wordStart, wordEnd));
+            }
+            chunkStart = wordStart;
+            chunkEnd = wordEnd;
+            chunkTokens = tokens;
+            position = wordEnd;
+        }
+        if (chunkStart >= 0) {
+            chunks.add(text.substring(chunkStart, chunkEnd));
+        }
+    }
+
+    /**
+     * Cuts the longest prefixes that fit off a word over the limit, stopping once there are
+     * more than maxChunks chunks
+     *
+     * @return start of the rest of the word, which fits unless the chunks ran over
+     */
+    private int splitWord(String text, int start, int end, int maxTokens, int maxChunks, List<String> chunks) {
+        while (chunks.size() <= maxChunks
+                && tokenizer.countTokens(text.subSequence(start, end), maxTokens) > maxTokens) {
+            // The first character always fits; binary search for the longest prefix that does
+            int fits = text.offsetByCodePoints(start, 1);
+            int exceeds = end;
+            while (exceeds - fits > 1) {
+                int middle = (fits + exceeds) >>> 1;
+                if (Character.isLowSurrogate(text.charAt(middle))) {
+                    middle--;
+                }
+                if (middle <= fits) {
+                    break;
+                }
+                if (tokenizer.countTokens(text.subSequence(start, middle), maxTokens) <= maxTokens) {
+                    fits = middle;
+                } else {
+                    exceeds = middle;
+                }
+            }
+            chunks.add(text.substring(start, fits));
+            start = fits;
+        }
+        return start;
+    }
+
+    /**
+     * End of the sentence starting at the given non-whitespace position: the start of the
+     * first whitespace run that ends it, or of the text's trailing whitespace
+     */
+    private static int sentenceEnd(String text, int from) {
+        int length = text.length();
+        int i = from + 1;
+        while (i < length) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int runEnd = i;
+            boolean lineBreak = false;
+            while (runEnd < length && Character.isWhitespace(text.charAt(runEnd))) {
+                lineBreak |= text.charAt(runEnd) == '\n';
+                runEnd++;
+            }
+            if (lineBreak || runEnd == length || endsSentence(text, from, i)) {
+                return i;
+            }
+            i = runEnd;
+        }
+        return length;
+    }
+
+    private static boolean endsSentence(String text, int from, int end) {
+        int i = end - 1;
+        while (i > from && isCloser(text.charAt(i))) {
+            i--;
+        }
+        char c = text.charAt(i);
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    private static boolean isCloser(char c) {
+        return c == '"' || c == '\'' || c == ')' || c == ']' || c == '\u201D' || c == '\u2019';
+    }
+
+    private static boolean isParagraphBreak(String text, int from, int to) {
+        int lineBreaks = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n' && ++lineBreaks == 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hash of the sentence's content, whose top bits tell whether it is a chunk boundary.
+     * String hashes are specified, so every instance picks the same sentences.
+     */
+    private static int boundaryHash(String text, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash * 0x9E3779B9;
+    }
+
+    private static int skipWhitespace(String text, int from, int to) {
+        int i = from;
+        while (i < to && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,225 @@
+package com.deemerge.enrichment.client;
+
+import com.deemerge.enrichment.exception.ModelCallException;
+import com.deemerge.enrichment.exception.ModelRequestRejectedException;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Model client speaking the OpenAI chat completions API over HTTP.
+ * <p>
+ * All calls share one {@link HttpClient}, which multiplexes them over a single HTTP/2
+ * connection per host where the server negotiates it, and otherwise keeps a pool of
+ * HTTP/1.1 keep-alive connections. Requests are sent asynchronously and streamed responses
+ * are consumed line by line as they arrive, so no thread waits on the network.
+ * <p>
+ * Timeouts, connection failures, 408, 429 and 5xx responses fail with a retryable
+ * {@link ModelCallException}; any other status means the request itself was refused, and
+ * retrying it would not help.
+ */
+public class HttpModelClient implements ModelClient {
+
+    static final String COMPLETIONS_PATH = "/v1/chat/completions";
+
+    private final HttpClient httpClient;
+    private final URI completionsUri;
+    private final String apiKey;
+    private final Duration requestTimeout;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param apiKey sent as a bearer token; null or blank sends none
+     */
+    public HttpModelClient(HttpClient httpClient, URI baseUri, String apiKey, Duration requestTimeout,
+                           ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.completionsUri = baseUri.resolve(COMPLETIONS_PATH);
+        this.apiKey = apiKey;
+        this.requestTimeout = requestTimeout;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+        CompletableFuture<HttpResponse<String>> sent = httpClient.sendAsync(request(prompt, settings, false),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return cancelling(sent, translateFailures(sent.thenApply(response -> {
+            checkStatus(response.statusCode());
+            return readContent(response.body());
+        })));
+    }
+
+    @Override
+    public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                            Consumer<String> fragmentConsumer) {
+        EventStreamSubscriber events = new EventStreamSubscriber(fragmentConsumer);
+        CompletableFuture<HttpResponse<Void>> sent = httpClient.sendAsync(request(prompt, settings, true),
+                info -> info.statusCode() == 200
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(events)
+                        : HttpResponse.BodySubscribers.discarding());
+        return cancelling(sent, translateFailures(sent.thenCompose(response -> {
+            checkStatus(response.statusCode());
+            return events.result;
+        })));
+    }
+
+    private HttpRequest request(String prompt, TenantSettings settings, boolean stream) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", settings.getModel());
+        body.putArray("messages").addObject()
+                .put("role", "user")
+                .put("content", prompt);
+        if (stream) {
+            body.put("stream", true);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(completionsUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", stream ? "text/event-stream" : "application/json");
+        if (apiKey != null && !apiKey.isBlank()) {
+            request.header("Authorization", "Bearer " + apiKey);
+        }
+        try {
+            return request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new ModelCallException("Failed to write the model request", false, e);
+        }
+    }
+
+    private String readContent(String body) {
+        JsonNode content;
+        try {
+            content = objectMapper.readTree(body).path("choices").path(0).path("message").path("content");
+        } catch (JsonProcessingException e) {
+            throw new ModelCallException("Malformed model response", true, e);
+        }
+        if (!content.isTextual()) {
+            throw new ModelCallException("Model response holds no content", true);
+        }
+        return content.asText();
+    }
+
+    private static void checkStatus(int status) {
+        if (status == 200) {
+            return;
+        }
+        String message = "Model call failed with HTTP " + status;
+        if (status == 408 || status == 429 || status >= 500) {
+            throw new ModelCallException(message, true);
+        }
+        throw new ModelRequestRejectedException(message);
+    }
+
+    /**
+     * Reports timeouts and connection failures as retryable model call failures
+     */
+    private static <T> CompletableFuture<T> translateFailures(CompletableFuture<T> call) {
+        return call.handle((value, ex) -> {
+            if (ex == null) {
+                return value;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof HttpTimeoutException) {
+                throw new ModelCallException("Model call timed out", true, cause);
+            }
+            if (cause instanceof IOException) {
+                throw new ModelCallException("Model call failed: " + cause.getMessage(), true, cause);
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+        });
+    }
+
+    /**
+     * Cancelling the returned call, as a hedged call does with the slower leg, abandons the exchange
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<?> exchange, CompletableFuture<T> call) {
+        call.whenComplete((value, ex) -> {
+            if (call.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return call;
+    }
+
+    /**
+     * Reads the server-sent events of a streamed completion, passing each content delta on
+     * as a fragment. The result fails if the stream breaks off; once fragments have been
+     * passed on, that failure is not retryable, since a retry would repeat them.
+     */
+    private final class EventStreamSubscriber implements Flow.Subscriber<String> {
+        private static final String DATA_PREFIX = "data:";
+        private static final String DONE = "[DONE]";
+
+        private final Consumer<String> fragmentConsumer;
+        private final StringBuilder output = new StringBuilder();
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private boolean emitted;
+
+        EventStreamSubscriber(Consumer<String> fragmentConsumer) {
+            this.fragmentConsumer = fragmentConsumer;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (result.isDone() || !line.startsWith(DATA_PREFIX)) {
+                // Blank separators, comments and other event fields carry no content
+                return;
+            }
+            String data = line.substring(DATA_PREFIX.length()).trim();
+            if (data.equals(DONE)) {
+                return;
+            }
+            JsonNode delta;
+            try {
+                delta = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            } catch (JsonProcessingException e) {
+                subscription.cancel();
+                result.completeExceptionally(new ModelCallException("Malformed model stream event", !emitted, e));
+                return;
+            }
+            if (delta.isTextual() && !delta.asText().isEmpty()) {
+                String fragment = delta.asText();
+                output.append(fragment);
+                emitted = true;
+                fragmentConsumer.accept(fragment);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(emitted
+                    ? new ModelCallException("Model stream broke off: " + throwable.getMessage(), false, throwable)
+                    : throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(output.toString());
+        }
+    }
+}
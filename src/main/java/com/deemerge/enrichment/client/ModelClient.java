@@ -0,0 +1,56 @@
+package com.deemerge.enrichment.client;
+
+import com.deemerge.enrichment.model.TenantSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A language model backend the enrichment service sends its prompts to.
+ * <p>
+ * Every call returns at once with a future; no implementation may block the calling
+ * thread while the model works. A failed call completes its future with a
+ * {@link com.deemerge.enrichment.exception.ModelCallException} telling whether it is worth
+ * retrying. Cancelling a returned future should abandon the call where the backend allows it.
+ */
+public interface ModelClient {
+
+    /**
+     * Sends one prompt to the tenant's model
+     *
+     * @return the model's complete output
+     */
+    CompletableFuture<String> complete(String prompt, TenantSettings settings);
+
+    /**
+     * Sends one prompt and streams the model's output as it is generated. A failed call
+     * must fail before its first fragment, so that a retry never repeats output.
+     *
+     * @param fragmentConsumer receives the fragments in order, on any thread
+     * @return the complete output, once the last fragment has been passed on
+     */
+    CompletableFuture<String> stream(String prompt, TenantSettings settings, Consumer<String> fragmentConsumer);
+
+    /**
+     * Sends prompts sharing a model and tone. Backends without a batch API complete each
+     * prompt on its own; the batch then fails if any of them does.
+     *
+     * @return the outputs in the order of the prompts
+     */
+    default CompletableFuture<List<String>> completeBatch(List<String> prompts, TenantSettings settings) {
+        List<CompletableFuture<String>> calls = new ArrayList<>(prompts.size());
+        for (String prompt : prompts) {
+            calls.add(complete(prompt, settings));
+        }
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<String> outputs = new ArrayList<>(calls.size());
+                    for (CompletableFuture<String> call : calls) {
+                        outputs.add(call.join());
+                    }
+                    return outputs;
+                });
+    }
+}
@@ -0,0 +1,229 @@
+package com.deemerge.enrichment.client;
+
+import com.deemerge.enrichment.exception.ModelCallException;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.util.MdcPropagation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Model client that simulates OpenAI responses in process, with the latency and the failure
+ * rate of a real backend, and optionally a long latency tail. Latency is a timer on the scheduler
+ * and the continuations run on the executor, so no thread waits on a simulated call.
+ * The MDC of the calling thread is carried into them.
+ */
+public class SimulatedModelClient implements ModelClient {
+
+    private static final double ERROR_RATE = 0.2; // 20% failure rate
+    private static final int FIRST_TOKEN_LATENCY_DIVISOR = 5; // A stream starts after a fifth of the call latency
+    private static final double BATCH_ITEM_LATENCY_FRACTION = 0.1; // Each further prompt adds a tenth of the latency
+    private static final int SUMMARIZED_LINES = 5; // The summary quotes the start of the last few lines
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final double slowCallRate;
+    private final int slowCallFactor;
+
+    /**
+     * Creates a simulator without a latency tail
+     */
+    public SimulatedModelClient(ScheduledExecutorService scheduler, Executor executor) {
+        this(scheduler, executor, 0, 1);
+    }
+
+    /**
+     * @param slowCallRate   share of single calls that hit a slow backend replica
+     * @param slowCallFactor how many times longer such a call takes
+     */
+    public SimulatedModelClient(ScheduledExecutorService scheduler, Executor executor,
+                                double slowCallRate, int slowCallFactor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.slowCallRate = slowCallRate;
+        this.slowCallFactor = slowCallFactor;
+    }
+
+    /**
+     * Simulates an OpenAI API call with random variations and failures.
+     * The call latency is modelled as a timer, so no thread waits on it; with a slow call rate,
+     * that share of calls takes several times longer, giving the latency a long tail.
+     * Cancelling the returned future, as a hedged call does with the slower leg, cancels the timer.
+     */
+    @Override
+    public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+        Map<String, String> context = MdcPropagation.capture();
+        int delay = settings.getModel().contains("4") ? 1000 : 500;
+        if (slowCallRate > 0 && ThreadLocalRandom.current().nextDouble() < slowCallRate) {
+            delay *= slowCallFactor;
+        }
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        ScheduledFuture<?> timer = schedule(() -> {
+            // Simulate random failures (20% of calls); ThreadLocalRandom avoids contention on a shared seed
+            if (ThreadLocalRandom.current().nextDouble() < ERROR_RATE) {
+                call.completeExceptionally(new ModelCallException("Simulated OpenAI API failure", true));
+                return;
+            }
+
+            // Generate a simulated summary with some randomness
+            call.complete(generateSimulatedSummary(prompt, settings));
+        }, delay, context);
+        call.whenComplete((summary, ex) -> {
+            if (call.isCancelled()) {
+                timer.cancel(false);
+            }
+        });
+
+        return call;
+    }
+
+    /**
+     * Simulates a batched OpenAI API call for prompts sharing a model and tone. The batch pays
+     * the single-call latency once plus a tenth of it for every further prompt, and fails or
+     * succeeds as a whole; each caller then retries on its own.
+     */
+    @Override
+    public CompletableFuture<List<String>> completeBatch(List<String> prompts, TenantSettings settings) {
+        int delay = settings.getModel().contains("4") ? 1000 : 500;
+        long batchDelay = Math.round(delay * (1 + BATCH_ITEM_LATENCY_FRACTION * (prompts.size() - 1)));
+        Map<String, String> context = MdcPropagation.with(Collections.emptyMap(), "model", settings.getModel());
+        CompletableFuture<List<String>> call = new CompletableFuture<>();
+
+        schedule(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < ERROR_RATE) {
+                call.completeExceptionally(new ModelCallException("Simulated OpenAI API failure", true));
+                return;
+            }
+
+            List<String> summaries = new ArrayList<>(prompts.size());
+            for (String prompt : prompts) {
+                summaries.add(generateSimulatedSummary(prompt, settings));
+            }
+            call.complete(summaries);
+        }, batchDelay, context);
+
+        return call;
+    }
+
+    /**
+     * Simulates a streaming OpenAI API call. The first token arrives after a fifth of the
+     * non-streaming latency and the rest are spread over the remainder, so the whole call
+     * takes about as long while the caller sees output much earlier. Each token is a timer
+     * that schedules the next one, which keeps them in order on the model call executor.
+     */
+    @Override
+    public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                            Consumer<String> fragmentConsumer) {
+        Map<String, String> context = MdcPropagation.capture();
+        int delay = settings.getModel().contains("4") ? 1000 : 500;
+        int firstTokenDelay = delay / FIRST_TOKEN_LATENCY_DIVISOR;
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        schedule(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < ERROR_RATE) {
+                call.completeExceptionally(new ModelCallException("Simulated OpenAI API failure", true));
+                return;
+            }
+
+            List<String> tokens = generateSimulatedTokens(prompt, settings);
+            long tokenInterval = Math.max(1, (delay - firstTokenDelay) / Math.max(1, tokens.size() - 1));
+            emitToken(tokens, 0, tokenInterval, fragmentConsumer, call, context);
+        }, firstTokenDelay, context);
+
+        return call;
+    }
+
+    private void emitToken(List<String> tokens, int index, long tokenInterval, Consumer<String> fragmentConsumer,
+                           CompletableFuture<String> call, Map<String, String> context) {
+        fragmentConsumer.accept(tokens.get(index));
+        if (index + 1 < tokens.size()) {
+            schedule(() -> emitToken(tokens, index + 1, tokenInterval, fragmentConsumer, call, context),
+                    tokenInterval, context);
+        } else {
+            call.complete(String.join("", tokens));
+        }
+    }
+
+    /**
+     * Runs the task on the executor once the delay has elapsed
+     */
+    private ScheduledFuture<?> schedule(Runnable task, long delayMillis, Map<String, String> context) {
+        Runnable wrapped = MdcPropagation.wrap(context, task);
+        return scheduler.schedule(() -> executor.execute(wrapped), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Generates a simulated summary based on the input prompt and settings
+     */
+    static String generateSimulatedSummary(String prompt, TenantSettings settings) {
+        return String.join("", generateSimulatedTokens(prompt, settings));
+    }
+
+    /**
+     * Generates a simulated summary as the sequence of tokens a streaming model would emit:
+     * words, each with the whitespace that follows it
+     */
+    private static List<String> generateSimulatedTokens(String prompt, TenantSettings settings) {
+        List<String> lines = lastLines(prompt, SUMMARIZED_LINES);
+        List<String> tokens = new ArrayList<>();
+        addTokens(tokens, "Summary: ");
+
+        if (lines.size() > 3) {
+            for (String line : lines) {
+                if (line.length() > 10) {
+                    addTokens(tokens, line.substring(0, Math.min(line.length(), 30)));
+                    addTokens(tokens, "... ");
+                }
+            }
+        } else {
+            addTokens(tokens, "This is a simulated summary for " + settings.getModel());
+        }
+
+        // Add variation based on tenant tone
+        if ("formal".equals(settings.getTone())) {
+            addTokens(tokens, "In conclusion, this summarizes the key points.");
+        } else if ("friendly".equals(settings.getTone())) {
+            addTokens(tokens, "Hope this helps you understand the main ideas!");
+        } else if ("technical".equals(settings.getTone())) {
+            addTokens(tokens, "Technical analysis complete. Key findings documented above.");
+        }
+
+        return tokens;
+    }
+
+    /**
+     * The last lines of the text, at most the given number, ignoring trailing line breaks.
+     * Only the end of the text is scanned, so a long prompt is not split up whole.
+     */
+    private static List<String> lastLines(String text, int max) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        List<String> lines = new ArrayList<>(max);
+        while (end >= 0 && lines.size() < max) {
+            int start = text.lastIndexOf('\n', end - 1) + 1;
+            lines.add(0, text.substring(start, end));
+            end = start - 1;
+        }
+        return lines;
+    }
+
+    private static void addTokens(List<String> tokens, String text) {
+        for (String token : text.split("(?<=\\s)(?=\\S)")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.deemerge.enrichment.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embeddable stand-in for an OpenAI-style chat completions endpoint, listening on the
+ * loopback interface. It answers after a fixed latency and fails a share of the calls with
+ * 503, so that the HTTP model client, its connection pool, keep-alive and timeouts can be
+ * load tested without network access. A request without prompt content gets a 400.
+ * <p>
+ * Built on the JDK's com.sun.net.httpserver, it speaks HTTP/1.1 only: the client's h2c upgrade
+ * is ignored, so the stub exercises the HTTP/1.1 keep-alive pool, not HTTP/2 multiplexing.
+ * <p>
+ * The latency is a timer, so a few server threads carry any number of pending calls.
+ * Streamed completions send one server-sent event per word, spread over the latency after
+ * the first arrives at a fifth of it.
+ */
+@Slf4j
+public final class StubModelServer implements AutoCloseable {
+
+    private static final int FIRST_EVENT_LATENCY_DIVISOR = 5;
+
+    private final HttpServer server;
+    private final ScheduledExecutorService scheduler;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Starts the server
+     *
+     * @param port the port to listen on, 0 for any free one
+     */
+    public StubModelServer(int port, Duration latency, double errorRate) throws IOException {
+        this.latencyMillis = Math.max(0, latency.toMillis());
+        this.errorRate = errorRate;
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stub-model-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(HttpModelClient.COMPLETIONS_PATH, this::handle);
+        server.setExecutor(scheduler);
+        server.start();
+        log.info("Stub model server listening on port {}", port());
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Base URI to point the HTTP model client at
+     */
+    public URI baseUri() {
+        try {
+            return new URI("http", null, server.getAddress().getAddress().getHostAddress(), port(), null, null, null);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Completion requests received so far
+     */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        } catch (IOException e) {
+            request = null;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Only POST is supported"));
+            return;
+        }
+        String prompt = request != null ? request.path("messages").path(0).path("content").asText("") : "";
+        if (prompt.isEmpty()) {
+            respond(exchange, 400, error("Request has no prompt content"));
+            return;
+        }
+
+        String model = request.path("model").asText("stub");
+        boolean stream = request.path("stream").asBoolean(false);
+        boolean fail = ThreadLocalRandom.current().nextDouble() < errorRate;
+        long firstResponseMillis = stream ? latencyMillis / FIRST_EVENT_LATENCY_DIVISOR : latencyMillis;
+        scheduler.schedule(() -> {
+            try {
+                if (fail) {
+                    respond(exchange, 503, error("Stub model overloaded"));
+                } else if (stream) {
+                    startEventStream(exchange, model, prompt);
+                } else {
+                    respond(exchange, 200, completion(model, prompt));
+                }
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }, firstResponseMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void startEventStream(HttpExchange exchange, String model, String prompt) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        List<String> words = List.of(summarize(model, prompt).split("(?<=\\s)(?=\\S)"));
+        long interval = Math.max(1, (latencyMillis - latencyMillis / FIRST_EVENT_LATENCY_DIVISOR)
+                / Math.max(1, words.size() - 1));
+        sendEvent(exchange, words, 0, interval);
+    }
+
+    private void sendEvent(HttpExchange exchange, List<String> words, int index, long intervalMillis) {
+        try {
+            OutputStream out = exchange.getResponseBody();
+            ObjectNode event = objectMapper.createObjectNode();
+            event.putArray("choices").addObject()
+                    .put("index", 0)
+                    .putObject("delta").put("content", words.get(index));
+            out.write(("data: " + objectMapper.writeValueAsString(event) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            if (index + 1 < words.size()) {
+                out.flush();
+                scheduler.schedule(() -> sendEvent(exchange, words, index + 1, intervalMillis),
+                        intervalMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            out.close();
+        } catch (IOException e) {
+            // The client went away
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private JsonNode completion(String model, String prompt) {
+        ObjectNode completion = objectMapper.createObjectNode();
+        completion.put("object", "chat.completion");
+        completion.put("model", model);
+        completion.putArray("choices").addObject()
+                .put("index", 0)
+                .put("finish_reason", "stop")
+                .putObject("message")
+                .put("role", "assistant")
+                .put("content", summarize(model, prompt));
+        return completion;
+    }
+
+    private JsonNode error(String message) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.putObject("error").put("message", message);
+        return error;
+    }
+
+    private static String summarize(String model, String prompt) {
+        return "Stub summary by " + model + " of a prompt of " + prompt.length() + " characters.";
+    }
+}
@@ -0,0 +1,64 @@
+package com.deemerge.enrichment.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Configuration for the executors backing the non-blocking summarization path.
+ * The scheduler only fires timers (simulated model latency, retry backoff);
+ * the work itself is handed over to the model call executor, whose thread
+ * model follows enrichment.execution.mode.
+ */
+@Configuration
+@EnableConfigurationProperties({BatchProperties.class, ModelBatchingProperties.class, BulkheadProperties.class,
+        CircuitBreakerProperties.class, HedgingProperties.class, RetryProperties.class, LongDocumentProperties.class})
+@Slf4j
+public class AsyncConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService enrichmentScheduler(
+            @Value("${enrichment.async.scheduler-threads:2}") int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("enrichment-scheduler-");
+        threadFactory.setDaemon(true);
+        return Executors.newScheduledThreadPool(threads, threadFactory);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService modelCallExecutor(
+            @Value("${enrichment.execution.mode:platform}") ExecutionMode executionMode,
+            @Value("${enrichment.async.model-call-threads:8}") int threads) {
+        log.info("Model call executor running in {} execution mode", executionMode);
+        return executionMode.newExecutor("model-call-", threads);
+    }
+
+    /**
+     * Virtual thread executor for Tomcat request handling. Tomcat does not stop an executor
+     * it was handed, so it is a bean that is shut down with the context.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "enrichment.execution.mode", havingValue = "virtual")
+    public ExecutorService tomcatHandlerExecutor() {
+        return ExecutionMode.VIRTUAL.newExecutor("tomcat-handler-", 0);
+    }
+
+    /**
+     * Runs Tomcat request handling on virtual threads when the virtual execution mode is enabled
+     */
+    @Bean
+    @ConditionalOnProperty(name = "enrichment.execution.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            @Qualifier("tomcatHandlerExecutor") ExecutorService tomcatHandlerExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatHandlerExecutor);
+    }
+}
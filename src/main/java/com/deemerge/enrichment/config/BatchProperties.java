@@ -0,0 +1,30 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the batch and NDJSON summarization endpoints, bound from enrichment.batch.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.batch")
+public class BatchProperties {
+
+    /**
+     * Largest number of items accepted in one batch
+     */
+    private int maxItems = 1000;
+
+    /**
+     * Model calls a single batch keeps in flight at once, so one large batch cannot
+     * monopolize the model call executor
+     */
+    private int concurrency = 8;
+
+    /**
+     * Items of an NDJSON stream in flight at once. Reading the request body pauses while
+     * the window is full, which pushes back on the client instead of buffering its input.
+     * A stream never has more in flight than its tenant's bulkhead can hold.
+     */
+    private int streamWindow = 64;
+}
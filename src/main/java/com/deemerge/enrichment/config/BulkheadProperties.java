@@ -0,0 +1,41 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-tenant bulkheads around model calls, bound from enrichment.bulkhead.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Whether each tenant's model calls are limited by its own adaptive bulkhead
+     */
+    private boolean enabled = true;
+
+    /**
+     * Concurrency limit a tenant starts with, before any latency has been observed
+     */
+    private int initialLimit = 10;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 64;
+
+    /**
+     * Calls a tenant may have waiting for a slot; beyond this, requests are rejected at once
+     */
+    private int maxQueued = 32;
+
+    /**
+     * Factor the limit is multiplied by when model calls become slow
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * How many times the tenant's no-load latency the average model call may take before calls count as slow
+     */
+    private double latencyTolerance = 2.0;
+}
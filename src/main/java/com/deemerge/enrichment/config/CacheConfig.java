@@ -1,6 +1,7 @@
 package com.deemerge.enrichment.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,7 @@ import org.springframework.context.annotation.Primary;
  * Configuration for caching functionality 
  */
 @Configuration
+@EnableConfigurationProperties(SummaryCacheProperties.class)
 public class CacheConfig {
     
     @Autowired
@@ -18,7 +20,7 @@ public class CacheConfig {
     @Bean
     @Primary
     public CacheManager cacheManager() {
-        // Use our custom tenant-aware cache manager that limits to 5 entries per tenant
+        // Use our custom tenant-aware cache manager that bounds each tenant by a byte budget
         return tenantAwareCacheManager;
     }
 }
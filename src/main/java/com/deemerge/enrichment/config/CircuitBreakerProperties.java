@@ -0,0 +1,41 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-model circuit breakers around model calls, bound from enrichment.circuit-breaker.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Number of most recent calls to a model whose failure rate is tracked
+     */
+    private int windowSize = 50;
+
+    /**
+     * Calls the window must hold before the failure rate can open the breaker
+     */
+    private int minimumCalls = 20;
+
+    /**
+     * Failure rate, between 0 and 1, at which the breaker opens
+     */
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * How long an open breaker fails calls fast before letting probes through
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * Probe calls that must all succeed to close a half-open breaker
+     */
+    private int halfOpenProbes = 3;
+}
@@ -0,0 +1,60 @@
+package com.deemerge.enrichment.config;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread model used for request handling and the model call path,
+ * selected with the enrichment.execution.mode property
+ */
+public enum ExecutionMode {
+
+    /**
+     * Bounded pools of platform threads
+     */
+    PLATFORM,
+
+    /**
+     * One virtual thread per task. Requires a Java 21+ runtime; the project still
+     * compiles for Java 17, so the virtual thread API is looked up reflectively.
+     */
+    VIRTUAL;
+
+    /**
+     * Creates an executor for this mode
+     *
+     * @param threadNamePrefix prefix for the names of the created threads
+     * @param platformThreads  pool size used in PLATFORM mode, ignored in VIRTUAL mode
+     */
+    public ExecutorService newExecutor(String threadNamePrefix, int platformThreads) {
+        if (this == VIRTUAL) {
+            return newVirtualThreadPerTaskExecutor(threadNamePrefix);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(platformThreads, threadFactory);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+        try {
+            // Thread.ofVirtual().name(prefix, 0).factory()
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+            // Executors.newThreadPerTaskExecutor(threadFactory)
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new IllegalStateException("enrichment.execution.mode=virtual requires Java 21 or newer, running on "
+                    + Runtime.version(), e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create a virtual thread factory", e);
+        }
+    }
+}
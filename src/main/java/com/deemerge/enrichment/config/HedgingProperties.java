@@ -0,0 +1,29 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hedging of slow model calls, bound from enrichment.hedging.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Latency percentile of the model's recent calls after which a still-running call is hedged
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Largest share of extra model calls hedging may add, e.g. 0.05 for at most one hedge per 20 calls
+     */
+    private double maxExtraLoad = 0.05;
+
+    /**
+     * Calls a model must have completed before its latency percentile is trusted for hedging
+     */
+    private int minSamples = 50;
+}
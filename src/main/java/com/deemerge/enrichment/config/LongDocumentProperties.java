@@ -0,0 +1,29 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the long-document summarization endpoint, bound from enrichment.long-document.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.long-document")
+public class LongDocumentProperties {
+
+    /**
+     * Chunk summaries a single document keeps in flight at once, so one long document
+     * cannot monopolize the model call executor
+     */
+    private int concurrency = 4;
+
+    /**
+     * Largest number of chunks a document may be split into
+     */
+    private int maxChunks = 256;
+
+    /**
+     * Levels of summaries, the chunk summaries being the first, after which the summaries
+     * of a document must fit in one model call
+     */
+    private int maxLevels = 4;
+}
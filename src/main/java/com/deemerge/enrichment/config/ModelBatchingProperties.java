@@ -0,0 +1,30 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Micro-batching of model calls across concurrent requests, bound from enrichment.model-batching.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.model-batching")
+public class ModelBatchingProperties {
+
+    /**
+     * Whether concurrent model calls with the same model and tone are sent as one batched call
+     */
+    private boolean enabled = false;
+
+    /**
+     * Prompts in a batch that flush it at once
+     */
+    private int maxBatchSize = 8;
+
+    /**
+     * Longest a prompt waits for others to join its batch. Every call that is not flushed
+     * by size pays this on top of the model latency.
+     */
+    private Duration maxWait = Duration.ofMillis(20);
+}
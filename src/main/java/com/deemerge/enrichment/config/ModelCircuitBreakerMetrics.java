@@ -0,0 +1,51 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.breaker.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Publishes the state and transitions of each model's circuit breaker to Micrometer,
+ * tagged with the model, as each breaker is created
+ */
+@Component
+public class ModelCircuitBreakerMetrics implements MeterBinder {
+
+    private final ModelCircuitBreakerRegistry breakers;
+
+    public ModelCircuitBreakerMetrics(ModelCircuitBreakerRegistry breakers) {
+        this.breakers = breakers;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        breakers.addBreakerListener((model, breaker) -> bindBreaker(model, breaker, registry));
+    }
+
+    private static void bindBreaker(String model, CircuitBreaker breaker, MeterRegistry registry) {
+        Gauge.builder("enrichment.model.circuit.state", breaker, b -> b.state().ordinal())
+                .tag("model", model)
+                .description("0 closed, 1 open, 2 half-open")
+                .register(registry);
+        Gauge.builder("enrichment.model.circuit.failure.rate", breaker, CircuitBreaker::failureRate)
+                .tag("model", model)
+                .description("Share of failed calls among the most recent calls to the model")
+                .register(registry);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            FunctionCounter.builder("enrichment.model.circuit.transitions", breaker, b -> b.transitionCount(state))
+                    .tag("model", model)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .description("Times the breaker entered the state")
+                    .register(registry);
+        }
+        FunctionCounter.builder("enrichment.model.circuit.rejected", breaker, CircuitBreaker::rejectedCount)
+                .tag("model", model)
+                .description("Calls failed fast without reaching the model")
+                .register(registry);
+    }
+}
@@ -0,0 +1,76 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.breaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds one {@link CircuitBreaker} per model, created on the model's first call. All tenants
+ * using a model share its breaker, since they share the backend it protects.
+ */
+@Component
+@Slf4j
+public class ModelCircuitBreakerRegistry {
+
+    private final CircuitBreakerProperties properties;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, CircuitBreaker>> listeners = new CopyOnWriteArrayList<>();
+
+    public ModelCircuitBreakerRegistry(CircuitBreakerProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Asks whether a call to the model may be made now; always permitted when breakers are disabled
+     *
+     * @return the permit to report the call's outcome with, or {@link CircuitBreaker#NOT_PERMITTED}
+     */
+    public long tryAcquirePermission(String model) {
+        return properties.isEnabled() ? breaker(model).tryAcquirePermission() : 0;
+    }
+
+    public void onSuccess(String model, long permit) {
+        if (properties.isEnabled()) {
+            breaker(model).onSuccess(permit);
+        }
+    }
+
+    public void onError(String model, long permit) {
+        if (properties.isEnabled()) {
+            breaker(model).onError(permit);
+        }
+    }
+
+    /**
+     * Whether the model's breaker currently fails calls fast
+     */
+    public boolean isOpen(String model) {
+        return properties.isEnabled() && breaker(model).state() == CircuitBreaker.State.OPEN;
+    }
+
+    CircuitBreaker breaker(String model) {
+        return breakers.computeIfAbsent(model, m -> {
+            CircuitBreaker breaker = new CircuitBreaker(properties.getWindowSize(), properties.getMinimumCalls(),
+                    properties.getFailureRateThreshold(), properties.getOpenDuration(),
+                    properties.getHalfOpenProbes(), null);
+            breaker.addTransitionListener((from, to) ->
+                    log.warn("Circuit breaker of model {} moved from {} to {}", m, from, to));
+            listeners.forEach(listener -> listener.accept(m, breaker));
+            return breaker;
+        });
+    }
+
+    /**
+     * Adds a listener called with every model's breaker, those created so far and those created later
+     */
+    public void addBreakerListener(BiConsumer<String, CircuitBreaker> listener) {
+        listeners.add(listener);
+        breakers.forEach(listener);
+    }
+}
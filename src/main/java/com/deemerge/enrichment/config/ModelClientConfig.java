@@ -0,0 +1,89 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.client.HttpModelClient;
+import com.deemerge.enrichment.client.ModelClient;
+import com.deemerge.enrichment.client.SimulatedModelClient;
+import com.deemerge.enrichment.client.StubModelServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Configuration of the model backend, chosen by enrichment.model-client.type
+ */
+@Configuration
+@EnableConfigurationProperties(ModelClientProperties.class)
+@Slf4j
+public class ModelClientConfig {
+
+    // Read once by the JDK HTTP client, when the first client is built
+    private static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    // Set once an HTTP model client was built in this JVM; the JDK has read the pool settings by then
+    private static final AtomicBoolean POOL_SETTINGS_READ = new AtomicBoolean();
+
+    @Bean
+    @ConditionalOnProperty(name = "enrichment.model-client.type", havingValue = "simulated", matchIfMissing = true)
+    public ModelClient simulatedModelClient(ModelClientProperties properties,
+                                            @Qualifier("enrichmentScheduler") ScheduledExecutorService scheduler,
+                                            @Qualifier("modelCallExecutor") Executor modelCallExecutor) {
+        ModelClientProperties.Simulated simulated = properties.getSimulated();
+        return new SimulatedModelClient(scheduler, modelCallExecutor,
+                simulated.getSlowCallRate(), simulated.getSlowCallFactor());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "enrichment.model-client.type", havingValue = "http")
+    public ModelClient httpModelClient(ModelClientProperties properties, ObjectMapper objectMapper,
+                                       @Qualifier("modelCallExecutor") Executor modelCallExecutor) {
+        setPoolProperty(POOL_SIZE_PROPERTY, String.valueOf(properties.getMaxIdleConnections()));
+        setPoolProperty(KEEP_ALIVE_PROPERTY, String.valueOf(properties.getKeepAlive().toSeconds()));
+        POOL_SETTINGS_READ.set(true);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(modelCallExecutor)
+                .build();
+        log.info("Model calls go to {}", properties.getBaseUrl());
+        return new HttpModelClient(httpClient, URI.create(properties.getBaseUrl()), properties.getApiKey(),
+                properties.getRequestTimeout(), objectMapper);
+    }
+
+    /**
+     * Sets a JDK HTTP client pool property unless it is already set. An explicit -D setting wins;
+     * a value left by an earlier client in this JVM can no longer change, as the JDK read it then.
+     * Either way a differing configured value is reported, since it does not take effect.
+     */
+    private static void setPoolProperty(String name, String configured) {
+        String current = System.getProperty(name);
+        if (current == null) {
+            System.setProperty(name, configured);
+        } else if (!current.equals(configured)) {
+            if (POOL_SETTINGS_READ.get()) {
+                log.warn("Configured {}={} cannot take effect: the JDK HTTP client already read {}",
+                        name, configured, current);
+            } else {
+                log.warn("Configured {}={} is overridden by the system property value {}", name, configured, current);
+            }
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "enrichment.model-client.stub.enabled", havingValue = "true")
+    public StubModelServer stubModelServer(ModelClientProperties properties) throws IOException {
+        ModelClientProperties.Stub stub = properties.getStub();
+        return new StubModelServer(stub.getPort(), stub.getLatency(), stub.getErrorRate());
+    }
+}
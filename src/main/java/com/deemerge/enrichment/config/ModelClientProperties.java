@@ -0,0 +1,88 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Model backend the service calls, bound from enrichment.model-client.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.model-client")
+public class ModelClientProperties {
+
+    /**
+     * simulated for the in-process simulator, http for an OpenAI-style HTTP endpoint
+     */
+    private String type = "simulated";
+
+    /**
+     * Base URL of the HTTP endpoint; chat completions are posted to /v1/chat/completions under it
+     */
+    private String baseUrl = "http://localhost:8089";
+
+    /**
+     * Bearer token sent to the HTTP endpoint, if any
+     */
+    private String apiKey;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Time allowed until the response headers arrive; streamed bodies may take longer
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Idle HTTP/1.1 connections kept open for reuse, 0 for no limit
+     */
+    private int maxIdleConnections = 0;
+
+    /**
+     * How long an idle connection is kept open for reuse
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    private final Simulated simulated = new Simulated();
+
+    private final Stub stub = new Stub();
+
+    /**
+     * Latency tail of the in-process simulator, off by default
+     */
+    @Data
+    public static class Simulated {
+
+        /**
+         * Share of single calls that hit a slow backend replica, for example 0.05 to try hedging
+         */
+        private double slowCallRate = 0;
+
+        /**
+         * How many times longer a slow call takes
+         */
+        private int slowCallFactor = 3;
+    }
+
+    /**
+     * Local stub endpoint started inside the service, for load testing the HTTP client offline
+     */
+    @Data
+    public static class Stub {
+
+        private boolean enabled = false;
+
+        /**
+         * Port to listen on; point base-url at http://localhost:{port}
+         */
+        private int port = 8089;
+
+        private Duration latency = Duration.ofMillis(500);
+
+        /**
+         * Share of calls answered with 503
+         */
+        private double errorRate = 0.2;
+    }
+}
@@ -0,0 +1,50 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.retry.RetryBudget;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retry budgets of each tenant and of the service as a whole. A retry needs room in both,
+ * so one tenant cannot spend the retries of all, and all tenants together cannot retry
+ * a failing backend into the ground.
+ */
+@Component
+public class RetryBudgetRegistry {
+
+    private final RetryProperties properties;
+    private final RetryBudget global;
+    private final Map<String, RetryBudget> tenants = new ConcurrentHashMap<>();
+
+    public RetryBudgetRegistry(RetryProperties properties) {
+        this.properties = properties;
+        this.global = new RetryBudget(properties.getBudgetRatio(), properties.getGlobalMinRetriesPerSecond(), null);
+    }
+
+    public void recordSuccess(String tenantId) {
+        tenant(tenantId).recordSuccess();
+        global.recordSuccess();
+    }
+
+    /**
+     * Takes a retry out of both the tenant's and the global budget, or out of neither
+     */
+    public boolean tryAcquire(String tenantId) {
+        RetryBudget tenant = tenant(tenantId);
+        if (!tenant.tryAcquire()) {
+            return false;
+        }
+        if (!global.tryAcquire()) {
+            tenant.release();
+            return false;
+        }
+        return true;
+    }
+
+    private RetryBudget tenant(String tenantId) {
+        return tenants.computeIfAbsent(tenantId, id ->
+                new RetryBudget(properties.getBudgetRatio(), properties.getTenantMinRetriesPerSecond(), null));
+    }
+}
@@ -0,0 +1,43 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Backoff and budgets of model call retries, bound from enrichment.retry.*
+ * How many attempts a call may make comes from the tenant's retryAttempts setting.
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.retry")
+public class RetryProperties {
+
+    /**
+     * Shortest delay before a retry
+     */
+    private Duration baseBackoff = Duration.ofMillis(100);
+
+    /**
+     * Longest delay before a retry
+     */
+    private Duration maxBackoff = Duration.ofSeconds(2);
+
+    /**
+     * Retries allowed per successful model call of the last ten seconds, for each tenant and overall.
+     * Must stay above the retries a healthy model needs per success, about e + e^2 for an error
+     * rate e and three attempts, so 0.24 for the simulator's 20%; otherwise retries are refused
+     * even while the model is healthy.
+     */
+    private double budgetRatio = 0.3;
+
+    /**
+     * Retries per second a tenant may make regardless of its successes
+     */
+    private double tenantMinRetriesPerSecond = 1;
+
+    /**
+     * Retries per second all tenants together may make regardless of their successes
+     */
+    private double globalMinRetriesPerSecond = 5;
+}
@@ -0,0 +1,107 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.cache.OffHeapSummaryStore;
+import com.deemerge.enrichment.cache.TenantCacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes summary cache statistics to Micrometer, visible under /actuator/metrics.
+ * Tenant caches are created on first use, so their meters, tagged with the tenant ID,
+ * are registered as each tenant appears.
+ */
+@Component
+public class SummaryCacheMetrics implements MeterBinder {
+
+    private final TenantAwareCacheManager cacheManager;
+
+    public SummaryCacheMetrics(TenantAwareCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cacheManager.addTenantStatsListener((tenantId, stats) -> bindTenantCache(tenantId, stats, registry));
+        cacheManager.getOffHeapStore().ifPresent(store -> bindOffHeapStore(store, registry));
+    }
+
+    private static void bindTenantCache(String tenantId, TenantCacheStats stats, MeterRegistry registry) {
+        FunctionCounter.builder("enrichment.cache.gets", stats, TenantCacheStats::hitCount)
+                .tag("tenant", tenantId)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("enrichment.cache.gets", stats, TenantCacheStats::missCount)
+                .tag("tenant", tenantId)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("enrichment.cache.hit.ratio", stats, TenantCacheStats::hitRatio)
+                .tag("tenant", tenantId)
+                .description("Share of the tenant's lookups that found a summary")
+                .register(registry);
+        FunctionTimer.builder("enrichment.cache.loads", stats,
+                        TenantCacheStats::loadCount, TenantCacheStats::totalLoadTimeNanos, TimeUnit.NANOSECONDS)
+                .tag("tenant", tenantId)
+                .description("Model calls made on cache misses and refreshes")
+                .register(registry);
+        FunctionCounter.builder("enrichment.cache.load.failures", stats, TenantCacheStats::loadFailureCount)
+                .tag("tenant", tenantId)
+                .register(registry);
+        TimeGauge.builder("enrichment.cache.time.saved.per.hit", stats, TimeUnit.NANOSECONDS,
+                        TenantCacheStats::averageLoadTimeNanos)
+                .tag("tenant", tenantId)
+                .description("Average model call time a hit avoids")
+                .register(registry);
+        FunctionCounter.builder("enrichment.cache.evictions", stats, TenantCacheStats::evictionCount)
+                .tag("tenant", tenantId)
+                .description("Summaries removed by the tenant's budget or by expiry")
+                .register(registry);
+        Gauge.builder("enrichment.cache.size", stats, TenantCacheStats::size)
+                .tag("tenant", tenantId)
+                .description("Summaries held in the tenant's cache")
+                .register(registry);
+        Gauge.builder("enrichment.cache.weighted.size", stats, TenantCacheStats::weightedSize)
+                .tag("tenant", tenantId)
+                .description("Estimated heap used by the tenant's cache")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("enrichment.cache.budget", stats, TenantCacheStats::budgetBytes)
+                .tag("tenant", tenantId)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static void bindOffHeapStore(OffHeapSummaryStore store, MeterRegistry registry) {
+        Gauge.builder("enrichment.cache.offheap.size", store, OffHeapSummaryStore::size)
+                .description("Summaries held in the off-heap tier")
+                .register(registry);
+        Gauge.builder("enrichment.cache.offheap.allocated", store, OffHeapSummaryStore::allocatedBytes)
+                .description("Direct memory allocated by the off-heap tier")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("enrichment.cache.offheap.hit.ratio", store, SummaryCacheMetrics::hitRatio)
+                .description("Share of off-heap lookups that found a summary")
+                .register(registry);
+        FunctionCounter.builder("enrichment.cache.offheap.gets", store, OffHeapSummaryStore::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("enrichment.cache.offheap.gets", store, OffHeapSummaryStore::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("enrichment.cache.offheap.evictions", store, OffHeapSummaryStore::evictionCount)
+                .description("Summaries dropped when their segment was reused")
+                .register(registry);
+    }
+
+    private static double hitRatio(OffHeapSummaryStore store) {
+        long hits = store.hitCount();
+        long total = hits + store.missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
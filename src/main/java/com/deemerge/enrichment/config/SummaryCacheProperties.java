@@ -0,0 +1,62 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the per-tenant summary cache, bound from enrichment.cache.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.cache")
+public class SummaryCacheProperties {
+
+    /**
+     * Byte budget of a tenant's summary cache when its settings do not define one
+     */
+    private long defaultTenantBudgetBytes = 256 * 1024;
+
+    /**
+     * Whether cached summaries keep the input text. Responses echo the text of the
+     * request either way, so storing it only costs memory.
+     */
+    private boolean storeInputText = false;
+
+    /**
+     * How long after being written a summary is served; zero never expires
+     */
+    private Duration expireAfterWrite = Duration.ofHours(24);
+
+    /**
+     * How long a summary is kept after it was last read or written; zero never expires
+     */
+    private Duration expireAfterAccess = Duration.ofHours(1);
+
+    /**
+     * Age after which a read reloads the summary in the background while still serving
+     * the cached one; zero disables refresh-ahead. Should be shorter than expireAfterWrite.
+     */
+    private Duration refreshAfterWrite = Duration.ZERO;
+
+    private final OffHeap offHeap = new OffHeap();
+
+    /**
+     * Optional second tier holding encoded summaries in direct memory, shared by all tenants
+     */
+    @Data
+    public static class OffHeap {
+
+        private boolean enabled = false;
+
+        /**
+         * Direct memory reserved for the tier; must fit within -XX:MaxDirectMemorySize
+         */
+        private long capacityBytes = 256L * 1024 * 1024;
+
+        /**
+         * Unit of allocation and of eviction: a full tier drops its oldest segment at once
+         */
+        private int segmentBytes = 8 * 1024 * 1024;
+    }
+}
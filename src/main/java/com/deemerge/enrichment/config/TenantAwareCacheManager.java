@@ -1,31 +1,71 @@
 package com.deemerge.enrichment.config;
 
+import com.deemerge.enrichment.cache.BoundedConcurrentCache;
+import com.deemerge.enrichment.cache.OffHeapSummaryStore;
+import com.deemerge.enrichment.cache.SummaryCacheKey;
+import com.deemerge.enrichment.cache.SummaryEntryWeigher;
+import com.deemerge.enrichment.cache.TenantCacheStats;
+import com.deemerge.enrichment.cache.TenantScopedKey;
+import com.deemerge.enrichment.model.SummaryResponse;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.repository.TenantSettingsRepository;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- * Custom cache manager that implements a per-tenant LRU cache with limited size
+ * Custom cache manager that implements per-tenant caches bounded by a memory budget.
+ * A tenant's budget comes from {@link TenantSettings#getCacheBudgetBytes()}, falling back
+ * to {@link SummaryCacheProperties#getDefaultTenantBudgetBytes()}, and entries are weighed
+ * by their estimated size in bytes, and expire and refresh as configured by
+ * {@link SummaryCacheProperties}. When enrichment.cache.off-heap.enabled is set, summaries
+ * are also kept in an {@link OffHeapSummaryStore} that backs all tenants. Every tenant's
+ * lookups, loads and evictions are counted in a {@link TenantCacheStats}. When the
+ * repository reports that a tenant's settings changed, that tenant's summaries are dropped
+ * from both tiers and its cache takes on the new budget; other tenants keep theirs.
  */
 @Component
 public class TenantAwareCacheManager implements CacheManager {
 
     private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final SummaryCacheProperties properties;
+    private final TenantSettingsRepository tenantSettingsRepository;
+    private final OffHeapSummaryStore offHeapStore;
+
+    public TenantAwareCacheManager(SummaryCacheProperties properties,
+                                   TenantSettingsRepository tenantSettingsRepository) {
+        this.properties = properties;
+        this.tenantSettingsRepository = tenantSettingsRepository;
+        SummaryCacheProperties.OffHeap offHeap = properties.getOffHeap();
+        this.offHeapStore = offHeap.isEnabled()
+                ? new OffHeapSummaryStore(offHeap.getCapacityBytes(), offHeap.getSegmentBytes(), offHeapTimeToLive())
+                : null;
+        tenantSettingsRepository.addChangeListener(this::invalidateTenants);
+    }
 
     @Override
     public Cache getCache(String name) {
         return caches.computeIfAbsent(name, n -> {
             if ("summaryCache".equals(n)) {
-                return new TenantAwareLruCache(n, 5);
+                return new TenantAwareLruCache(n, this::newTenantCache, offHeapStore);
             } else {
                 return new ConcurrentMapCache(n);
             }
@@ -38,16 +78,91 @@ public class TenantAwareCacheManager implements CacheManager {
     }
 
     /**
-     * Custom cache implementation that maintains separate LRU caches for each tenant
+     * Returns the off-heap summary tier, or empty when it is disabled
+     */
+    public Optional<OffHeapSummaryStore> getOffHeapStore() {
+        return Optional.ofNullable(offHeapStore);
+    }
+
+    /**
+     * Calls the listener with the statistics of every tenant cache created so far, and of
+     * each one created from now on. A tenant may be reported more than once.
+     */
+    public void addTenantStatsListener(BiConsumer<String, TenantCacheStats> listener) {
+        ((TenantAwareLruCache) getCache("summaryCache")).addStatsListener(listener);
+    }
+
+    /**
+     * Drops the summaries of the given tenants from the summary cache, and resizes their
+     * caches to the budgets their settings now give them
+     */
+    public void invalidateTenants(Set<String> tenantIds) {
+        TenantAwareLruCache summaryCache = (TenantAwareLruCache) getCache("summaryCache");
+        for (String tenantId : tenantIds) {
+            summaryCache.invalidateTenant(tenantId);
+        }
+    }
+
+    private BoundedConcurrentCache<Object, Object> newTenantCache(String tenantId) {
+        return BoundedConcurrentCache.builder()
+                .maximumWeight(budgetBytes(tenantId))
+                .weigher(new SummaryEntryWeigher())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .refreshAfterWrite(properties.getRefreshAfterWrite())
+                .build();
+    }
+
+    private long budgetBytes(String tenantId) {
+        return tenantSettingsRepository.findByTenantId(tenantId)
+                .map(TenantSettings::getCacheBudgetBytes)
+                .filter(budget -> budget > 0)
+                .orElse(properties.getDefaultTenantBudgetBytes());
+    }
+
+    /**
+     * The off-heap tier is not told about reads, so it bounds a summary's life by
+     * expire-after-write, or by expire-after-access when that is the only limit
+     */
+    private Duration offHeapTimeToLive() {
+        Duration expireAfterWrite = properties.getExpireAfterWrite();
+        return expireAfterWrite != null && !expireAfterWrite.isZero()
+                ? expireAfterWrite
+                : properties.getExpireAfterAccess();
+    }
+
+    /**
+     * Custom cache implementation that maintains separate bounded caches for each tenant.
+     * Entries are partitioned by {@link TenantScopedKey#getTenantId()}; other keys are ignored.
+     * Each tenant's cache is bounded by the total weight of its entries, reads without
+     * locking and evicts by recency and frequency (see {@link BoundedConcurrentCache}).
+     * The budget is resolved when a tenant's cache is created, and again when the tenant is
+     * invalidated, which replaces its cache with an empty one.
+     * Refresh-ahead happens in {@link #retrieve(Object, Supplier)}: a hit on an entry due for
+     * refresh returns the cached value and starts a background load through the in-flight map,
+     * so at most one refresh per key runs and concurrent misses join it.
+     * With an off-heap tier, summaries are written through to it; a miss in the tenant's cache
+     * falls through to the tier and a hit there is promoted back into the tenant's cache.
+     * Loads through {@link #retrieve(Object, Supplier)} are single-flight: concurrent
+     * misses for the same key share one in-flight load instead of each calling the loader.
+     * Tenant caches and their statistics live as long as this cache; {@link #clear()} only
+     * removes entries, so the counters keep growing.
      */
     static class TenantAwareLruCache implements Cache {
         private final String name;
-        private final int maxSize;
-        private final Map<String, Map<Object, Object>> tenantCaches = new ConcurrentHashMap<>();
+        private final Function<String, BoundedConcurrentCache<Object, Object>> tenantCacheFactory;
+        private final OffHeapSummaryStore offHeapStore;
+        private final Map<String, BoundedConcurrentCache<Object, Object>> tenantCaches = new ConcurrentHashMap<>();
+        private final Map<String, TenantCacheStats> tenantStats = new ConcurrentHashMap<>();
+        private final List<BiConsumer<String, TenantCacheStats>> statsListeners = new CopyOnWriteArrayList<>();
+        private final Map<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
 
-        public TenantAwareLruCache(String name, int maxSize) {
+        public TenantAwareLruCache(String name,
+                                   Function<String, BoundedConcurrentCache<Object, Object>> tenantCacheFactory,
+                                   OffHeapSummaryStore offHeapStore) {
             this.name = name;
-            this.maxSize = maxSize;
+            this.tenantCacheFactory = tenantCacheFactory;
+            this.offHeapStore = offHeapStore;
         }
 
         @Override
@@ -62,20 +177,32 @@ public class TenantAwareCacheManager implements CacheManager {
 
         @Override
         public ValueWrapper get(Object key) {
-            if (!(key instanceof String)) {
+            if (!(key instanceof TenantScopedKey)) {
                 return null;
             }
 
-            String keyStr = (String) key;
-            String tenantId = extractTenantId(keyStr);
-            Object cacheKey = extractCacheKey(keyStr);
-
-            Map<Object, Object> tenantCache = tenantCaches.get(tenantId);
-            if (tenantCache == null) {
-                return null;
+            ValueWrapper wrapper = lookup((TenantScopedKey) key);
+            TenantCacheStats stats = tenantStats.get(((TenantScopedKey) key).getTenantId());
+            if (wrapper != null) {
+                stats.recordHit();
+            } else {
+                stats.recordMiss();
             }
+            return wrapper;
+        }
 
-            Object value = tenantCache.get(cacheKey);
+        /**
+         * Looks the key up in the tenant's cache and then the off-heap tier, without counting the lookup
+         */
+        private ValueWrapper lookup(TenantScopedKey key) {
+            BoundedConcurrentCache<Object, Object> tenantCache = tenantCache(key);
+            Object value = tenantCache.getIfPresent(key);
+            if (value == null && offHeapStore != null && key instanceof SummaryCacheKey) {
+                value = offHeapStore.get((SummaryCacheKey) key);
+                if (value != null) {
+                    tenantCache.put(key, value);
+                }
+            }
             return value != null ? new SimpleValueWrapper(value) : null;
         }
 
@@ -87,81 +214,182 @@ public class TenantAwareCacheManager implements CacheManager {
 
         @Override
         public <T> T get(Object key, Callable<T> valueLoader) {
+            CompletableFuture<T> value = retrieve(key, () -> {
+                try {
+                    return CompletableFuture.completedFuture(valueLoader.call());
+                } catch (Exception e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            });
+
+            try {
+                return value.join();
+            } catch (CompletionException e) {
+                throw new Cache.ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            ValueWrapper wrapper = get(key);
+            return wrapper != null ? CompletableFuture.completedFuture(wrapper.get()) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            if (!(key instanceof TenantScopedKey)) {
+                // Such keys are never cached
+                return valueLoader.get();
+            }
+
             ValueWrapper wrapper = get(key);
             if (wrapper != null) {
-                Object value = wrapper.get();
-                if (value != null) {
-                    @SuppressWarnings("unchecked")
-                    T typedValue = (T) value;
-                    return typedValue;
-                }
-                return null;
+                refreshIfDue((TenantScopedKey) key, valueLoader);
+                return CompletableFuture.completedFuture((T) wrapper.get());
             }
 
+            // Join a load that is already in flight for this key, if any
+            CompletableFuture<Object> load = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, load);
+            if (inFlight != null) {
+                return inFlight.thenApply(value -> (T) value);
+            }
+
+            // The previous load may have completed between the lookup and the registration
+            wrapper = lookup((TenantScopedKey) key);
+            if (wrapper != null) {
+                inFlightLoads.remove(key, load);
+                load.complete(wrapper.get());
+                return load.thenApply(value -> (T) value);
+            }
+
+            load((TenantScopedKey) key, valueLoader, load);
+            return load.thenApply(value -> (T) value);
+        }
+
+        /**
+         * Starts a background reload of an entry that is due for refresh, unless one is in flight
+         */
+        private <T> void refreshIfDue(TenantScopedKey key, Supplier<CompletableFuture<T>> valueLoader) {
+            BoundedConcurrentCache<Object, Object> tenantCache = tenantCaches.get(key.getTenantId());
+            if (tenantCache == null || !tenantCache.isRefreshDue(key)) {
+                return;
+            }
+            CompletableFuture<Object> refresh = new CompletableFuture<>();
+            if (inFlightLoads.putIfAbsent(key, refresh) == null) {
+                // A failed refresh leaves the current value in place until it expires
+                load(key, valueLoader, refresh);
+            }
+        }
+
+        /**
+         * Runs the loader for a key registered in the in-flight map and completes the load with its result
+         */
+        private <T> void load(TenantScopedKey key, Supplier<CompletableFuture<T>> valueLoader,
+                              CompletableFuture<Object> load) {
+            TenantCacheStats stats = tenantStats.get(key.getTenantId());
+            long startTime = System.nanoTime();
             try {
-                T value = valueLoader.call();
-                put(key, value);
-                return value;
-            } catch (Exception e) {
-                throw new Cache.ValueRetrievalException(key, valueLoader, e);
+                valueLoader.get().whenComplete((value, ex) -> {
+                    long loadTime = System.nanoTime() - startTime;
+                    if (ex == null) {
+                        stats.recordLoadSuccess(loadTime);
+                    } else {
+                        stats.recordLoadFailure(loadTime);
+                    }
+                    // Publish to the cache before leaving the in-flight map, so later callers always see one of them
+                    if (ex == null && value != null) {
+                        put(key, value);
+                    }
+                    inFlightLoads.remove(key, load);
+                    if (ex != null) {
+                        load.completeExceptionally(ex);
+                    } else {
+                        load.complete(value);
+                    }
+                });
+            } catch (RuntimeException e) {
+                stats.recordLoadFailure(System.nanoTime() - startTime);
+                inFlightLoads.remove(key, load);
+                load.completeExceptionally(e);
             }
         }
 
         @Override
         public void put(Object key, Object value) {
-            if (!(key instanceof String)) {
+            if (!(key instanceof TenantScopedKey)) {
                 return;
             }
 
-            String keyStr = (String) key;
-            String tenantId = extractTenantId(keyStr);
-            Object cacheKey = extractCacheKey(keyStr);
+            // Add to tenant-specific cache
+            tenantCache((TenantScopedKey) key).put(key, value);
 
-            // Get or create tenant-specific cache with LRU eviction
-            Map<Object, Object> tenantCache = tenantCaches.computeIfAbsent(tenantId, k -> {
-                return Collections.synchronizedMap(new LinkedHashMap<Object, Object>(maxSize + 1, 0.75f, true) {
-                    @Override
-                    protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
-                        return size() > maxSize;
-                    }
-                });
+            if (offHeapStore != null && key instanceof SummaryCacheKey && value instanceof SummaryResponse) {
+                offHeapStore.put((SummaryCacheKey) key, (SummaryResponse) value);
+            }
+        }
+
+        private BoundedConcurrentCache<Object, Object> tenantCache(TenantScopedKey key) {
+            // Get or create tenant-specific bounded cache; its statistics are published before the cache
+            return tenantCaches.computeIfAbsent(key.getTenantId(), tenantId -> {
+                BoundedConcurrentCache<Object, Object> tenantCache = tenantCacheFactory.apply(tenantId);
+                TenantCacheStats stats = new TenantCacheStats(tenantCache);
+                tenantStats.put(tenantId, stats);
+                statsListeners.forEach(listener -> listener.accept(tenantId, stats));
+                return tenantCache;
             });
+        }
 
-            // Add to tenant-specific cache
-            tenantCache.put(cacheKey, value);
+        void addStatsListener(BiConsumer<String, TenantCacheStats> listener) {
+            statsListeners.add(listener);
+            tenantStats.forEach(listener);
+        }
+
+        /**
+         * Returns the statistics of a tenant's cache, or null if the tenant has not used the cache
+         */
+        TenantCacheStats stats(String tenantId) {
+            return tenantStats.get(tenantId);
         }
 
         @Override
         public void evict(Object key) {
-            if (!(key instanceof String)) {
+            if (!(key instanceof TenantScopedKey)) {
                 return;
             }
 
-            String keyStr = (String) key;
-            String tenantId = extractTenantId(keyStr);
-            Object cacheKey = extractCacheKey(keyStr);
-
-            Map<Object, Object> tenantCache = tenantCaches.get(tenantId);
+            BoundedConcurrentCache<Object, Object> tenantCache = tenantCaches.get(((TenantScopedKey) key).getTenantId());
             if (tenantCache != null) {
-                tenantCache.remove(cacheKey);
+                tenantCache.remove(key);
+            }
+            if (offHeapStore != null && key instanceof SummaryCacheKey) {
+                offHeapStore.remove((SummaryCacheKey) key);
             }
         }
 
-        @Override
-        public void clear() {
-            tenantCaches.clear();
-        }
-
-        // Extract tenant ID from a composite key (format: "tenantId-hashCode")
-        private String extractTenantId(String key) {
-            int separatorIndex = key.indexOf('-');
-            return separatorIndex > 0 ? key.substring(0, separatorIndex) : key;
+        /**
+         * Replaces the tenant's cache with an empty one and removes the tenant's summaries from
+         * the off-heap tier. Its statistics move to the new cache. A load in flight meanwhile may
+         * still store its summary, under the model, tone and template version it was made with.
+         */
+        void invalidateTenant(String tenantId) {
+            tenantCaches.computeIfPresent(tenantId, (id, previous) -> {
+                BoundedConcurrentCache<Object, Object> replacement = tenantCacheFactory.apply(id);
+                tenantStats.get(id).replaceCache(replacement);
+                return replacement;
+            });
+            if (offHeapStore != null) {
+                offHeapStore.removeTenant(tenantId);
+            }
         }
 
-        // Extract the actual cache key without tenant ID
-        private Object extractCacheKey(String key) {
-            int separatorIndex = key.indexOf('-');
-            return separatorIndex > 0 ? key.substring(separatorIndex + 1) : key;
+        @Override
+        public void clear() {
+            tenantCaches.values().forEach(BoundedConcurrentCache::invalidateAll);
+            if (offHeapStore != null) {
+                offHeapStore.clear();
+            }
         }
     }
 }
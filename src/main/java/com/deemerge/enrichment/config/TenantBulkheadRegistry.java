@@ -0,0 +1,75 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.bulkhead.AdaptiveConcurrencyLimit;
+import com.deemerge.enrichment.bulkhead.TenantBulkhead;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds one {@link TenantBulkhead} per tenant, created on the tenant's first model call,
+ * so that a tenant flooding the service only queues behind its own limit
+ */
+@Component
+public class TenantBulkheadRegistry {
+
+    private final BulkheadProperties properties;
+    private final Map<String, TenantBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public TenantBulkheadRegistry(BulkheadProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Runs the call within the tenant's bulkhead, or directly when bulkheads are disabled
+     */
+    public <T> CompletableFuture<T> execute(String tenantId, Supplier<CompletableFuture<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        return bulkhead(tenantId).execute(call);
+    }
+
+    /**
+     * Feeds the latency of a successful model attempt into the tenant's limit,
+     * unless bulkheads are disabled
+     */
+    public void onLatency(String tenantId, long latencyNanos) {
+        if (properties.isEnabled()) {
+            bulkhead(tenantId).onLatency(latencyNanos);
+        }
+    }
+
+    /**
+     * Calls the tenant may have in flight or queued before further calls are rejected,
+     * without creating a bulkhead for a tenant that has not called the model yet
+     */
+    public int capacity(String tenantId) {
+        if (!properties.isEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+        TenantBulkhead bulkhead = bulkheads.get(tenantId);
+        return bulkhead != null
+                ? bulkhead.capacity()
+                : Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit()))
+                        + Math.max(0, properties.getMaxQueued());
+    }
+
+    public TenantBulkhead bulkhead(String tenantId) {
+        return bulkheads.computeIfAbsent(tenantId, id -> new TenantBulkhead(id,
+                new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                        properties.getMaxLimit(), properties.getBackoffRatio(), properties.getLatencyTolerance()),
+                properties.getMaxQueued()));
+    }
+
+    /**
+     * Bulkheads of the tenants seen so far, by tenant ID
+     */
+    public Map<String, TenantBulkhead> bulkheads() {
+        return Collections.unmodifiableMap(bulkheads);
+    }
+}
@@ -0,0 +1,35 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.repository.FileTenantSettingsRepository;
+import com.deemerge.enrichment.repository.InMemoryTenantSettingsRepository;
+import com.deemerge.enrichment.repository.TenantSettingsRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the tenant settings repository, chosen by enrichment.tenant-settings.source
+ */
+@Configuration
+@EnableConfigurationProperties(TenantSettingsProperties.class)
+public class TenantSettingsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "enrichment.tenant-settings.source", havingValue = "in-memory", matchIfMissing = true)
+    public TenantSettingsRepository inMemoryTenantSettingsRepository() {
+        return new InMemoryTenantSettingsRepository();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "enrichment.tenant-settings.source", havingValue = "file")
+    public FileTenantSettingsRepository fileTenantSettingsRepository(TenantSettingsProperties properties) {
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(Path.of(properties.getFile()));
+        if (properties.isWatch()) {
+            repository.startWatching(properties.getReloadDelay());
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,34 @@
+package com.deemerge.enrichment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Where tenant settings come from, bound from enrichment.tenant-settings.*
+ */
+@Data
+@ConfigurationProperties(prefix = "enrichment.tenant-settings")
+public class TenantSettingsProperties {
+
+    /**
+     * in-memory for the built-in sample tenants, file for the settings file below
+     */
+    private String source = "in-memory";
+
+    /**
+     * JSON or YAML file mapping tenant IDs to their settings
+     */
+    private String file = "config/tenants.yml";
+
+    /**
+     * Reload the file when it changes
+     */
+    private boolean watch = true;
+
+    /**
+     * Quiet time after the last change to the file before it is reloaded
+     */
+    private Duration reloadDelay = Duration.ofMillis(200);
+}
@@ -0,0 +1,43 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.token.TokenUsage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes each tenant's token usage to Micrometer, tagged with the tenant and whether the
+ * tokens were sent in prompts or received in completions
+ */
+@Component
+public class TokenUsageMetrics implements MeterBinder {
+
+    private final TokenUsageRegistry tokenUsage;
+
+    public TokenUsageMetrics(TokenUsageRegistry tokenUsage) {
+        this.tokenUsage = tokenUsage;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        tokenUsage.addUsageListener((tenantId, usage) -> bindTenant(tenantId, usage, registry));
+    }
+
+    private static void bindTenant(String tenantId, TokenUsage usage, MeterRegistry registry) {
+        FunctionCounter.builder("enrichment.model.tokens", usage, TokenUsage::promptTokens)
+                .tag("tenant", tenantId)
+                .tag("type", "prompt")
+                .description("Tokens sent to the model")
+                .register(registry);
+        FunctionCounter.builder("enrichment.model.tokens", usage, TokenUsage::completionTokens)
+                .tag("tenant", tenantId)
+                .tag("type", "completion")
+                .description("Tokens received from the model")
+                .register(registry);
+        FunctionCounter.builder("enrichment.model.calls", usage, TokenUsage::calls)
+                .tag("tenant", tenantId)
+                .description("Completed model calls")
+                .register(registry);
+    }
+}
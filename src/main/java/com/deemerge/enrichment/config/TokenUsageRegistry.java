@@ -0,0 +1,62 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.token.BpeTokenizer;
+import com.deemerge.enrichment.token.TokenUsage;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Token accounting: counts tokens with the tokenizer, both to check input against a
+ * tenant's limit and to add up the tokens each tenant's model calls use
+ */
+@Component
+public class TokenUsageRegistry {
+
+    private final BpeTokenizer tokenizer;
+    private final Map<String, TokenUsage> tenants = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, TokenUsage>> listeners = new CopyOnWriteArrayList<>();
+
+    public TokenUsageRegistry(BpeTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * Tokens in the text, counted no further than needed to tell that it exceeds the limit
+     *
+     * @return the number of tokens if at most the limit, otherwise some number above it
+     */
+    public int countTokens(String text, int limit) {
+        return tokenizer.countTokens(text, limit);
+    }
+
+    /**
+     * Adds a completed model call's prompt and completion tokens to the tenant's usage
+     */
+    public void recordCall(String tenantId, String prompt, String completion) {
+        usage(tenantId).record(tokenizer.countTokens(prompt), tokenizer.countTokens(completion));
+    }
+
+    /**
+     * The tenant's usage so far
+     */
+    public TokenUsage usage(String tenantId) {
+        return tenants.computeIfAbsent(tenantId, id -> {
+            TokenUsage usage = new TokenUsage();
+            listeners.forEach(listener -> listener.accept(id, usage));
+            return usage;
+        });
+    }
+
+    /**
+     * Adds a listener called with every tenant's usage, that of tenants seen so far and of those seen later
+     */
+    public void addUsageListener(BiConsumer<String, TokenUsage> listener) {
+        listeners.add(listener);
+        tenants.forEach(listener);
+    }
+}
@@ -0,0 +1,30 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.chunk.DocumentChunker;
+import com.deemerge.enrichment.token.BpeTokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the tokenizer used for token limits, usage accounting and the chunking
+ * of long documents
+ */
+@Configuration
+@Slf4j
+public class TokenizerConfig {
+
+    private static final String VOCABULARY = "tokenizer/bpe-merges.txt";
+
+    @Bean
+    public BpeTokenizer tokenizer() {
+        BpeTokenizer tokenizer = BpeTokenizer.fromResource(VOCABULARY);
+        log.info("Tokenizer loaded {} merge rules from {}", tokenizer.mergeCount(), VOCABULARY);
+        return tokenizer;
+    }
+
+    @Bean
+    public DocumentChunker documentChunker(BpeTokenizer tokenizer) {
+        return new DocumentChunker(tokenizer);
+    }
+}
@@ -1,12 +1,31 @@
 package com.deemerge.enrichment.controller;
 
 import com.deemerge.enrichment.exception.EmptyInputException;
+import com.deemerge.enrichment.exception.GlobalExceptionHandler;
+import com.deemerge.enrichment.model.BatchSummarizationRequest;
+import com.deemerge.enrichment.model.BatchSummaryResponse;
+import com.deemerge.enrichment.model.ResponseMode;
 import com.deemerge.enrichment.model.SummarizationRequest;
 import com.deemerge.enrichment.model.SummaryResponse;
 import com.deemerge.enrichment.service.EnrichmentService;
+import com.deemerge.enrichment.service.LongDocumentSummarizer;
+import com.deemerge.enrichment.service.NdjsonSummarizer;
+import com.deemerge.enrichment.util.MdcPropagation;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * REST controller for enrichment operations
@@ -14,24 +33,158 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/v1/enrichment")
 @RequiredArgsConstructor
+@Slf4j
 public class EnrichmentController {
 
     private final EnrichmentService enrichmentService;
+    private final NdjsonSummarizer ndjsonSummarizer;
+    private final LongDocumentSummarizer longDocumentSummarizer;
     
     /**
      * Endpoint to summarize text for a tenant specified in X-TENANT-ID header
-     * Request body should be JSON with input_text field
+     * Request body should be JSON with input_text field.
+     * The request thread is released while the model call is in flight.
+     * With response=lean the input text is not echoed back; its digest and length are instead.
      */
     @PostMapping("/summarize")
-    public ResponseEntity<SummaryResponse> summarize(
+    public CompletableFuture<ResponseEntity<SummaryResponse>> summarize(
+            @RequestHeader("X-TENANT-ID") String tenantId,
+            @RequestParam(name = "response", defaultValue = "full") String response,
+            @RequestBody SummarizationRequest request) {
+        
+        ResponseMode mode = ResponseMode.parse(response);
+        if (request.getInput_text() == null) {
+            throw new EmptyInputException();
+        }
+        
+        return enrichmentService.summarizeAsync(tenantId, request.getInput_text())
+                .thenApply(summary -> ResponseEntity.ok(mode.apply(summary)));
+    }
+    
+    /**
+     * Endpoint to summarize a text of any length for the tenant specified in X-TENANT-ID header.
+     * Request body should be JSON with input_text field. A text over the tenant's token limit
+     * is split into chunks on sentence and paragraph boundaries, the chunks are summarized in
+     * parallel and their summaries are summarized in turn; chunk summaries are cached, so an
+     * edited document only recomputes the chunks that changed. Supports response=lean.
+     */
+    @PostMapping("/summarize/long")
+    public CompletableFuture<ResponseEntity<SummaryResponse>> summarizeLong(
             @RequestHeader("X-TENANT-ID") String tenantId,
+            @RequestParam(name = "response", defaultValue = "full") String response,
             @RequestBody SummarizationRequest request) {
         
+        ResponseMode mode = ResponseMode.parse(response);
         if (request.getInput_text() == null) {
             throw new EmptyInputException();
         }
         
-        SummaryResponse response = enrichmentService.summarize(tenantId, request.getInput_text());
-        return ResponseEntity.ok(response);
+        return longDocumentSummarizer.summarizeAsync(tenantId, request.getInput_text())
+                .thenApply(summary -> ResponseEntity.ok(mode.apply(summary)));
+    }
+    
+    /**
+     * Endpoint to stream the summary of a text as Server-Sent Events, so the client sees
+     * the first words after the model's first token instead of after the whole call.
+     * Emits "fragment" events whose data concatenate to the summary, then one "summary"
+     * event with the complete SummaryResponse, or an "error" event with the error response.
+     * An unknown tenant or invalid input is rejected with the usual status before the stream opens.
+     * Supports response=lean for the "summary" event.
+     */
+    @PostMapping(value = "/summarize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter summarizeStream(
+            @RequestHeader("X-TENANT-ID") String tenantId,
+            @RequestParam(name = "response", defaultValue = "full") String response,
+            @RequestBody SummarizationRequest request) {
+        
+        ResponseMode mode = ResponseMode.parse(response);
+        if (request.getInput_text() == null) {
+            throw new EmptyInputException();
+        }
+        
+        SseEmitter emitter = new SseEmitter();
+        CompletableFuture<SummaryResponse> summary = enrichmentService.summarizeStreamAsync(
+                tenantId, request.getInput_text(), fragment -> send(emitter, "fragment", fragment));
+        
+        if (summary.isCompletedExceptionally()) {
+            // Validation failed before anything was streamed; answer with a regular error response
+            try {
+                summary.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        
+        summary.whenComplete((result, ex) -> {
+            try {
+                if (ex != null) {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    send(emitter, "error", GlobalExceptionHandler.toErrorResponse(cause));
+                } else {
+                    send(emitter, "summary", mode.apply(result));
+                }
+                emitter.complete();
+            } catch (UncheckedIOException | IllegalStateException e) {
+                // The client has gone away or the emitter timed out; the summary is cached regardless
+                log.debug("Streaming client disconnected: {}", e.getMessage());
+            }
+        });
+        return emitter;
+    }
+    
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Endpoint to summarize many texts of the tenant specified in X-TENANT-ID header.
+     * Request body should be JSON with an items array of objects with an input_text field.
+     * Responds 200 with one result per item, in request order, even when some items failed;
+     * each failed item carries the error code and message of the single-item endpoint.
+     * Supports response=lean.
+     */
+    @PostMapping("/summarize/batch")
+    public CompletableFuture<ResponseEntity<BatchSummaryResponse>> summarizeBatch(
+            @RequestHeader("X-TENANT-ID") String tenantId,
+            @RequestParam(name = "response", defaultValue = "full") String response,
+            @RequestBody BatchSummarizationRequest request) {
+        
+        ResponseMode mode = ResponseMode.parse(response);
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item");
+        }
+        
+        List<String> inputTexts = request.getItems().stream()
+                .map(item -> item != null ? item.getInput_text() : null)
+                .toList();
+        return enrichmentService.summarizeBatchAsync(tenantId, inputTexts)
+                .thenApply(batch -> ResponseEntity.ok(mode.apply(batch)));
+    }
+    
+    /**
+     * Endpoint to summarize a newline-delimited JSON stream of input_text items for the
+     * tenant specified in X-TENANT-ID header. Results are streamed back as NDJSON, one line
+     * per item in completion order, each with the item's index and its result or error.
+     * Only a bounded window of items is read ahead, so arbitrarily large bodies can be sent.
+     * Supports response=lean.
+     */
+    @PostMapping(value = "/summarize/ndjson",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> summarizeNdjson(
+            @RequestHeader("X-TENANT-ID") String tenantId,
+            @RequestParam(name = "response", defaultValue = "full") String response,
+            InputStream body) {
+        
+        ResponseMode mode = ResponseMode.parse(response);
+        Map<String, String> context = MdcPropagation.capture();
+        StreamingResponseBody results = output -> ndjsonSummarizer.summarize(tenantId, body, output, mode, context);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results);
     }
 }
@@ -46,6 +46,28 @@ public class GlobalExceptionHandler {
         );
     }
     
+    /**
+     * Handles TenantOverloadedException and returns a 429 Too Many Requests response
+     */
+    @ExceptionHandler(TenantOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleTenantOverloadedException(TenantOverloadedException ex) {
+        return new ResponseEntity<>(
+                new ErrorResponse("TENANT_OVERLOADED", ex.getMessage()),
+                HttpStatus.TOO_MANY_REQUESTS
+        );
+    }
+    
+    /**
+     * Handles ModelUnavailableException and returns a 503 Service Unavailable response
+     */
+    @ExceptionHandler(ModelUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleModelUnavailableException(ModelUnavailableException ex) {
+        return new ResponseEntity<>(
+                new ErrorResponse("MODEL_UNAVAILABLE", ex.getMessage()),
+                HttpStatus.SERVICE_UNAVAILABLE
+        );
+    }
+    
     /**
      * Handles EnrichmentException and returns a 500 Internal Server Error response
      */
@@ -79,6 +101,29 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Builds the error body the handlers above would return for the exception; used for
+     * failures that are reported inside a successful response, such as batch items
+     */
+    public static ErrorResponse toErrorResponse(Throwable ex) {
+        if (ex instanceof TenantNotFoundException) {
+            return new ErrorResponse("TENANT_NOT_FOUND", ex.getMessage());
+        } else if (ex instanceof EmptyInputException) {
+            return new ErrorResponse("EMPTY_INPUT", ex.getMessage());
+        } else if (ex instanceof TokenLimitExceededException) {
+            return new ErrorResponse("TOKEN_LIMIT_EXCEEDED", ex.getMessage());
+        } else if (ex instanceof TenantOverloadedException) {
+            return new ErrorResponse("TENANT_OVERLOADED", ex.getMessage());
+        } else if (ex instanceof ModelUnavailableException) {
+            return new ErrorResponse("MODEL_UNAVAILABLE", ex.getMessage());
+        } else if (ex instanceof EnrichmentException) {
+            return new ErrorResponse("ENRICHMENT_ERROR", ex.getMessage());
+        } else if (ex instanceof IllegalArgumentException) {
+            return new ErrorResponse("BAD_REQUEST", ex.getMessage());
+        }
+        return new ErrorResponse("INTERNAL_ERROR", "An unexpected error occurred: " + ex.getMessage());
+    }
+
     /**
      * Error response DTO
      */
@@ -0,0 +1,24 @@
+package com.deemerge.enrichment.exception;
+
+/**
+ * Exception thrown when a call to the model fails, telling whether the same call may
+ * succeed when retried (overload, timeout, server error) or will fail again (invalid request)
+ */
+public class ModelCallException extends EnrichmentException {
+
+    private final boolean retryable;
+
+    public ModelCallException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public ModelCallException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,12 @@
+package com.deemerge.enrichment.exception;
+
+/**
+ * Exception thrown when the model answers a call by rejecting the request itself, such as
+ * with HTTP 400. The same request would fail again, and the model was up to answer it.
+ */
+public class ModelRequestRejectedException extends ModelCallException {
+
+    public ModelRequestRejectedException(String message) {
+        super(message, false);
+    }
+}
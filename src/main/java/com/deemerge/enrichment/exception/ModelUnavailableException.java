@@ -0,0 +1,11 @@
+package com.deemerge.enrichment.exception;
+
+/**
+ * Exception thrown instead of calling a model whose circuit breaker is open
+ */
+public class ModelUnavailableException extends RuntimeException {
+
+    public ModelUnavailableException(String model) {
+        super("Model " + model + " is temporarily unavailable");
+    }
+}
@@ -0,0 +1,13 @@
+package com.deemerge.enrichment.exception;
+
+/**
+ * Exception thrown when a tenant already has as many model calls in flight and queued
+ * as its bulkhead admits
+ */
+public class TenantOverloadedException extends RuntimeException {
+
+    public TenantOverloadedException(String tenantId, int limit, int queued) {
+        super(String.format("Too many concurrent requests for tenant %s (limit %d, %d queued)",
+                tenantId, limit, queued));
+    }
+}
@@ -1,11 +1,14 @@
 package com.deemerge.enrichment.exception;
 
 /**
- * Exception thrown when input text exceeds the maximum allowed tokens
+ * Exception thrown when input text exceeds the maximum allowed tokens. Counting stops at
+ * the first token over the limit, so the message gives the text's length in characters
+ * rather than its full token count.
  */
 public class TokenLimitExceededException extends RuntimeException {
 
     public TokenLimitExceededException(int inputLength, int maxTokens) {
-        super(String.format("Input text length (%d) exceeds the maximum allowed tokens (%d)", inputLength, maxTokens));
+        super(String.format("Input text of %d characters has more than the maximum of %d tokens",
+                inputLength, maxTokens));
     }
 }
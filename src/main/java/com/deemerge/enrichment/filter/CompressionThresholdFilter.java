@@ -0,0 +1,270 @@
+package com.deemerge.enrichment.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Filter that makes server.compression.min-response-size apply to JSON responses written
+ * after an asynchronous dispatch. Tomcat only skips compression for bodies whose length it
+ * knows, and those responses are committed without one, so every one of them was compressed
+ * however small. The first min-response-size bytes of a JSON body are held back: a body that
+ * ends within them is sent with its Content-Length and left uncompressed, a longer one is
+ * streamed on and compressed. Other bodies, such as NDJSON and SSE streams, pass straight through.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final int minResponseSize;
+
+    public CompressionThresholdFilter(ServerProperties serverProperties) {
+        this.minResponseSize = (int) serverProperties.getCompression().getMinResponseSize().toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The body of an asynchronous response is written in the async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ThresholdResponse thresholdResponse = WebUtils.getNativeResponse(response, ThresholdResponse.class);
+        HttpServletResponse responseToUse = response;
+        if (thresholdResponse == null) {
+            if (!acceptsGzip(request)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            thresholdResponse = new ThresholdResponse(response, minResponseSize);
+            responseToUse = thresholdResponse;
+        }
+        chain.doFilter(request, responseToUse);
+        if (!request.isAsyncStarted()) {
+            // Otherwise the body is written, and the response finished, in the async dispatch
+            thresholdResponse.finish();
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    /**
+     * Response that holds back up to a threshold of JSON bytes, ignoring flushes meanwhile
+     */
+    static final class ThresholdResponse extends HttpServletResponseWrapper {
+
+        private final int threshold;
+        private final ByteArrayOutputStream held = new ByteArrayOutputStream(256);
+        private boolean holding = true;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ThresholdResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called on this response");
+            }
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream(getResponse().getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called on this response");
+                }
+                outputStream = new ThresholdOutputStream(getResponse().getOutputStream());
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (!holdsJson()) {
+                release();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            // A body of known length is measured against the threshold by Tomcat itself
+            holding = false;
+            super.setContentLength(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            holding = false;
+            super.setContentLengthLong(length);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            discard();
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            discard();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void reset() {
+            held.reset();
+            holding = true;
+            super.reset();
+        }
+
+        @Override
+        public void resetBuffer() {
+            held.reset();
+            super.resetBuffer();
+        }
+
+        /**
+         * Sends what is still held back with its length; called once the body is complete
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (holding && held.size() > 0 && !isCommitted()) {
+                holding = false;
+                super.setContentLength(held.size());
+                held.writeTo(getResponse().getOutputStream());
+                held.reset();
+            } else {
+                release();
+            }
+        }
+
+        private boolean holdsJson() {
+            if (!holding) {
+                return false;
+            }
+            String contentType = getContentType();
+            if (contentType == null) {
+                // Nothing written yet; the content type is not known
+                return held.size() == 0;
+            }
+            try {
+                return MediaType.APPLICATION_JSON.includes(MediaType.parseMediaType(contentType));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        private void release() throws IOException {
+            holding = false;
+            if (held.size() > 0) {
+                held.writeTo(getResponse().getOutputStream());
+                held.reset();
+            }
+        }
+
+        private void discard() {
+            held.reset();
+            holding = false;
+        }
+
+        private final class ThresholdOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream target;
+
+            ThresholdOutputStream(ServletOutputStream target) {
+                this.target = target;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                if (admit(1)) {
+                    held.write(b);
+                } else {
+                    target.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (admit(len)) {
+                    held.write(b, off, len);
+                } else {
+                    target.write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (!holdsJson()) {
+                    release();
+                    target.flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return holding || target.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                target.setWriteListener(listener);
+            }
+
+            /**
+             * Whether the bytes are to be held back; releases the held ones if they are not
+             */
+            private boolean admit(int length) throws IOException {
+                if (holdsJson() && held.size() + length <= threshold) {
+                    return true;
+                }
+                release();
+                return false;
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.UUID;
 /**
  * Filter that extracts tenant ID from X-TENANT-ID header and sets it in MDC
  * for consistent logging across the application.
+ * Actuator endpoints are operational, not tenant requests, and pass without the header.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -30,6 +31,7 @@ public class TenantMdcFilter implements Filter {
     private static final String TENANT_ID_KEY = "tenantId";
     private static final String REQUEST_ID_KEY = "requestId";
     private static final String TENANT_ID_HEADER = "X-TENANT-ID";
+    private static final String ACTUATOR_PATH = "/actuator";
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) 
@@ -45,6 +47,11 @@ public class TenantMdcFilter implements Filter {
                 HttpServletRequest httpRequest = (HttpServletRequest) request;
                 HttpServletResponse httpResponse = (HttpServletResponse) response;
                 
+                if (isActuatorRequest(httpRequest)) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                
                 String tenantId = httpRequest.getHeader(TENANT_ID_HEADER);
                 
                 if (!StringUtils.hasText(tenantId)) {
@@ -70,4 +77,16 @@ public class TenantMdcFilter implements Filter {
             log.debug("Cleared MDC context");
         }
     }
+    
+    private static boolean isActuatorRequest(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return false;
+        }
+        String contextPath = request.getContextPath();
+        if (contextPath != null && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        return path.equals(ACTUATOR_PATH) || path.startsWith(ACTUATOR_PATH + "/");
+    }
 }
@@ -0,0 +1,28 @@
+package com.deemerge.enrichment.model;
+
+import com.deemerge.enrichment.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one batch item: either its summary or the error it failed with
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private int index;           // Position of the item in the request
+    private SummaryResponse result;
+    private ErrorResponse error;
+
+    public static BatchItemResult success(int index, SummaryResponse result) {
+        return new BatchItemResult(index, result, null);
+    }
+
+    public static BatchItemResult failure(int index, ErrorResponse error) {
+        return new BatchItemResult(index, null, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.deemerge.enrichment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request model for batch summarization: many texts of one tenant
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSummarizationRequest {
+    
+    private List<SummarizationRequest> items;
+    
+}
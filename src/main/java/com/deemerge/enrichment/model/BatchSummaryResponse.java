@@ -0,0 +1,19 @@
+package com.deemerge.enrichment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSummaryResponse {
+    private String tenantId;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> results; // In request order
+}
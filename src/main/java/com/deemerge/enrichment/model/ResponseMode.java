@@ -0,0 +1,75 @@
+package com.deemerge.enrichment.model;
+
+import com.deemerge.enrichment.util.ContentDigest;
+
+import java.util.Locale;
+
+/**
+ * How much of the input a summary response echoes back, chosen per request with the
+ * response query parameter
+ */
+public enum ResponseMode {
+
+    /**
+     * The input text is echoed in full, as before lean responses existed
+     */
+    FULL,
+
+    /**
+     * The input text is left out and identified by its digest and length, so the response
+     * stays small however large the input
+     */
+    LEAN;
+
+    /**
+     * Parses a query parameter value, ignoring case
+     *
+     * @throws IllegalArgumentException if the value names no mode
+     */
+    public static ResponseMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown response mode '" + value + "', expected full or lean");
+        }
+    }
+
+    /**
+     * The response as it is sent in this mode. The service hands over the cache key's digest
+     * with the response; a full response drops it, and a lean one only digests the input if
+     * the response does not carry its digest yet.
+     */
+    public SummaryResponse apply(SummaryResponse response) {
+        if (this == FULL) {
+            return response.getInputDigest() != null ? response.toBuilder().inputDigest(null).build() : response;
+        }
+        if (response.getInputText() == null) {
+            return response;
+        }
+        String inputText = response.getInputText();
+        return response.toBuilder()
+                .inputText(null)
+                .inputDigest(response.getInputDigest() != null
+                        ? response.getInputDigest()
+                        : ContentDigest.sha256Hex(inputText))
+                .inputLength(inputText.length())
+                .build();
+    }
+
+    /**
+     * The batch response with each summary as it is sent in this mode
+     */
+    public BatchSummaryResponse apply(BatchSummaryResponse response) {
+        if (response.getResults() != null) {
+            response.setResults(response.getResults().stream().map(this::apply).toList());
+        }
+        return response;
+    }
+
+    /**
+     * The batch item with its summary, if any, as it is sent in this mode
+     */
+    public BatchItemResult apply(BatchItemResult result) {
+        return result.getResult() != null ? BatchItemResult.success(result.getIndex(), apply(result.getResult())) : result;
+    }
+}
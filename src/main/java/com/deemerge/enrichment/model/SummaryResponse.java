@@ -1,5 +1,6 @@
 package com.deemerge.enrichment.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,12 +9,17 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class SummaryResponse {
-    private String inputText;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String inputText;    // Left out of lean responses
     private String summary;
     private String tenantId;
     private Instant timestamp;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String inputDigest;  // Lean responses only: SHA-256 hex of the input text, which is left out
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer inputLength; // Lean responses only: characters in the input text
 }
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,4 +16,7 @@ public class TenantSettings {
     private String tone;         // e.g., "formal", "friendly", etc.
     private int maxTokens;       // e.g., 200, 300, etc.
     private int retryAttempts;   // Number of retry attempts for failed API calls
+    private long cacheBudgetBytes; // Summary cache budget in bytes; 0 uses enrichment.cache.default-tenant-budget-bytes
+    private String promptTemplate; // Custom prompt template with {{name}} placeholders; null uses the default
+    private Map<String, String> promptVariables; // Values of the custom template's own placeholders
 }
@@ -0,0 +1,245 @@
+package com.deemerge.enrichment.repository;
+
+import com.deemerge.enrichment.model.TenantSettings;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tenant settings read from a JSON or YAML file (by its .json, .yml or .yaml extension)
+ * that maps each tenant ID to its settings, in the same shape as {@link TenantSettings}:
+ * <pre>
+ * tenant1:
+ *   model: gpt-4
+ *   tone: formal
+ *   maxTokens: 300
+ *   retryAttempts: 3
+ * </pre>
+ * Every load publishes a new {@link TenantSettingsSnapshot} through a volatile field, so
+ * lookups never lock. A reload that changes no tenant keeps the current snapshot and its
+ * version; one that changes tenants calls the change listeners with their IDs. A file that
+ * cannot be read, does not parse, has unknown fields or defines no tenants is rejected as a
+ * whole and the current settings stay in place.
+ * <p>
+ * Once {@link #startWatching(Duration)} is called, changes in the file's directory are
+ * watched, and once they have stopped for the given delay the file is reloaded if its
+ * modification time, size or identity changed. That also covers a file replaced by a rename
+ * or a re-pointed symbolic link. Replacing the file by a rename is safer than writing it in
+ * place, which a reload may catch half written.
+ */
+@Slf4j
+public class FileTenantSettingsRepository implements TenantSettingsRepository, Closeable {
+
+    private static final TypeReference<Map<String, TenantSettings>> TENANTS_TYPE = new TypeReference<>() {
+    };
+
+    private final Path file;
+    // Fails on unknown fields, so a misspelt setting rejects the file instead of being ignored
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+    private volatile TenantSettingsSnapshot snapshot;
+    private WatchService watchService;
+
+    /**
+     * Loads the file as version 1
+     *
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if its content is not valid tenant settings
+     */
+    public FileTenantSettingsRepository(Path file) {
+        this.file = file.toAbsolutePath();
+        this.snapshot = new TenantSettingsSnapshot(1, read());
+        log.info("Loaded settings of {} tenants from {}", snapshot.tenantIds().size(), this.file);
+    }
+
+    @Override
+    public Optional<TenantSettings> findByTenantId(String tenantId) {
+        return snapshot.find(tenantId);
+    }
+
+    @Override
+    public void addChangeListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    public TenantSettingsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Reads the file again and publishes its settings as the next version if any tenant changed
+     *
+     * @return true if a new version was published
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if its content is not valid tenant settings
+     */
+    public synchronized boolean reload() {
+        Map<String, TenantSettings> tenants = read();
+        TenantSettingsSnapshot current = snapshot;
+        Set<String> changed = current.changedTenants(tenants);
+        if (changed.isEmpty()) {
+            return false;
+        }
+        snapshot = new TenantSettingsSnapshot(current.getVersion() + 1, tenants);
+        log.info("Loaded tenant settings version {} from {}, changed tenants: {}",
+                snapshot.getVersion(), file, changed);
+        Set<String> changedTenants = Set.copyOf(changed);
+        for (Consumer<Set<String>> listener : listeners) {
+            try {
+                listener.accept(changedTenants);
+            } catch (RuntimeException e) {
+                log.warn("Tenant settings change listener failed", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts a daemon thread that reloads the file when its directory changes, once no further
+     * change arrived for reloadDelay
+     *
+     * @throws UncheckedIOException if the directory cannot be watched
+     */
+    public synchronized void startWatching(Duration reloadDelay) {
+        if (watchService != null) {
+            return;
+        }
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot watch " + file.getParent(), e);
+        }
+        WatchService service = watchService;
+        Thread thread = new Thread(() -> watch(service, reloadDelay), "tenant-settings-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(WatchService service, Duration reloadDelay) {
+        // Picks up a change made between loading the file and registering the watch
+        String loaded = fileStamp();
+        reloadQuietly();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                // An editor saving the file may cause several events; reload once they stop
+                do {
+                    key.pollEvents();
+                    key.reset();
+                } while ((key = service.poll(reloadDelay.toMillis(), TimeUnit.MILLISECONDS)) != null);
+                // Other files in the directory changed, or the file was rejected before
+                String current = fileStamp();
+                if (Objects.equals(current, loaded)) {
+                    continue;
+                }
+                loaded = current;
+                reloadQuietly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close()
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Keeping tenant settings version {}, {} was rejected: {}",
+                    snapshot.getVersion(), file, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns what identifies the file's current content, following symbolic links, or null if it is missing
+     */
+    private String fileStamp() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.lastModifiedTime() + "/" + attributes.size() + "/" + attributes.fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Map<String, TenantSettings> read() {
+        Map<String, TenantSettings> tenants;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Object content = isYaml()
+                    ? new Yaml(new SafeConstructor(new LoaderOptions())).load(reader)
+                    : objectMapper.readValue(reader, Object.class);
+            tenants = objectMapper.convertValue(content, TENANTS_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read tenant settings from " + file, e);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid tenant settings in " + file + ": " + e.getMessage(), e);
+        }
+        if (tenants == null || tenants.isEmpty()) {
+            throw new IllegalArgumentException(file + " defines no tenants");
+        }
+        tenants.forEach(FileTenantSettingsRepository::validate);
+        return tenants;
+    }
+
+    private boolean isYaml() {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+
+    private static void validate(String tenantId, TenantSettings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " has no settings");
+        }
+        if (settings.getModel() == null || settings.getModel().isBlank()) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " has no model");
+        }
+        if (settings.getTone() == null || settings.getTone().isBlank()) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " has no tone");
+        }
+        if (settings.getMaxTokens() < 1) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " must allow at least 1 token");
+        }
+        if (settings.getRetryAttempts() < 0 || settings.getCacheBudgetBytes() < 0) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " has negative settings");
+        }
+    }
+}
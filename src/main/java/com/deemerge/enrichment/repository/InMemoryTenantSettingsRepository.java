@@ -1,17 +1,15 @@
 package com.deemerge.enrichment.repository;
 
 import com.deemerge.enrichment.model.TenantSettings;
-import org.springframework.stereotype.Repository;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 /**
- * In-memory implementation of TenantSettingsRepository
- * This implementation could be replaced with a database-backed implementation in a production environment
+ * In-memory implementation of TenantSettingsRepository with three sample tenants
+ * Used unless enrichment.tenant-settings.source selects another source such as a settings file
  */
-@Repository
 public class InMemoryTenantSettingsRepository implements TenantSettingsRepository {
 
     private final Map<String, TenantSettings> tenantSettingsMap;
@@ -20,12 +18,13 @@ public class InMemoryTenantSettingsRepository implements TenantSettingsRepositor
         // Initialize with some mock tenant settings
         this.tenantSettingsMap = new HashMap<>();
         
-        // Add tenant 1 - Uses GPT-4 with formal tone
+        // Add tenant 1 - Uses GPT-4 with formal tone and a larger summary cache
         tenantSettingsMap.put("tenant1", TenantSettings.builder()
                 .model("gpt-4")
                 .tone("formal")
                 .maxTokens(300)
                 .retryAttempts(3)
+                .cacheBudgetBytes(512 * 1024)
                 .build());
         
         // Add tenant 2 - Uses GPT-3.5 with friendly tone
@@ -3,6 +3,8 @@ package com.deemerge.enrichment.repository;
 import com.deemerge.enrichment.model.TenantSettings;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TenantSettingsRepository {
     
@@ -13,4 +15,14 @@ public interface TenantSettingsRepository {
      * @return Optional TenantSettings object if found, empty otherwise
      */
     Optional<TenantSettings> findByTenantId(String tenantId);
+
+    /**
+     * Registers a listener called with the IDs of the tenants whose settings were added,
+     * changed or removed, after the new settings are visible to lookups. Repositories whose
+     * settings never change never call it.
+     *
+     * @param listener The listener, called on the thread that applied the change
+     */
+    default void addChangeListener(Consumer<Set<String>> listener) {
+    }
 }
@@ -0,0 +1,60 @@
+package com.deemerge.enrichment.repository;
+
+import com.deemerge.enrichment.model.TenantSettings;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable view of every tenant's settings as loaded at one point, numbered by version.
+ * A reload builds a new snapshot and publishes it in one write, so lookups read whichever
+ * snapshot is current without locking and never see a reload half applied. The settings
+ * objects are shared by every reader of the snapshot and must not be modified.
+ */
+public final class TenantSettingsSnapshot {
+
+    private final long version;
+    private final Map<String, TenantSettings> tenants;
+
+    public TenantSettingsSnapshot(long version, Map<String, TenantSettings> tenants) {
+        this.version = version;
+        this.tenants = Map.copyOf(tenants);
+    }
+
+    /**
+     * Returns the version, which starts at 1 and grows by one with every reload that changed a tenant
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Optional<TenantSettings> find(String tenantId) {
+        return Optional.ofNullable(tenants.get(tenantId));
+    }
+
+    public Set<String> tenantIds() {
+        return tenants.keySet();
+    }
+
+    /**
+     * Returns the IDs of the tenants added, removed or changed in the given settings compared
+     * to this snapshot
+     */
+    public Set<String> changedTenants(Map<String, TenantSettings> next) {
+        Set<String> changed = new HashSet<>();
+        tenants.forEach((tenantId, settings) -> {
+            if (!Objects.equals(settings, next.get(tenantId))) {
+                changed.add(tenantId);
+            }
+        });
+        for (String tenantId : next.keySet()) {
+            if (!tenants.containsKey(tenantId)) {
+                changed.add(tenantId);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,33 @@
+package com.deemerge.enrichment.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decorrelated jitter backoff: each delay is drawn uniformly between the base delay and
+ * three times the previous one, capped. Unlike a fixed exponential schedule, callers that
+ * failed together do not retry together, so retries reach the backend spread out rather
+ * than in waves.
+ */
+public final class DecorrelatedJitter {
+
+    private final long baseMillis;
+    private final long maxMillis;
+
+    public DecorrelatedJitter(long baseMillis, long maxMillis) {
+        if (baseMillis < 1 || maxMillis < baseMillis) {
+            throw new IllegalArgumentException("Delays must satisfy 1 <= baseMillis <= maxMillis");
+        }
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Delay before the next retry
+     *
+     * @param previousMillis the delay before the previous retry, or 0 before the first
+     */
+    public long next(long previousMillis) {
+        long upper = Math.min(maxMillis, Math.max(baseMillis, previousMillis) * 3);
+        return upper <= baseMillis ? baseMillis : ThreadLocalRandom.current().nextLong(baseMillis, upper + 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.deemerge.enrichment.retry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps retries at a ratio of the successful calls of the last {@value #WINDOW_SECONDS}
+ * seconds, plus a small reserve per second so that a quiet caller can still retry. When a
+ * backend starts failing, successes dry up and so do retries, instead of every failure
+ * being multiplied by the retry count.
+ * <p>
+ * Counts are kept in one-second buckets of a ring, so old calls age out of the window.
+ */
+public final class RetryBudget {
+
+    static final int WINDOW_SECONDS = 10;
+
+    private final double retryRatio;
+    private final double minRetriesPerSecond;
+    private final LongSupplier ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final long[] successes = new long[WINDOW_SECONDS];
+    private final long[] retries = new long[WINDOW_SECONDS];
+    private long currentSecond;
+
+    /**
+     * @param ticker source of nanosecond time; null uses {@link System#nanoTime()}
+     */
+    public RetryBudget(double retryRatio, double minRetriesPerSecond, LongSupplier ticker) {
+        if (retryRatio < 0 || minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("retryRatio and minRetriesPerSecond must not be negative");
+        }
+        this.retryRatio = retryRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.ticker = ticker != null ? ticker : System::nanoTime;
+        this.currentSecond = now();
+    }
+
+    public void recordSuccess() {
+        lock.lock();
+        try {
+            successes[bucket()]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes one retry out of the budget if it has one left
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            int bucket = bucket();
+            long recentSuccesses = 0;
+            long recentRetries = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                recentSuccesses += successes[i];
+                recentRetries += retries[i];
+            }
+            double allowed = minRetriesPerSecond * WINDOW_SECONDS + retryRatio * recentSuccesses;
+            if (recentRetries + 1 > allowed) {
+                return false;
+            }
+            retries[bucket]++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a retry taken by {@link #tryAcquire()} that was not made after all
+     */
+    public void release() {
+        lock.lock();
+        try {
+            int bucket = bucket();
+            if (retries[bucket] > 0) {
+                retries[bucket]--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toSeconds(ticker.getAsLong());
+    }
+
+    /**
+     * Index of the current second's bucket, clearing the buckets of the seconds that passed
+     */
+    private int bucket() {
+        long second = now();
+        long elapsed = Math.min(second - currentSecond, WINDOW_SECONDS);
+        for (long i = 1; i <= elapsed; i++) {
+            int stale = (int) Math.floorMod(currentSecond + i, (long) WINDOW_SECONDS);
+            successes[stale] = 0;
+            retries[stale] = 0;
+        }
+        if (elapsed > 0) {
+            currentSecond = second;
+        }
+        return (int) Math.floorMod(currentSecond, (long) WINDOW_SECONDS);
+    }
+}
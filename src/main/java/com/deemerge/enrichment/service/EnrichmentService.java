@@ -1,7 +1,12 @@
 package com.deemerge.enrichment.service;
 
+import com.deemerge.enrichment.model.BatchSummaryResponse;
 import com.deemerge.enrichment.model.SummaryResponse;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * Service to handle text enrichment operations including summarization
  */
@@ -15,4 +20,41 @@ public interface EnrichmentService {
      * @return SummaryResponse containing the summarized text and metadata
      */
     SummaryResponse summarize(String tenantId, String inputText);
+
+    /**
+     * Summarizes the provided input text without blocking the calling thread.
+     * Validation failures and model errors complete the returned future exceptionally.
+     * 
+     * @param tenantId The unique identifier of the tenant
+     * @param inputText The text to be summarized
+     * @return future completed with the SummaryResponse once the model call succeeds
+     */
+    CompletableFuture<SummaryResponse> summarizeAsync(String tenantId, String inputText);
+
+    /**
+     * Summarizes the provided input text, passing the summary to the consumer piece by piece
+     * as the model produces it. A cached summary, or one produced by a call another request
+     * started, is passed as a single fragment. The fragments always add up to the summary,
+     * and the consumer is called from model call threads, one fragment at a time.
+     * 
+     * @param tenantId The unique identifier of the tenant
+     * @param inputText The text to be summarized
+     * @param fragmentConsumer Receives the summary fragments in order
+     * @return future completed with the SummaryResponse after the last fragment
+     */
+    CompletableFuture<SummaryResponse> summarizeStreamAsync(String tenantId, String inputText,
+                                                            Consumer<String> fragmentConsumer);
+
+    /**
+     * Summarizes many texts of one tenant without blocking the calling thread.
+     * The tenant's settings are loaded once, identical texts are summarized once, and
+     * the model calls run in parallel up to the configured batch concurrency.
+     * A failing item is reported in its own result; only an unknown tenant or an
+     * invalid batch completes the returned future exceptionally.
+     * 
+     * @param tenantId The unique identifier of the tenant
+     * @param inputTexts The texts to be summarized
+     * @return future completed with one result per text, in the same order
+     */
+    CompletableFuture<BatchSummaryResponse> summarizeBatchAsync(String tenantId, List<String> inputTexts);
 }
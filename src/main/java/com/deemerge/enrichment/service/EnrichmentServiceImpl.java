@@ -1,161 +1,558 @@
 package com.deemerge.enrichment.service;
 
+import com.deemerge.enrichment.breaker.CircuitBreaker;
+import com.deemerge.enrichment.cache.SummaryCacheKey;
+import com.deemerge.enrichment.client.ModelClient;
+import com.deemerge.enrichment.config.BatchProperties;
+import com.deemerge.enrichment.config.HedgingProperties;
+import com.deemerge.enrichment.config.ModelBatchingProperties;
+import com.deemerge.enrichment.config.ModelCircuitBreakerRegistry;
+import com.deemerge.enrichment.config.RetryBudgetRegistry;
+import com.deemerge.enrichment.config.RetryProperties;
+import com.deemerge.enrichment.config.SummaryCacheProperties;
+import com.deemerge.enrichment.config.TenantBulkheadRegistry;
+import com.deemerge.enrichment.config.TokenUsageRegistry;
 import com.deemerge.enrichment.exception.EmptyInputException;
 import com.deemerge.enrichment.exception.EnrichmentException;
+import com.deemerge.enrichment.exception.GlobalExceptionHandler;
+import com.deemerge.enrichment.exception.ModelCallException;
+import com.deemerge.enrichment.exception.ModelRequestRejectedException;
+import com.deemerge.enrichment.exception.ModelUnavailableException;
 import com.deemerge.enrichment.exception.TenantNotFoundException;
+import com.deemerge.enrichment.exception.TenantOverloadedException;
 import com.deemerge.enrichment.exception.TokenLimitExceededException;
+import com.deemerge.enrichment.model.BatchItemResult;
+import com.deemerge.enrichment.model.BatchSummaryResponse;
 import com.deemerge.enrichment.model.SummaryResponse;
 import com.deemerge.enrichment.model.TenantSettings;
 import com.deemerge.enrichment.repository.TenantSettingsRepository;
-import lombok.RequiredArgsConstructor;
+import com.deemerge.enrichment.retry.DecorrelatedJitter;
+import com.deemerge.enrichment.util.MdcPropagation;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
- * Implementation of EnrichmentService that simulates AI model responses
+ * Implementation of EnrichmentService that summarizes text through a {@link ModelClient},
+ * by default one simulating the AI model. Summaries are read through the summary cache, so
+ * the model is only called on a miss, and model calls and retry backoffs complete
+ * asynchronously, so no thread is held while waiting for either.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class EnrichmentServiceImpl implements EnrichmentService {
 
     private final TenantSettingsRepository tenantSettingsRepository;
     private final PromptBuilder promptBuilder;
-    private final Random random = new Random();
+    private final ModelClient modelClient;
+    private final Cache summaryCache;
+    private final boolean storeInputText;
+    private final BatchProperties batchProperties;
+    private final ScheduledExecutorService scheduler;
+    private final Executor modelCallExecutor;
+    private final ModelCallBatcher modelCallBatcher;
+    private final ModelCallHedger modelCallHedger;
+    private final TenantBulkheadRegistry bulkheads;
+    private final ModelCircuitBreakerRegistry circuitBreakers;
+    private final RetryBudgetRegistry retryBudgets;
+    private final DecorrelatedJitter retryBackoff;
+    private final TokenUsageRegistry tokenUsage;
     
-    private static final double ERROR_RATE = 0.2; // 20% failure rate
+    private static final String SUMMARY_CACHE = "summaryCache";
+    
+    public EnrichmentServiceImpl(TenantSettingsRepository tenantSettingsRepository,
+                                 PromptBuilder promptBuilder,
+                                 ModelClient modelClient,
+                                 CacheManager cacheManager,
+                                 SummaryCacheProperties cacheProperties,
+                                 BatchProperties batchProperties,
+                                 ModelBatchingProperties modelBatchingProperties,
+                                 HedgingProperties hedgingProperties,
+                                 RetryProperties retryProperties,
+                                 TenantBulkheadRegistry bulkheads,
+                                 ModelCircuitBreakerRegistry circuitBreakers,
+                                 RetryBudgetRegistry retryBudgets,
+                                 TokenUsageRegistry tokenUsage,
+                                 @Qualifier("enrichmentScheduler") ScheduledExecutorService scheduler,
+                                 @Qualifier("modelCallExecutor") Executor modelCallExecutor) {
+        this.tenantSettingsRepository = tenantSettingsRepository;
+        this.promptBuilder = promptBuilder;
+        this.modelClient = modelClient;
+        this.summaryCache = cacheManager.getCache(SUMMARY_CACHE);
+        this.storeInputText = cacheProperties.isStoreInputText();
+        this.batchProperties = batchProperties;
+        this.scheduler = scheduler;
+        this.modelCallExecutor = modelCallExecutor;
+        this.modelCallBatcher = modelBatchingProperties.isEnabled()
+                ? new ModelCallBatcher(modelBatchingProperties.getMaxBatchSize(),
+                        modelBatchingProperties.getMaxWait().toMillis(), scheduler, modelClient::completeBatch)
+                : null;
+        this.modelCallHedger = hedgingProperties.isEnabled()
+                ? new ModelCallHedger(hedgingProperties.getPercentile(), hedgingProperties.getMaxExtraLoad(),
+                        hedgingProperties.getMinSamples(), scheduler)
+                : null;
+        this.bulkheads = bulkheads;
+        this.circuitBreakers = circuitBreakers;
+        this.retryBudgets = retryBudgets;
+        this.retryBackoff = new DecorrelatedJitter(retryProperties.getBaseBackoff().toMillis(),
+                retryProperties.getMaxBackoff().toMillis());
+        this.tokenUsage = tokenUsage;
+    }
     
     @Override
-    @CachePut(value = "summaryCache", key = "#tenantId + '-' + #inputText.hashCode()")
     public SummaryResponse summarize(String tenantId, String inputText) {
+        try {
+            return summarizeAsync(tenantId, inputText).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<SummaryResponse> summarizeAsync(String tenantId, String inputText) {
         log.info("Summarization request received for tenant");
         
         if (inputText == null || inputText.trim().isEmpty()) {
-            throw new EmptyInputException();
+            return CompletableFuture.failedFuture(new EmptyInputException());
         }
         
         // Load tenant settings
-        TenantSettings tenantSettings = tenantSettingsRepository.findByTenantId(tenantId)
-                .orElseThrow(() -> new TenantNotFoundException(tenantId));
+        TenantSettings tenantSettings = tenantSettingsRepository.findByTenantId(tenantId).orElse(null);
+        if (tenantSettings == null) {
+            return CompletableFuture.failedFuture(new TenantNotFoundException(tenantId));
+        }
         
-        // Check if input text exceeds max tokens limit (assuming 1 character = 1 token)
-        int inputLength = inputText.length();
-        int maxTokens = tenantSettings.getMaxTokens();
-        if (inputLength > maxTokens) {
-            log.warn("Input text length ({}) exceeds maximum token limit ({}) for tenant {}", 
-                    inputLength, maxTokens, tenantId);
-            throw new TokenLimitExceededException(inputLength, maxTokens);
+        return summarizeWithSettings(tenantId, inputText, tenantSettings, null);
+    }
+    
+    /**
+     * Streams the summary token by token as the model emits it; the completed summary is
+     * cached like any other
+     */
+    @Override
+    public CompletableFuture<SummaryResponse> summarizeStreamAsync(String tenantId, String inputText,
+                                                                   Consumer<String> fragmentConsumer) {
+        log.info("Streaming summarization request received for tenant");
+        
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new EmptyInputException());
         }
         
-        log.debug("Tenant settings loaded: {}", tenantSettings);
+        TenantSettings tenantSettings = tenantSettingsRepository.findByTenantId(tenantId).orElse(null);
+        if (tenantSettings == null) {
+            return CompletableFuture.failedFuture(new TenantNotFoundException(tenantId));
+        }
         
-        // Build prompt
-        String prompt = promptBuilder.buildSummarizationPrompt(tenantSettings, inputText);
-        log.debug("Prompt built");
+        // The relay holds back fragments until it is known whether this request started the model call.
+        // On a cache hit the loader may still run as a background refresh, whose fragments must not leak.
+        FragmentRelay relay = new FragmentRelay(fragmentConsumer);
+        CompletableFuture<SummaryResponse> summary = summarizeWithSettings(tenantId, inputText, tenantSettings, relay);
+        if (summary.isDone()) {
+            relay.detach();
+        } else {
+            relay.attach();
+        }
         
-        try {
-            // Simulate calling OpenAI with error handling and retry logic
-            String summary = callOpenAIWithRetry(prompt, tenantSettings);
-            
-            // Create response
-            SummaryResponse response = SummaryResponse.builder()
-                    .inputText(inputText)
-                    .summary(summary)
-                    .tenantId(tenantId)
-                    .timestamp(Instant.now())
-                    .build();
-            
-            log.info("Summarization completed");
+        // A cache hit, or a call started by another request, is delivered as a single fragment
+        return summary.thenApply(response -> {
+            relay.completeWith(response.getSummary());
             return response;
-            
-        } catch (Exception e) {
-            log.error("Error during summarization: {}", e.getMessage());
-            throw new EnrichmentException("Failed to summarize text after retries", e);
-        }
+        });
     }
     
     /**
-     * Simulates calling OpenAI API with retry logic
+     * Loads the tenant's settings once for the whole batch, summarizes identical texts once
+     * and keeps at most enrichment.batch.concurrency model calls in flight
      */
-    private String callOpenAIWithRetry(String prompt, TenantSettings settings) throws InterruptedException {
-        int attempts = 0;
-        int maxAttempts = settings.getRetryAttempts();
-        MDC.put("model", settings.getModel());
+    @Override
+    public CompletableFuture<BatchSummaryResponse> summarizeBatchAsync(String tenantId, List<String> inputTexts) {
+        log.info("Batch summarization request received for tenant");
         
-        while (attempts < maxAttempts) {
-            attempts++;
-            MDC.put("attemptNumber", String.valueOf(attempts));
-            try {
-                return simulateOpenAICall(prompt, settings);
-            } catch (RuntimeException e) {
-                log.warn("API call attempt failed: {}", e.getMessage());
-                
-                if (attempts >= maxAttempts) {
-                    throw e;
-                }
-                
-                // Exponential backoff
-                TimeUnit.MILLISECONDS.sleep(100 * (long) Math.pow(2, attempts));
-            }
+        if (inputTexts == null || inputTexts.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Batch must contain at least one item"));
+        }
+        if (inputTexts.size() > batchProperties.getMaxItems()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(String.format(
+                    "Batch of %d items exceeds the maximum of %d", inputTexts.size(), batchProperties.getMaxItems())));
+        }
+        
+        // Load tenant settings once for the whole batch
+        TenantSettings tenantSettings = tenantSettingsRepository.findByTenantId(tenantId).orElse(null);
+        if (tenantSettings == null) {
+            return CompletableFuture.failedFuture(new TenantNotFoundException(tenantId));
         }
         
-        throw new EnrichmentException("Failed after " + maxAttempts + " attempts");
+        // Identical texts share one summary
+        Map<String, CompletableFuture<SummaryResponse>> distinct = new HashMap<>();
+        List<CompletableFuture<SummaryResponse>> items = new ArrayList<>(inputTexts.size());
+        for (String inputText : inputTexts) {
+            items.add(distinct.computeIfAbsent(inputText, text -> new CompletableFuture<>()));
+        }
+        log.debug("Batch of {} items has {} distinct texts", inputTexts.size(), distinct.size());
+        
+        List<Map.Entry<String, CompletableFuture<SummaryResponse>>> work = new ArrayList<>(distinct.entrySet());
+        Map<String, String> context = MdcPropagation.capture();
+        AtomicInteger next = new AtomicInteger();
+        int lanes = Math.min(Math.max(1, batchProperties.getConcurrency()), work.size());
+        for (int i = 0; i < lanes; i++) {
+            summarizeNext(tenantId, tenantSettings, work, next, context);
+        }
+        
+        return CompletableFuture.allOf(items.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, ex) -> toBatchResponse(tenantId, items));
     }
     
     /**
-     * Simulates an OpenAI API call with random variations and failures
+     * Summarizes batch items one after another until none is left. Each lane calling this
+     * keeps one model call in flight and picks up the next item when it completes; items that
+     * complete at once, such as cache hits and invalid texts, are handled in the loop rather
+     * than by recursion.
      */
-    private String simulateOpenAICall(String prompt, TenantSettings settings) {
+    private void summarizeNext(String tenantId, TenantSettings tenantSettings,
+                               List<Map.Entry<String, CompletableFuture<SummaryResponse>>> work,
+                               AtomicInteger next, Map<String, String> context) {
+        int index;
+        while ((index = next.getAndIncrement()) < work.size()) {
+            Map.Entry<String, CompletableFuture<SummaryResponse>> item = work.get(index);
+            CompletableFuture<SummaryResponse> summary = MdcPropagation.callWith(context,
+                    () -> summarizeItem(tenantId, item.getKey(), tenantSettings));
+            summary.whenComplete((response, ex) -> {
+                if (ex != null) {
+                    item.getValue().completeExceptionally(unwrap(ex));
+                } else {
+                    item.getValue().complete(response);
+                }
+            });
+            if (!summary.isDone()) {
+                summary.whenComplete((response, ex) -> summarizeNext(tenantId, tenantSettings, work, next, context));
+                return;
+            }
+        }
+    }
+    
+    private CompletableFuture<SummaryResponse> summarizeItem(String tenantId, String inputText,
+                                                             TenantSettings tenantSettings) {
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new EmptyInputException());
+        }
         try {
-            int delay = settings.getModel().contains("4") ? 1000 : 500;
-            TimeUnit.MILLISECONDS.sleep(delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            return summarizeWithSettings(tenantId, inputText, tenantSettings, null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private static BatchSummaryResponse toBatchResponse(String tenantId,
+                                                        List<CompletableFuture<SummaryResponse>> items) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        int failed = 0;
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                results.add(BatchItemResult.success(i, items.get(i).join()));
+            } catch (CompletionException e) {
+                failed++;
+                results.add(BatchItemResult.failure(i, GlobalExceptionHandler.toErrorResponse(unwrap(e))));
+            }
+        }
+        return BatchSummaryResponse.builder()
+                .tenantId(tenantId)
+                .succeeded(items.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+    
+    /**
+     * Summarizes a non-empty text with settings already loaded for its tenant. Concurrent
+     * requests for the same tenant and text share one model call through the cache.
+     * With a fragment consumer, a model call started by this request streams its tokens to it.
+     */
+    private CompletableFuture<SummaryResponse> summarizeWithSettings(String tenantId, String inputText,
+                                                                     TenantSettings tenantSettings,
+                                                                     Consumer<String> fragmentConsumer) {
+        // Check if input text exceeds max tokens limit; counting stops once it is exceeded
+        int maxTokens = tenantSettings.getMaxTokens();
+        if (tokenUsage.countTokens(inputText, maxTokens) > maxTokens) {
+            log.warn("Input text of {} characters exceeds maximum token limit ({}) for tenant {}",
+                    inputText.length(), maxTokens, tenantId);
+            return CompletableFuture.failedFuture(new TokenLimitExceededException(inputText.length(), maxTokens));
         }
         
-        // Simulate random failures (20% of calls)
-        if (random.nextDouble() < ERROR_RATE) {
-            throw new EnrichmentException("Simulated OpenAI API failure");
+        log.debug("Tenant settings loaded: {}", tenantSettings);
+        
+        // Read through the cache; concurrent misses for the same key share one model call.
+        // The key digests the input once and is reused for both the lookup and the store.
+        SummaryCacheKey cacheKey = SummaryCacheKey.of(tenantId, inputText, tenantSettings,
+                promptBuilder.getTemplateVersion(tenantSettings));
+        Map<String, String> context = MdcPropagation.capture();
+        CompletableFuture<SummaryResponse> cached = summaryCache.retrieve(cacheKey, () -> {
+            log.debug("Summary cache miss, calling model");
+            return generateSummary(tenantId, inputText, tenantSettings, context, fragmentConsumer)
+                    .thenApply(this::toCacheEntry);
+        });
+        // The response also carries the key's digest, so a lean response need not digest the input again
+        return cached.thenApply(entry -> entry.toBuilder()
+                .inputText(inputText)
+                .inputDigest(cacheKey.getTextDigest())
+                .build());
+    }
+    
+    /**
+     * Drops the input text from a response about to be cached, unless configured to keep it.
+     * The entry's key already pins the text by digest, so it can be restored from the request.
+     */
+    private SummaryResponse toCacheEntry(SummaryResponse response) {
+        return storeInputText ? response : response.toBuilder().inputText(null).build();
+    }
+    
+    /**
+     * Calls the model within the tenant's bulkhead, so a tenant over its limit and queue is
+     * rejected at once instead of crowding out the others
+     */
+    private CompletableFuture<SummaryResponse> generateSummary(String tenantId, String inputText,
+                                                               TenantSettings tenantSettings,
+                                                               Map<String, String> context,
+                                                               Consumer<String> fragmentConsumer) {
+        // Build prompt
+        String prompt = promptBuilder.buildSummarizationPrompt(tenantSettings, inputText);
+        log.debug("Prompt built");
+        
+        // Call the model with error handling and retry logic, within the tenant's bulkhead
+        return bulkheads.execute(tenantId,
+                        () -> callModelWithRetry(tenantId, prompt, tenantSettings, context, fragmentConsumer))
+                .handle((summary, ex) -> MdcPropagation.callWith(context, () -> {
+                    if (ex != null) {
+                        Throwable cause = unwrap(ex);
+                        if (cause instanceof TenantOverloadedException || cause instanceof ModelUnavailableException) {
+                            // Refused without a model call; these keep their own error codes
+                            log.warn("Summarization rejected: {}", cause.getMessage());
+                            throw (RuntimeException) cause;
+                        }
+                        log.error("Error during summarization: {}", cause.getMessage());
+                        throw new EnrichmentException("Failed to summarize text after retries", cause);
+                    }
+                    
+                    // Create response
+                    SummaryResponse response = SummaryResponse.builder()
+                            .inputText(inputText)
+                            .summary(summary)
+                            .tenantId(tenantId)
+                            .timestamp(Instant.now())
+                            .build();
+                    
+                    log.info("Summarization completed");
+                    return response;
+                }));
+    }
+    
+    /**
+     * Calls the model with retry logic. Backoff delays are jittered and scheduled
+     * rather than slept, so no thread waits out a backoff, and the MDC context is carried into
+     * every attempt. A streamed attempt only fails before its first token, so a retry never
+     * repeats fragments.
+     */
+    private CompletableFuture<String> callModelWithRetry(String tenantId, String prompt, TenantSettings settings,
+                                                          Map<String, String> context,
+                                                          Consumer<String> fragmentConsumer) {
+        int maxAttempts = settings.getRetryAttempts();
+        if (maxAttempts <= 0) {
+            return CompletableFuture.failedFuture(
+                    new EnrichmentException("Failed after " + maxAttempts + " attempts"));
         }
         
-        // Generate a simulated summary with some randomness
-        return generateSimulatedSummary(prompt, settings);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attempt(tenantId, prompt, settings, MdcPropagation.with(context, "model", settings.getModel()),
+                fragmentConsumer, 1, 0, result);
+        return result;
     }
     
     /**
-     * Generates a simulated summary based on the input prompt and settings
+     * Makes one model call attempt, after asking the circuit breaker of the model, which fails
+     * it fast while open. The call is micro-batched with others of the same model and tone
+     * under enrichment.model-batching.enabled, or hedged once it runs past its model's latency
+     * percentile under enrichment.hedging.enabled. Only failures the model reports as retryable
+     * are retried, and only while the tenant's and the global retry budgets allow it. A request
+     * the model rejects, such as with HTTP 400, does not count against its breaker.
+     *
+     * @param previousBackoff delay in milliseconds before this attempt, 0 for the first
      */
-    private String generateSimulatedSummary(String prompt, TenantSettings settings) {
-        String[] lines = prompt.split("\n");
-        StringBuilder summary = new StringBuilder("Summary: ");
-        
-        if (lines.length > 3) {
-            int startLine = lines.length - Math.min(5, lines.length);
-            for (int i = startLine; i < lines.length; i++) {
-                if (lines[i].length() > 10) {
-                    summary.append(lines[i].substring(0, Math.min(lines[i].length(), 30)));
-                    summary.append("... ");
+    private void attempt(String tenantId, String prompt, TenantSettings settings, Map<String, String> context,
+                         Consumer<String> fragmentConsumer, int attempts, long previousBackoff,
+                         CompletableFuture<String> result) {
+        Map<String, String> attemptContext = MdcPropagation.with(context, "attemptNumber", String.valueOf(attempts));
+        String model = settings.getModel();
+        long permit = circuitBreakers.tryAcquirePermission(model);
+        if (permit == CircuitBreaker.NOT_PERMITTED) {
+            MdcPropagation.runWith(attemptContext, () -> log.warn("Circuit breaker is open, not calling the model"));
+            result.completeExceptionally(new ModelUnavailableException(model));
+            return;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<String> call;
+        try {
+            // The model client carries the attempt's MDC into its own callbacks
+            call = MdcPropagation.callWith(attemptContext, () -> {
+                if (fragmentConsumer != null) {
+                    return modelClient.stream(prompt, settings, fragmentConsumer);
+                } else if (modelCallBatcher != null) {
+                    return modelCallBatcher.submit(prompt, settings);
+                } else if (modelCallHedger != null) {
+                    return modelCallHedger.call(model, () -> modelClient.complete(prompt, settings));
                 }
+                return modelClient.complete(prompt, settings);
+            });
+        } catch (RuntimeException e) {
+            // A call that throws instead of failing its future, such as one a full executor rejects,
+            // still reports its outcome to the breaker and completes the result
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((summary, ex) ->
+                MdcPropagation.runWith(attemptContext, () -> {
+                    if (ex == null) {
+                        // Only this attempt's latency, never the backoff before it, teaches the limit
+                        bulkheads.onLatency(tenantId, System.nanoTime() - startNanos);
+                        circuitBreakers.onSuccess(model, permit);
+                        retryBudgets.recordSuccess(tenantId);
+                        tokenUsage.recordCall(tenantId, prompt, summary);
+                        result.complete(summary);
+                        return;
+                    }
+                    
+                    Throwable cause = unwrap(ex);
+                    if (cause instanceof ModelRequestRejectedException) {
+                        // The model was up to answer; a request it rejects says nothing about its health
+                        circuitBreakers.onSuccess(model, permit);
+                    } else {
+                        circuitBreakers.onError(model, permit);
+                    }
+                    log.warn("API call attempt failed: {}", cause.getMessage());
+                    
+                    if (!isRetryable(cause) || attempts >= settings.getRetryAttempts()) {
+                        result.completeExceptionally(cause);
+                        return;
+                    }
+                    
+                    // No point backing off for a retry the open breaker would refuse
+                    if (circuitBreakers.isOpen(model)) {
+                        log.warn("Circuit breaker opened, not retrying");
+                        result.completeExceptionally(new ModelUnavailableException(model));
+                        return;
+                    }
+                    
+                    if (!retryBudgets.tryAcquire(tenantId)) {
+                        log.warn("Retry budget exhausted, not retrying");
+                        result.completeExceptionally(cause);
+                        return;
+                    }
+                    
+                    long backoff = retryBackoff.next(previousBackoff);
+                    schedule(() -> attempt(tenantId, prompt, settings, context, fragmentConsumer, attempts + 1,
+                            backoff, result), backoff, context);
+                }));
+    }
+    
+    /**
+     * Runs the task on the model call executor once the delay has elapsed
+     */
+    private ScheduledFuture<?> schedule(Runnable task, long delayMillis, Map<String, String> context) {
+        Runnable wrapped = MdcPropagation.wrap(context, task);
+        return scheduler.schedule(() -> modelCallExecutor.execute(wrapped), delayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Only failures the model marks retryable are worth another attempt; anything else,
+     * such as a rejected request, would just fail again
+     */
+    private static boolean isRetryable(Throwable cause) {
+        return cause instanceof ModelCallException && ((ModelCallException) cause).isRetryable();
+    }
+    
+    private static RuntimeException unwrap(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new EnrichmentException(cause.getMessage(), cause);
+    }
+    
+    /**
+     * Forwards the fragments of a streamed model call to the requester once it has attached,
+     * holding back those that arrive earlier. Once detached, or after the consumer failed,
+     * fragments are dropped while the call itself runs on and is still cached.
+     */
+    private static final class FragmentRelay implements Consumer<String> {
+        private final Consumer<String> downstream;
+        private List<String> pending = new ArrayList<>();
+        private boolean attached;
+        private boolean detached;
+        private boolean emitted;
+        private boolean failed;
+        
+        FragmentRelay(Consumer<String> downstream) {
+            this.downstream = downstream;
+        }
+        
+        @Override
+        public synchronized void accept(String fragment) {
+            if (detached || failed) {
+                return;
             }
-        } else {
-            summary.append("This is a simulated summary for ").append(settings.getModel());
+            if (!attached) {
+                pending.add(fragment);
+                return;
+            }
+            deliver(fragment);
         }
         
-        // Add variation based on tenant tone
-        if (settings.getTone().equals("formal")) {
-            summary.append("In conclusion, this summarizes the key points.");
-        } else if (settings.getTone().equals("friendly")) {
-            summary.append("Hope this helps you understand the main ideas!");
-        } else if (settings.getTone().equals("technical")) {
-            summary.append("Technical analysis complete. Key findings documented above.");
+        synchronized void attach() {
+            attached = true;
+            for (String fragment : pending) {
+                deliver(fragment);
+            }
+            pending = null;
         }
         
-        return summary.toString();
+        synchronized void detach() {
+            detached = true;
+            pending = null;
+        }
+        
+        /**
+         * Delivers the whole summary if none of it was forwarded as fragments
+         */
+        synchronized void completeWith(String summary) {
+            if (!emitted) {
+                deliver(summary);
+            }
+            detached = true;
+        }
+        
+        private void deliver(String fragment) {
+            if (failed) {
+                return;
+            }
+            try {
+                downstream.accept(fragment);
+                emitted = true;
+            } catch (RuntimeException e) {
+                log.debug("Dropping the rest of the stream: {}", e.getMessage());
+                failed = true;
+            }
+        }
     }
 }
@@ -0,0 +1,163 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.chunk.DocumentChunker;
+import com.deemerge.enrichment.config.LongDocumentProperties;
+import com.deemerge.enrichment.exception.EmptyInputException;
+import com.deemerge.enrichment.exception.EnrichmentException;
+import com.deemerge.enrichment.exception.TenantNotFoundException;
+import com.deemerge.enrichment.exception.TokenLimitExceededException;
+import com.deemerge.enrichment.model.SummaryResponse;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.repository.TenantSettingsRepository;
+import com.deemerge.enrichment.util.MdcPropagation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Summarizes documents over the tenant's token limit by map-reduce: the document is split
+ * into chunks that fit, the chunks are summarized in parallel, and their summaries, one per
+ * line, are summarized in turn, split again while they still do not fit.
+ * <p>
+ * Every chunk goes through {@link EnrichmentService#summarizeAsync}, so chunk summaries are
+ * cached like any other summary. The chunker places boundaries by content, so resubmitting
+ * an edited document only summarizes the chunks around the edit again, plus the levels
+ * above them. At most enrichment.long-document.concurrency chunks of a document are in
+ * flight at once; the model calls themselves still pass through the tenant's bulkhead.
+ */
+@Service
+@Slf4j
+public class LongDocumentSummarizer {
+
+    private static final String SUMMARY_SEPARATOR = "\n";
+
+    private final EnrichmentService enrichmentService;
+    private final TenantSettingsRepository tenantSettingsRepository;
+    private final DocumentChunker chunker;
+    private final LongDocumentProperties properties;
+
+    public LongDocumentSummarizer(EnrichmentService enrichmentService,
+                                  TenantSettingsRepository tenantSettingsRepository,
+                                  DocumentChunker chunker, LongDocumentProperties properties) {
+        this.enrichmentService = enrichmentService;
+        this.tenantSettingsRepository = tenantSettingsRepository;
+        this.chunker = chunker;
+        this.properties = properties;
+    }
+
+    /**
+     * Summarizes a text of any length without blocking the calling thread. A text within the
+     * token limit is summarized in one call. A failing chunk fails the whole document.
+     *
+     * @return future completed with the summary of the whole text
+     */
+    public CompletableFuture<SummaryResponse> summarizeAsync(String tenantId, String inputText) {
+        log.info("Long document summarization request received for tenant");
+
+        if (inputText == null || inputText.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new EmptyInputException());
+        }
+
+        TenantSettings tenantSettings = tenantSettingsRepository.findByTenantId(tenantId).orElse(null);
+        if (tenantSettings == null) {
+            return CompletableFuture.failedFuture(new TenantNotFoundException(tenantId));
+        }
+
+        Map<String, String> context = MdcPropagation.capture();
+        return summarizeLevel(tenantId, inputText, tenantSettings.getMaxTokens(), 0, context)
+                .thenApply(response -> response.toBuilder().inputText(inputText).build());
+    }
+
+    /**
+     * Summarizes the text in one call if it fits, otherwise summarizes its chunks and then
+     * their joined summaries, one level up
+     */
+    private CompletableFuture<SummaryResponse> summarizeLevel(String tenantId, String text, int maxTokens,
+                                                              int level, Map<String, String> context) {
+        List<String> chunks;
+        try {
+            // Splitting stops past the chunk limit, so an oversized document is not split in full
+            chunks = chunker.split(text, maxTokens, properties.getMaxChunks());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (chunks.size() == 1) {
+            return MdcPropagation.callWith(context, () -> enrichmentService.summarizeAsync(tenantId, chunks.get(0)));
+        }
+        if (level >= properties.getMaxLevels()) {
+            log.warn("Summaries still exceed the token limit after {} levels", level);
+            return CompletableFuture.failedFuture(new TokenLimitExceededException(text.length(), maxTokens));
+        }
+        if (chunks.size() > properties.getMaxChunks()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(String.format(
+                    "Document of %d characters has more than the maximum of %d chunks",
+                    text.length(), properties.getMaxChunks())));
+        }
+        MdcPropagation.runWith(context, () ->
+                log.debug("Level {} text of {} characters split into {} chunks", level, text.length(), chunks.size()));
+
+        return summarizeChunks(tenantId, chunks, context).thenCompose(summaries -> summarizeLevel(
+                tenantId, String.join(SUMMARY_SEPARATOR, summaries), maxTokens, level + 1, context));
+    }
+
+    /**
+     * Summarizes the chunks with a bounded number in flight
+     *
+     * @return future completed with the chunk summaries in chunk order
+     */
+    private CompletableFuture<List<String>> summarizeChunks(String tenantId, List<String> chunks,
+                                                            Map<String, String> context) {
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        String[] summaries = new String[chunks.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(chunks.size());
+        int lanes = Math.min(Math.max(1, properties.getConcurrency()), chunks.size());
+        for (int i = 0; i < lanes; i++) {
+            summarizeNext(tenantId, chunks, summaries, next, remaining, result, context);
+        }
+        return result;
+    }
+
+    /**
+     * Summarizes chunks one after another until none is left or one failed, in the same way
+     * as the lanes of a batch
+     */
+    private void summarizeNext(String tenantId, List<String> chunks, String[] summaries, AtomicInteger next,
+                               AtomicInteger remaining, CompletableFuture<List<String>> result,
+                               Map<String, String> context) {
+        int index;
+        while (!result.isDone() && (index = next.getAndIncrement()) < chunks.size()) {
+            int chunk = index;
+            CompletableFuture<SummaryResponse> summary = MdcPropagation.callWith(context,
+                    () -> enrichmentService.summarizeAsync(tenantId, chunks.get(chunk)));
+            summary.whenComplete((response, ex) -> {
+                if (ex != null) {
+                    result.completeExceptionally(unwrap(ex));
+                    return;
+                }
+                summaries[chunk] = response.getSummary();
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(Arrays.asList(summaries));
+                }
+            });
+            if (!summary.isDone()) {
+                summary.whenComplete((response, ex) ->
+                        summarizeNext(tenantId, chunks, summaries, next, remaining, result, context));
+                return;
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new EnrichmentException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,136 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.exception.EnrichmentException;
+import com.deemerge.enrichment.model.TenantSettings;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects concurrent model calls into micro-batches, one open batch per model and tone.
+ * A batch is sent as a single backend call once it holds maxBatchSize prompts, or when
+ * maxWait has passed since its first prompt arrived, whichever comes first. The backend's
+ * results are handed back to the callers in the order their prompts were added.
+ * <p>
+ * The wait timer fires on the scheduler and the backend is expected to return at once,
+ * modelling its latency with timers of its own.
+ */
+@Slf4j
+final class ModelCallBatcher {
+
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Backend backend;
+    private final ConcurrentMap<BatchKey, Batch> openBatches = new ConcurrentHashMap<>();
+
+    ModelCallBatcher(int maxBatchSize, long maxWaitMillis, ScheduledExecutorService scheduler, Backend backend) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.scheduler = scheduler;
+        this.backend = backend;
+    }
+
+    /**
+     * Adds a prompt to the open batch of its model and tone, opening one if needed
+     *
+     * @return the model's output for this prompt, or the failure of the batched call
+     */
+    CompletableFuture<String> submit(String prompt, TenantSettings settings) {
+        BatchKey key = new BatchKey(settings.getModel(), settings.getTone());
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Batch[] full = new Batch[1];
+        openBatches.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new Batch(settings);
+                if (maxBatchSize > 1) {
+                    Batch opened = batch;
+                    opened.timer = scheduler.schedule(() -> flushExpired(k, opened),
+                            maxWaitMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            batch.prompts.add(prompt);
+            batch.results.add(result);
+            if (batch.prompts.size() >= maxBatchSize) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+        // Sent outside of compute(), so the backend never runs under the map's bin lock
+        if (full[0] != null) {
+            if (full[0].timer != null) {
+                full[0].timer.cancel(false);
+            }
+            send(full[0]);
+        }
+        return result;
+    }
+
+    private void flushExpired(BatchKey key, Batch batch) {
+        // Fails when the batch already filled up and was sent
+        if (openBatches.remove(key, batch)) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        List<CompletableFuture<String>> results = batch.results;
+        log.debug("Sending a batch of {} prompts to {}", results.size(), batch.settings.getModel());
+        CompletableFuture<List<String>> call;
+        try {
+            call = backend.call(batch.prompts, batch.settings);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((outputs, ex) -> {
+            if (ex == null && outputs.size() != results.size()) {
+                ex = new EnrichmentException(String.format(
+                        "Batched call returned %d results for %d prompts", outputs.size(), results.size()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                if (ex != null) {
+                    results.get(i).completeExceptionally(ex);
+                } else {
+                    results.get(i).complete(outputs.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * The batched model call. Prompts share the model and tone of the given settings,
+     * and the results must be in the order of the prompts.
+     */
+    @FunctionalInterface
+    interface Backend {
+        CompletableFuture<List<String>> call(List<String> prompts, TenantSettings settings);
+    }
+
+    private record BatchKey(String model, String tone) {
+    }
+
+    /**
+     * Prompts waiting for their batch to be sent. Only modified inside compute() for its key.
+     */
+    private static final class Batch {
+        private final TenantSettings settings;
+        private final List<String> prompts = new ArrayList<>();
+        private final List<CompletableFuture<String>> results = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+
+        Batch(TenantSettings settings) {
+            this.settings = settings;
+        }
+    }
+}
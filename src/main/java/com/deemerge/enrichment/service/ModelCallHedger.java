@@ -0,0 +1,284 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.util.MdcPropagation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Hedges model calls: a call still running once it is slower than the given percentile of
+ * its model's recent calls gets a second, identical call started beside it. Whichever
+ * succeeds first provides the result and the other is cancelled; only when both fail does
+ * the hedged call fail, with the error of the last one.
+ * <p>
+ * Hedges are paid for out of a per-model budget: every call earns maxExtraLoad of a hedge
+ * and starting one spends a whole, so hedges never exceed that fraction of the calls.
+ * Until a model has minSamples recorded latencies it is not hedged at all.
+ */
+@Slf4j
+final class ModelCallHedger {
+
+    private static final int LATENCY_WINDOW = 512;
+    private static final int BUDGET_CAP = 10; // Hedges a quiet model may save up for a burst
+
+    private final double percentile;
+    private final double maxExtraLoad;
+    private final int minSamples;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ModelStats> models = new ConcurrentHashMap<>();
+
+    ModelCallHedger(double percentile, double maxExtraLoad, int minSamples, ScheduledExecutorService scheduler) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        this.percentile = percentile;
+        this.maxExtraLoad = Math.max(0, maxExtraLoad);
+        this.minSamples = Math.max(1, Math.min(LATENCY_WINDOW, minSamples));
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Makes the call, hedging it if it runs past the model's latency percentile
+     *
+     * @param call starts one call to the model; invoked a second time for the hedge, on the
+     *             scheduler thread with the caller's MDC
+     */
+    CompletableFuture<String> call(String model, Supplier<CompletableFuture<String>> call) {
+        ModelStats stats = models.computeIfAbsent(model, m -> new ModelStats());
+        stats.budget.deposit(maxExtraLoad);
+        long hedgeDelayNanos = stats.latencies.percentile(percentile, minSamples);
+
+        Race race = new Race(stats, call, MdcPropagation.capture());
+        race.startLeg();
+        if (hedgeDelayNanos >= 0 && !race.result.isDone()) {
+            race.scheduleHedge(hedgeDelayNanos);
+        }
+        return race.result;
+    }
+
+    /**
+     * Hedges started so far for the model
+     */
+    long hedgeCount(String model) {
+        ModelStats stats = models.get(model);
+        return stats != null ? stats.hedges.get() : 0;
+    }
+
+    /**
+     * Hedges that finished first for the model
+     */
+    long hedgeWinCount(String model) {
+        ModelStats stats = models.get(model);
+        return stats != null ? stats.hedgeWins.get() : 0;
+    }
+
+    /**
+     * One hedged call: the primary leg and possibly a hedge leg
+     */
+    private final class Race {
+        private final ModelStats stats;
+        private final Supplier<CompletableFuture<String>> call;
+        private final Map<String, String> context;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Guarded by lock
+        private final List<CompletableFuture<String>> legs = new ArrayList<>(2);
+        private int running;
+        private boolean finished;
+        private ScheduledFuture<?> hedgeTimer;
+
+        Race(ModelStats stats, Supplier<CompletableFuture<String>> call, Map<String, String> context) {
+            this.stats = stats;
+            this.call = call;
+            this.context = context;
+        }
+
+        void startLeg() {
+            boolean hedge;
+            lock.lock();
+            try {
+                hedge = running > 0 || !legs.isEmpty();
+                running++;
+            } finally {
+                lock.unlock();
+            }
+            long startNanos = System.nanoTime();
+            CompletableFuture<String> leg;
+            try {
+                leg = call.get();
+            } catch (RuntimeException e) {
+                leg = CompletableFuture.failedFuture(e);
+            }
+            boolean lost;
+            lock.lock();
+            try {
+                legs.add(leg);
+                lost = finished;
+            } finally {
+                lock.unlock();
+            }
+            if (lost) {
+                // The other leg won while this one was starting
+                leg.cancel(false);
+            }
+            leg.whenComplete((summary, ex) -> onLegDone(summary, ex, hedge, startNanos));
+        }
+
+        void scheduleHedge(long delayNanos) {
+            // The hedge leg starts on the scheduler thread, which has no MDC of its own
+            ScheduledFuture<?> timer = scheduler.schedule(MdcPropagation.wrap(context, this::hedge),
+                    delayNanos, TimeUnit.NANOSECONDS);
+            lock.lock();
+            try {
+                hedgeTimer = timer;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void hedge() {
+            lock.lock();
+            try {
+                // The primary leg already finished, or failed with nothing left to wait for
+                if (result.isDone() || running == 0) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!stats.budget.tryWithdraw()) {
+                log.debug("Hedge budget exhausted, not hedging the model call");
+                return;
+            }
+            stats.hedges.incrementAndGet();
+            log.debug("Model call slower than its p{}, starting a hedge", Math.round(percentile * 100));
+            startLeg();
+        }
+
+        private void onLegDone(String summary, Throwable ex, boolean hedge, long startNanos) {
+            if (ex instanceof CancellationException) {
+                // Lost the race; how long it would have taken is unknown
+                return;
+            }
+            stats.latencies.record(System.nanoTime() - startNanos);
+
+            List<CompletableFuture<String>> losers;
+            ScheduledFuture<?> timer;
+            lock.lock();
+            try {
+                running--;
+                if (ex != null && running > 0) {
+                    // The other leg may still succeed
+                    return;
+                }
+                losers = new ArrayList<>(legs);
+                timer = hedgeTimer;
+                finished = true;
+            } finally {
+                lock.unlock();
+            }
+
+            // Cancel the losers first, so a caller that sees the result never sees them still running
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            for (CompletableFuture<String> leg : losers) {
+                leg.cancel(false);
+            }
+            boolean won = ex == null ? result.complete(summary) : result.completeExceptionally(ex);
+            if (won && hedge && ex == null) {
+                stats.hedgeWins.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class ModelStats {
+        private final LatencyWindow latencies = new LatencyWindow();
+        private final HedgeBudget budget = new HedgeBudget();
+        private final AtomicLong hedges = new AtomicLong();
+        private final AtomicLong hedgeWins = new AtomicLong();
+    }
+
+    /**
+     * Latencies of a model's most recent calls. Percentiles are computed from a sorted copy,
+     * which is only redone after an eighth of the window has been replaced.
+     */
+    private static final class LatencyWindow {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] samples = new long[LATENCY_WINDOW];
+        private int index;
+        private int count;
+        private int sinceSort;
+        private long[] sorted = new long[0];
+
+        void record(long latencyNanos) {
+            lock.lock();
+            try {
+                samples[index] = latencyNanos;
+                index = (index + 1) % samples.length;
+                count = Math.min(count + 1, samples.length);
+                sinceSort++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the percentile in nanoseconds, or -1 with fewer than minSamples latencies
+         */
+        long percentile(double percentile, int minSamples) {
+            lock.lock();
+            try {
+                if (count < minSamples) {
+                    return -1;
+                }
+                if (sorted.length != count || sinceSort > LATENCY_WINDOW / 8) {
+                    sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    sinceSort = 0;
+                }
+                return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hedge credit in thousandths of a hedge, capped at {@link #BUDGET_CAP} hedges
+     */
+    private static final class HedgeBudget {
+        private static final long UNIT = 1000;
+
+        private final AtomicLong credit = new AtomicLong();
+
+        void deposit(double hedges) {
+            long amount = Math.round(hedges * UNIT);
+            credit.getAndUpdate(current -> Math.min(BUDGET_CAP * UNIT, current + amount));
+        }
+
+        boolean tryWithdraw() {
+            long current;
+            do {
+                current = credit.get();
+                if (current < UNIT) {
+                    return false;
+                }
+            } while (!credit.compareAndSet(current, current - UNIT));
+            return true;
+        }
+    }
+}
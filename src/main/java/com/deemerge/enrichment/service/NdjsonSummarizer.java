@@ -0,0 +1,169 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.config.BatchProperties;
+import com.deemerge.enrichment.config.TenantBulkheadRegistry;
+import com.deemerge.enrichment.exception.GlobalExceptionHandler;
+import com.deemerge.enrichment.model.BatchItemResult;
+import com.deemerge.enrichment.model.ResponseMode;
+import com.deemerge.enrichment.model.SummarizationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.deemerge.enrichment.util.MdcPropagation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Summarizes a newline-delimited JSON stream of {"input_text": ...} items, writing one
+ * NDJSON {@link BatchItemResult} per item as soon as it completes, so results may come
+ * out of order and carry the item's index.
+ * <p>
+ * The input is parsed one item at a time and at most enrichment.batch.stream-window items
+ * are in flight. While the window is full no more input is read, so a fast client is held
+ * back by TCP flow control, and a slow reader of the output holds back the input the same
+ * way. Memory stays bounded by the window whatever the size of the stream. The window never
+ * exceeds what the tenant's bulkhead can hold in flight and queued, so a stream is paced by
+ * the tenant's limit instead of having its items rejected as TENANT_OVERLOADED.
+ * <p>
+ * All reading and writing happens on the calling thread; model call threads only hand
+ * their results over through a queue and never block on the client.
+ */
+@Service
+@Slf4j
+public class NdjsonSummarizer {
+
+    private static final byte NEWLINE = '\n';
+
+    private final EnrichmentService enrichmentService;
+    private final TenantBulkheadRegistry bulkheads;
+    private final ObjectReader itemReader;
+    private final ObjectWriter resultWriter;
+    private final int window;
+
+    public NdjsonSummarizer(EnrichmentService enrichmentService, TenantBulkheadRegistry bulkheads,
+                            ObjectMapper objectMapper, BatchProperties batchProperties) {
+        this.enrichmentService = enrichmentService;
+        this.bulkheads = bulkheads;
+        this.itemReader = objectMapper.readerFor(SummarizationRequest.class);
+        this.resultWriter = objectMapper.writerFor(BatchItemResult.class);
+        this.window = Math.max(1, batchProperties.getStreamWindow());
+    }
+
+    /**
+     * Reads items from the input until it ends and writes their results to the output.
+     * A malformed item is answered with a BAD_REQUEST result and ends the stream after the
+     * items already in flight.
+     *
+     * @param mode how much of each input its result echoes back
+     * @param context MDC context of the request, applied while the stream is processed
+     */
+    public void summarize(String tenantId, InputStream input, OutputStream output, ResponseMode mode,
+                          Map<String, String> context) throws IOException {
+        try (MdcPropagation.Scope ignored = MdcPropagation.open(context)) {
+            log.info("NDJSON summarization stream opened for tenant");
+            int items = process(tenantId, input, output, mode);
+            log.info("NDJSON summarization stream completed with {} items", items);
+        }
+    }
+
+    private int process(String tenantId, InputStream input, OutputStream output, ResponseMode mode)
+            throws IOException {
+        BlockingQueue<BatchItemResult> completed = new LinkedBlockingQueue<>();
+        int index = 0;
+        int inFlight = 0;
+        boolean reading = true;
+
+        try (MappingIterator<SummarizationRequest> items = itemReader.readValues(input)) {
+            while (reading || inFlight > 0) {
+                // Hand out what has completed before reading on
+                inFlight -= drain(completed, output);
+
+                if (reading && inFlight < window(tenantId)) {
+                    try {
+                        if (!items.hasNextValue()) {
+                            reading = false;
+                            continue;
+                        }
+                        SummarizationRequest request = items.nextValue();
+                        submit(tenantId, index++, request != null ? request.getInput_text() : null, mode, completed);
+                        inFlight++;
+                    } catch (JsonProcessingException e) {
+                        log.warn("Malformed NDJSON item {}: {}", index, e.getOriginalMessage());
+                        write(output, BatchItemResult.failure(index, new GlobalExceptionHandler.ErrorResponse(
+                                "BAD_REQUEST", "Malformed item: " + e.getOriginalMessage())));
+                        reading = false;
+                    }
+                } else if (inFlight > 0) {
+                    // The window is full or the input has ended: wait for the next result
+                    write(output, take(completed));
+                    inFlight--;
+                    output.flush();
+                }
+            }
+        }
+        output.flush();
+        return index;
+    }
+
+    /**
+     * The configured window, clamped to the tenant's current bulkhead capacity, which
+     * follows its adaptive limit
+     */
+    private int window(String tenantId) {
+        return Math.max(1, Math.min(window, bulkheads.capacity(tenantId)));
+    }
+
+    private void submit(String tenantId, int index, String inputText, ResponseMode mode,
+                        BlockingQueue<BatchItemResult> completed) {
+        try {
+            enrichmentService.summarizeAsync(tenantId, inputText).whenComplete((response, ex) ->
+                    completed.add(ex == null
+                            ? BatchItemResult.success(index, mode.apply(response))
+                            : BatchItemResult.failure(index, GlobalExceptionHandler.toErrorResponse(unwrap(ex)))));
+        } catch (RuntimeException e) {
+            completed.add(BatchItemResult.failure(index, GlobalExceptionHandler.toErrorResponse(e)));
+        }
+    }
+
+    private int drain(BlockingQueue<BatchItemResult> completed, OutputStream output) throws IOException {
+        int drained = 0;
+        BatchItemResult result;
+        while ((result = completed.poll()) != null) {
+            write(output, result);
+            drained++;
+        }
+        if (drained > 0) {
+            output.flush();
+        }
+        return drained;
+    }
+
+    private void write(OutputStream output, BatchItemResult result) throws IOException {
+        output.write(resultWriter.writeValueAsBytes(result));
+        output.write(NEWLINE);
+    }
+
+    private static BatchItemResult take(BlockingQueue<BatchItemResult> completed) throws IOException {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a summary");
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
@@ -15,4 +15,13 @@ public interface PromptBuilder {
      * @return A complete prompt for the AI model
      */
     String buildSummarizationPrompt(TenantSettings tenantSettings, String inputText);
+
+    /**
+     * Identifies the template used for the tenant's prompts. It is part of the summary
+     * cache key, so summaries produced with an older template are not served again.
+     *
+     * @param tenantSettings The settings specific to the tenant
+     * @return A version string that changes whenever the produced prompt would change
+     */
+    String getTemplateVersion(TenantSettings tenantSettings);
 }
@@ -1,24 +1,58 @@
 package com.deemerge.enrichment.service;
 
+import com.deemerge.enrichment.cache.BoundedConcurrentCache;
 import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.template.PromptTemplate;
+import com.deemerge.enrichment.util.ContentDigest;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
- * Implementation of PromptBuilder that constructs prompts based on tenant settings
+ * Implementation of PromptBuilder that constructs prompts based on tenant settings.
+ * <p>
+ * Prompts are rendered from templates compiled once: the default one, or a tenant's own
+ * from its settings. Templates can use the variables input_text, tone_instructions, tone
+ * and model, and any the tenant defines in its prompt variables; a tenant variable may not
+ * reuse one of the built-in names.
+ * <p>
+ * Compiled tenant templates are kept in a bounded cache, so templates and variables that
+ * were edited many times do not pile up.
  */
 @Service
 public class PromptBuilderImpl implements PromptBuilder {
 
+    static final String INPUT_TEXT = "input_text";
+    static final String TONE_INSTRUCTIONS = "tone_instructions";
+    static final String TONE = "tone";
+    static final String MODEL = "model";
+    private static final Set<String> BUILT_IN_VARIABLES = Set.of(INPUT_TEXT, TONE_INSTRUCTIONS, TONE, MODEL);
+    static final int MAX_CUSTOM_TEMPLATES = 1024;
+
     // Templates for different tones
     private final Map<String, String> toneTemplates = new HashMap<>();
     
-    // Base template for summarization
-    private static final String BASE_TEMPLATE = "Please summarize the following text. %s\n\nText to summarize:\n%s";
+    // Base template for summarization, used by tenants without a template of their own
+    private static final String BASE_TEMPLATE =
+            "Please summarize the following text. {{tone_instructions}}\n\nText to summarize:\n{{input_text}}";
+    
+    // Bump whenever BASE_TEMPLATE or the tone templates change
+    private static final String TEMPLATE_VERSION = "1";
+    
+    private final PromptTemplate baseTemplate = PromptTemplate.compile(BASE_TEMPLATE);
+    
+    // Tenant templates, compiled on first use; an edited template or variable is a new entry
+    private final BoundedConcurrentCache<CustomTemplateKey, CompiledTemplate> customTemplates;
     
     public PromptBuilderImpl() {
+        this(MAX_CUSTOM_TEMPLATES);
+    }
+    
+    PromptBuilderImpl(int maxCustomTemplates) {
+        this.customTemplates = new BoundedConcurrentCache<>(maxCustomTemplates);
         // Initialize tone templates
         toneTemplates.put("formal", "Use a professional and formal tone in your response.");
         toneTemplates.put("friendly", "Use a casual and conversational tone in your response.");
@@ -29,8 +63,79 @@ public class PromptBuilderImpl implements PromptBuilder {
     public String buildSummarizationPrompt(TenantSettings tenantSettings, String inputText) {
         // Get the appropriate tone instructions or default to empty string
         String toneInstructions = toneTemplates.getOrDefault(tenantSettings.getTone(), "");
+        Map<String, String> tenantVariables = tenantVariables(tenantSettings);
         
         // Build the complete prompt
-        return String.format(BASE_TEMPLATE, toneInstructions, inputText);
+        return template(tenantSettings).render(name -> switch (name) {
+            case INPUT_TEXT -> inputText;
+            case TONE_INSTRUCTIONS -> toneInstructions;
+            case TONE -> String.valueOf(tenantSettings.getTone());
+            case MODEL -> String.valueOf(tenantSettings.getModel());
+            default -> tenantVariables.get(name);
+        });
+    }
+    
+    @Override
+    public String getTemplateVersion(TenantSettings tenantSettings) {
+        if (tenantSettings.getPromptTemplate() == null) {
+            return TEMPLATE_VERSION;
+        }
+        return compiled(tenantSettings).version();
+    }
+    
+    private PromptTemplate template(TenantSettings tenantSettings) {
+        return tenantSettings.getPromptTemplate() == null ? baseTemplate : compiled(tenantSettings).template();
+    }
+    
+    /**
+     * Compiles a tenant's template the first time it is seen, checking that every placeholder has
+     * a value and that no tenant variable shadows a built-in one. Two threads may both compile a
+     * new template; they produce the same result.
+     */
+    private CompiledTemplate compiled(TenantSettings tenantSettings) {
+        CustomTemplateKey key = new CustomTemplateKey(tenantSettings.getPromptTemplate(),
+                tenantVariables(tenantSettings));
+        CompiledTemplate compiled = customTemplates.getIfPresent(key);
+        if (compiled == null) {
+            compiled = compile(key);
+            customTemplates.put(key, compiled);
+        }
+        return compiled;
+    }
+    
+    private static CompiledTemplate compile(CustomTemplateKey key) {
+        for (String variable : key.variables().keySet()) {
+            if (BUILT_IN_VARIABLES.contains(variable)) {
+                throw new IllegalArgumentException("Prompt variable '" + variable + "' shadows a built-in variable");
+            }
+        }
+        PromptTemplate template = PromptTemplate.compile(key.source());
+        for (String variable : template.variables()) {
+            if (!BUILT_IN_VARIABLES.contains(variable) && !key.variables().containsKey(variable)) {
+                throw new IllegalArgumentException("Prompt template uses undefined variable '" + variable + "'");
+            }
+        }
+        // The version covers the variables and tone templates too, as they change the prompt as well
+        String digest = ContentDigest.sha256Hex(TEMPLATE_VERSION + '\0' + key.source() + '\0'
+                + new TreeMap<>(key.variables()));
+        return new CompiledTemplate(template, "custom-" + digest.substring(0, 16));
+    }
+    
+    /**
+     * Number of compiled tenant templates currently cached
+     */
+    long customTemplateCount() {
+        customTemplates.cleanUp();
+        return customTemplates.estimatedSize();
+    }
+    
+    private static Map<String, String> tenantVariables(TenantSettings tenantSettings) {
+        return tenantSettings.getPromptVariables() != null ? tenantSettings.getPromptVariables() : Map.of();
+    }
+    
+    private record CustomTemplateKey(String source, Map<String, String> variables) {
+    }
+    
+    private record CompiledTemplate(PromptTemplate template, String version) {
     }
 }
@@ -0,0 +1,122 @@
+package com.deemerge.enrichment.template;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A prompt template compiled once into literal segments and named placeholders, written
+ * {{name}}, and rendered any number of times by filling the placeholders in.
+ * <p>
+ * Rendering collects the segments and placeholder values, then copies them into a result
+ * sized from their total length (String.join does so on Java 17 and later). Each value, the
+ * input text among them, is copied once, straight into the prompt: there is no format
+ * string to parse per call and no intermediate buffer that grows and is copied again.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String source;
+    // Segments in order; null marks a placeholder, whose name is at the same index in names
+    private final String[] literals;
+    private final String[] names;
+    private final Set<String> variables;
+
+    private PromptTemplate(String source, String[] literals, String[] names, Set<String> variables) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+        this.variables = variables;
+    }
+
+    /**
+     * Parses a template
+     *
+     * @throws IllegalArgumentException if a placeholder is not closed or its name is not an identifier
+     */
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Set<String> variables = new LinkedHashSet<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open + " in prompt template");
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (!isIdentifier(name)) {
+                throw new IllegalArgumentException("Invalid placeholder name '" + name + "' in prompt template");
+            }
+            if (open > position) {
+                literals.add(source.substring(position, open));
+                names.add(null);
+            }
+            literals.add(null);
+            names.add(name);
+            variables.add(name);
+            position = close + CLOSE.length();
+        }
+        if (position < source.length()) {
+            literals.add(source.substring(position));
+            names.add(null);
+        }
+        return new PromptTemplate(source, literals.toArray(new String[0]), names.toArray(new String[0]),
+                Collections.unmodifiableSet(variables));
+    }
+
+    /**
+     * Renders the template
+     *
+     * @param values gives the value of each placeholder by name
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public String render(Function<String, String> values) {
+        String[] parts = new String[literals.length];
+        for (int i = 0; i < parts.length; i++) {
+            if (literals[i] != null) {
+                parts[i] = literals[i];
+                continue;
+            }
+            String value = values.apply(names[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for prompt template variable '" + names[i] + "'");
+            }
+            parts[i] = value;
+        }
+        return String.join("", parts);
+    }
+
+    /**
+     * Names of the placeholders, in order of first use
+     */
+    public Set<String> variables() {
+        return variables;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    private static boolean isIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,253 @@
+package com.deemerge.enrichment.token;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Counts the tokens of a text the way a byte-level BPE tokenizer splits it.
+ * <p>
+ * The text is first cut into pieces: runs of letters, of up to three digits, of other
+ * symbols or of whitespace, each word-like piece taking the single space before it. Each
+ * piece is encoded to UTF-8 bytes, one token per byte, and adjacent tokens are merged by
+ * the vocabulary's merge rules, lowest rank first, until no rule applies.
+ * <p>
+ * The vocabulary is loaded once into an open-addressing table of primitive arrays from
+ * token pairs to merge ranks. Counting walks the text once without copying it and can stop
+ * as soon as a limit is exceeded, so an oversized input is rejected after tokenizing only
+ * its beginning. Instances are immutable and safe to share between threads.
+ */
+public final class BpeTokenizer {
+
+    private static final int BYTE_TOKENS = 256;
+    // Longer pieces are counted in chunks, which bounds the quadratic merge loop
+    private static final int MAX_PIECE_BYTES = 64;
+    private static final long EMPTY = -1;
+
+    private static final int LETTER = 0;
+    private static final int DIGIT = 1;
+    private static final int SPACE = 2;
+    private static final int OTHER = 3;
+    private static final int MAX_DIGITS = 3;
+
+    private final long[] pairs;
+    private final int[] ranks;
+    private final int mask;
+    private final int mergeCount;
+
+    private BpeTokenizer(long[] pairs, int[] ranks, int mergeCount) {
+        this.pairs = pairs;
+        this.ranks = ranks;
+        this.mask = pairs.length - 1;
+        this.mergeCount = mergeCount;
+    }
+
+    /**
+     * Reads a vocabulary of merge rules, one per line in rank order as the ids of the two
+     * tokens merged. Ids below 256 are single bytes; the rule on line n (from 0) makes token
+     * 256 + n. Blank lines and lines starting with # are skipped.
+     *
+     * @throws IllegalArgumentException if a rule is malformed or refers to a later token
+     */
+    public static BpeTokenizer load(InputStream vocabulary) throws IOException {
+        int[] left = new int[1024];
+        int[] right = new int[1024];
+        int count = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(vocabulary, StandardCharsets.US_ASCII));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] ids = line.split("\\s+");
+            if (ids.length != 2) {
+                throw new IllegalArgumentException("Malformed merge rule '" + line + "'");
+            }
+            if (count == left.length) {
+                left = Arrays.copyOf(left, count * 2);
+                right = Arrays.copyOf(right, count * 2);
+            }
+            left[count] = Integer.parseInt(ids[0]);
+            right[count] = Integer.parseInt(ids[1]);
+            if (left[count] < 0 || right[count] < 0 || Math.max(left[count], right[count]) >= BYTE_TOKENS + count) {
+                throw new IllegalArgumentException("Merge rule '" + line + "' refers to an unknown token");
+            }
+            count++;
+        }
+
+        // At most half full, so probes stay short
+        int capacity = Integer.highestOneBit(Math.max(2, count) * 2) * 2;
+        long[] pairs = new long[capacity];
+        int[] ranks = new int[capacity];
+        Arrays.fill(pairs, EMPTY);
+        for (int rank = 0; rank < count; rank++) {
+            long pair = pair(left[rank], right[rank]);
+            int slot = slot(pair, capacity - 1);
+            while (pairs[slot] != EMPTY && pairs[slot] != pair) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (pairs[slot] == EMPTY) {
+                // A repeated rule never applies again, so the first one is kept
+                pairs[slot] = pair;
+                ranks[slot] = rank;
+            }
+        }
+        return new BpeTokenizer(pairs, ranks, count);
+    }
+
+    /**
+     * Loads a vocabulary from the classpath
+     */
+    public static BpeTokenizer fromResource(String name) {
+        try (InputStream in = BpeTokenizer.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Tokenizer vocabulary " + name + " not found");
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tokenizer vocabulary " + name, e);
+        }
+    }
+
+    /**
+     * Number of tokens in the text
+     */
+    public int countTokens(CharSequence text) {
+        return countTokens(text, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Number of tokens in the text, counting no further than needed to tell that it exceeds
+     * the limit
+     *
+     * @return the number of tokens if at most the limit, otherwise some number above it
+     */
+    public int countTokens(CharSequence text, int limit) {
+        int[] symbols = new int[MAX_PIECE_BYTES + 4];
+        int tokens = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length && tokens <= limit) {
+            int size = 0;
+            int c = Character.codePointAt(text, i);
+            // A single space belongs to the word-like piece that follows it
+            if (c == ' ' && i + 1 < length && kind(Character.codePointAt(text, i + 1)) != SPACE) {
+                symbols[size++] = ' ';
+                i++;
+                c = Character.codePointAt(text, i);
+            }
+            int kind = kind(c);
+            int run = 0;
+            while (i < length) {
+                c = Character.codePointAt(text, i);
+                if (kind(c) != kind || (kind == DIGIT && run == MAX_DIGITS)) {
+                    break;
+                }
+                // Whitespace before a word leaves its last space to the word
+                if (kind == SPACE && c == ' ' && run > 0 && i + 1 < length
+                        && kind(Character.codePointAt(text, i + 1)) != SPACE) {
+                    break;
+                }
+                if (size + 4 > MAX_PIECE_BYTES) {
+                    tokens += merge(symbols, size);
+                    size = 0;
+                    if (tokens > limit) {
+                        return tokens;
+                    }
+                }
+                size = appendUtf8(symbols, size, c);
+                i += Character.charCount(c);
+                run++;
+            }
+            tokens += merge(symbols, size);
+        }
+        return tokens;
+    }
+
+    /**
+     * Number of merge rules in the vocabulary
+     */
+    public int mergeCount() {
+        return mergeCount;
+    }
+
+    /**
+     * Applies the merge rules to a piece's byte tokens, returning how many tokens remain
+     */
+    private int merge(int[] symbols, int size) {
+        while (size > 1) {
+            int best = -1;
+            int bestRank = Integer.MAX_VALUE;
+            for (int i = 0; i + 1 < size; i++) {
+                int rank = rank(symbols[i], symbols[i + 1]);
+                if (rank < bestRank) {
+                    bestRank = rank;
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            symbols[best] = BYTE_TOKENS + bestRank;
+            System.arraycopy(symbols, best + 2, symbols, best + 1, size - best - 2);
+            size--;
+        }
+        return size;
+    }
+
+    private int rank(int left, int right) {
+        long pair = pair(left, right);
+        for (int slot = slot(pair, mask); ; slot = (slot + 1) & mask) {
+            long key = pairs[slot];
+            if (key == pair) {
+                return ranks[slot];
+            }
+            if (key == EMPTY) {
+                return Integer.MAX_VALUE;
+            }
+        }
+    }
+
+    private static long pair(int left, int right) {
+        return ((long) left << 32) | right;
+    }
+
+    private static int slot(long pair, int mask) {
+        long h = pair * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int kind(int c) {
+        if (Character.isLetter(c)) {
+            return LETTER;
+        }
+        if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        return Character.isWhitespace(c) ? SPACE : OTHER;
+    }
+
+    private static int appendUtf8(int[] symbols, int size, int c) {
+        if (c < 0x80) {
+            symbols[size++] = c;
+        } else if (c < 0x800) {
+            symbols[size++] = 0xC0 | (c >> 6);
+            symbols[size++] = 0x80 | (c & 0x3F);
+        } else if (c < 0x10000) {
+            symbols[size++] = 0xE0 | (c >> 12);
+            symbols[size++] = 0x80 | ((c >> 6) & 0x3F);
+            symbols[size++] = 0x80 | (c & 0x3F);
+        } else {
+            symbols[size++] = 0xF0 | (c >> 18);
+            symbols[size++] = 0x80 | ((c >> 12) & 0x3F);
+            symbols[size++] = 0x80 | ((c >> 6) & 0x3F);
+            symbols[size++] = 0x80 | (c & 0x3F);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,31 @@
+package com.deemerge.enrichment.token;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the tokens a tenant's model calls have used
+ */
+public final class TokenUsage {
+
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    public void record(int prompt, int completion) {
+        promptTokens.add(prompt);
+        completionTokens.add(completion);
+        calls.increment();
+    }
+
+    public long promptTokens() {
+        return promptTokens.sum();
+    }
+
+    public long completionTokens() {
+        return completionTokens.sum();
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+}
@@ -0,0 +1,62 @@
+package com.deemerge.enrichment.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests of text content. The text is encoded to UTF-8 in small chunks
+ * that are fed straight into the digest, so large inputs are never copied into
+ * a full byte array.
+ */
+public final class ContentDigest {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private ContentDigest() {
+    }
+
+    /**
+     * Returns the lowercase hex SHA-256 digest of the UTF-8 encoding of the text
+     */
+    public static String sha256Hex(CharSequence text) {
+        MessageDigest digest = newSha256();
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        CharBuffer chars = CharBuffer.wrap(text);
+
+        // Encoding only stops early when the chunk is full (errors are replaced)
+        while (encoder.encode(chars, chunk, true).isOverflow()) {
+            drain(chunk, digest);
+        }
+        while (encoder.flush(chunk).isOverflow()) {
+            drain(chunk, digest);
+        }
+        drain(chunk, digest);
+
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static void drain(ByteBuffer chunk, MessageDigest digest) {
+        chunk.flip();
+        digest.update(chunk);
+        chunk.clear();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
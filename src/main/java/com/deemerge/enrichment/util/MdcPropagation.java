@@ -0,0 +1,100 @@
+package com.deemerge.enrichment.util;
+
+import org.slf4j.MDC;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Helpers to carry the logging MDC (tenantId, requestId, model, attemptNumber)
+ * across the thread hops of the asynchronous summarization path
+ */
+public final class MdcPropagation {
+
+    private MdcPropagation() {
+    }
+
+    /**
+     * Captures the MDC of the calling thread, never returning null
+     */
+    public static Map<String, String> capture() {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return context != null ? context : Collections.emptyMap();
+    }
+
+    /**
+     * Returns a copy of the given context with one additional entry
+     */
+    public static Map<String, String> with(Map<String, String> context, String key, String value) {
+        Map<String, String> copy = new HashMap<>(context);
+        copy.put(key, value);
+        return copy;
+    }
+
+    /**
+     * Wraps a task so that it runs with the MDC captured at wrapping time
+     */
+    public static Runnable wrap(Runnable task) {
+        return wrap(capture(), task);
+    }
+
+    /**
+     * Wraps a task so that it runs with the given MDC context
+     */
+    public static Runnable wrap(Map<String, String> context, Runnable task) {
+        return () -> runWith(context, task);
+    }
+
+    /**
+     * Wraps an executor so that every submitted task inherits the submitter's MDC
+     */
+    public static Executor wrap(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+
+    /**
+     * Runs a task with the given MDC context, restoring the previous context afterwards
+     */
+    public static void runWith(Map<String, String> context, Runnable task) {
+        callWith(context, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Computes a value with the given MDC context, restoring the previous context afterwards
+     */
+    public static <T> T callWith(Map<String, String> context, Supplier<T> supplier) {
+        try (Scope ignored = open(context)) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * Applies the given MDC context until the returned scope is closed, which restores the
+     * previous context; for code that throws checked exceptions
+     */
+    public static Scope open(Map<String, String> context) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        MDC.setContextMap(context);
+        return () -> {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        };
+    }
+
+    /**
+     * MDC context applied by {@link #open(Map)}
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,186 @@
+package com.deemerge.enrichment.breaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private AtomicLong ticker;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        ticker = new AtomicLong();
+        // Window of 10 calls, judged after 4, opening at 50% failures for 10 s, closed again by 2 probes
+        breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(10), 2, ticker::get);
+    }
+
+    @Test
+    void onError_BelowMinimumCalls_StaysClosed() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            failCall();
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertPermitted();
+    }
+
+    @Test
+    void onError_AtFailureRateThreshold_OpensAndRejectsCalls() {
+        // Act
+        succeedCall();
+        succeedCall();
+        failCall();
+        failCall();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNotPermitted();
+        assertEquals(1, breaker.rejectedCount());
+        assertEquals(1, breaker.transitionCount(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void onError_OnlyCountsTheMostRecentCalls() {
+        // Arrange: old failures slide out of the window
+        for (int i = 0; i < 3; i++) {
+            failCall();
+        }
+        for (int i = 0; i < 10; i++) {
+            succeedCall();
+        }
+
+        // Act
+        failCall();
+
+        // Assert: only the last failure is among the last ten calls
+        assertEquals(0.1, breaker.failureRate(), 1e-9);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void tryAcquirePermission_AfterOpenDuration_LetsProbesThroughAndClosesOnSuccess() {
+        // Arrange
+        open();
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act & Assert: two probes, then nothing until they report
+        long firstProbe = breaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        long secondProbe = breaker.tryAcquirePermission();
+        assertNotEquals(CircuitBreaker.NOT_PERMITTED, firstProbe);
+        assertNotEquals(CircuitBreaker.NOT_PERMITTED, secondProbe);
+        assertNotPermitted();
+
+        breaker.onSuccess(firstProbe);
+        breaker.onSuccess(secondProbe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.failureRate());
+        assertPermitted();
+    }
+
+    @Test
+    void onError_WhileHalfOpen_OpensAgainForAnotherOpenDuration() {
+        // Arrange
+        open();
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        long probe = breaker.tryAcquirePermission();
+
+        // Act
+        breaker.onError(probe);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        ticker.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertNotPermitted();
+        ticker.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertPermitted();
+        assertEquals(2, breaker.transitionCount(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void onSuccess_OfCallStartedBeforeOpening_DoesNotCountAsProbe() {
+        // Arrange: a slow call is permitted while closed, then the breaker opens and half-opens
+        long slowCall = breaker.tryAcquirePermission();
+        open();
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        long probe = breaker.tryAcquirePermission();
+
+        // Act
+        breaker.onSuccess(slowCall);
+        breaker.onSuccess(probe);
+
+        // Assert: one of two probes succeeded
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    }
+
+    @Test
+    void onError_OfCallStartedBeforeOpening_DoesNotReopenOrCountAfterClosing() {
+        // Arrange
+        long slowCall = breaker.tryAcquirePermission();
+        open();
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        long firstProbe = breaker.tryAcquirePermission();
+
+        // Act & Assert: the stale failure neither reopens the half-open breaker
+        breaker.onError(slowCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        // nor lands in the window of the next closed period
+        breaker.onSuccess(firstProbe);
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        breaker.onError(slowCall);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.failureRate());
+    }
+
+    @Test
+    void addTransitionListener_ReceivesEveryTransition() {
+        // Arrange
+        List<String> transitions = new ArrayList<>();
+        breaker.addTransitionListener((from, to) -> transitions.add(from + "->" + to));
+
+        // Act
+        open();
+        ticker.addAndGet(Duration.ofSeconds(10).toNanos());
+        long firstProbe = breaker.tryAcquirePermission();
+        long secondProbe = breaker.tryAcquirePermission();
+        breaker.onSuccess(firstProbe);
+        breaker.onSuccess(secondProbe);
+
+        // Assert
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            failCall();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void succeedCall() {
+        breaker.onSuccess(breaker.tryAcquirePermission());
+    }
+
+    private void failCall() {
+        breaker.onError(breaker.tryAcquirePermission());
+    }
+
+    private void assertPermitted() {
+        assertNotEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquirePermission());
+    }
+
+    private void assertNotPermitted() {
+        assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,99 @@
+package com.deemerge.enrichment.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(300);
+
+    @Test
+    void onSample_WithFastCallsUnderLoad_RaisesLimitByAboutOnePerRound() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 2.0);
+
+        // Act: one round of ten calls, all in flight together
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(FAST, 10);
+        }
+
+        // Assert
+        assertEquals(10, limit.limit(), "ten increments of 1/limit stay just below the next integer");
+        limit.onSample(FAST, 10);
+        assertEquals(11, limit.limit());
+    }
+
+    @Test
+    void onSample_WhenLimitIsBarelyUsed_KeepsIt() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 2.0);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, 2);
+        }
+
+        // Assert
+        assertEquals(10, limit.limit());
+    }
+
+    @Test
+    void onSample_WhenCallsStaySlow_BacksOff() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.5, 2.0);
+        limit.onSample(FAST, 1);
+
+        // Act: three times the no-load latency, above the tolerance of two, until the average follows
+        int samples = 0;
+        while (limit.limit() == 10 && samples < 20) {
+            limit.onSample(SLOW, 10);
+            samples++;
+        }
+
+        // Assert
+        assertEquals(5, limit.limit());
+        assertTrue(samples > 1, "a single slow call must not cut the limit");
+        assertEquals(FAST, limit.noLoadLatencyNanos());
+    }
+
+    @Test
+    void onSample_WithOccasionalSlowOutliers_KeepsRaisingTheLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.5, 2.0);
+
+        // Act: every twentieth call takes three times as long, like the simulator's optional slow tail
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(i % 20 == 19 ? SLOW : FAST, limit.limit());
+        }
+
+        // Assert
+        assertTrue(limit.limit() > 10, "limit was cut to " + limit.limit());
+    }
+
+    @Test
+    void onSample_WhenModelStaysSlower_FollowsTheNewNoLoadLatency() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 2.0);
+        limit.onSample(FAST, 1);
+
+        // Act: two full windows of slower calls age out the fast one
+        for (int i = 0; i < 2 * AdaptiveConcurrencyLimit.LATENCY_WINDOW; i++) {
+            limit.onSample(SLOW, 1);
+        }
+
+        // Assert
+        assertEquals(SLOW, limit.noLoadLatencyNanos());
+    }
+
+    @Test
+    void constructor_ClampsInitialLimitAndRejectsInvalidSettings() {
+        assertEquals(64, new AdaptiveConcurrencyLimit(100, 1, 64, 0.9, 2.0).limit());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 0, 64, 0.9, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 1, 64, 1.0, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 1, 64, 0.9, 0.5));
+    }
+}
@@ -0,0 +1,119 @@
+package com.deemerge.enrichment.bulkhead;
+
+import com.deemerge.enrichment.exception.TenantOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantBulkheadTest {
+
+    @Test
+    void execute_OverLimit_QueuesAndStartsOnRelease() {
+        // Arrange
+        TenantBulkhead bulkhead = new TenantBulkhead("tenant1", limit(2), 5);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+
+        // Act
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(bulkhead.execute(() -> {
+                started.incrementAndGet();
+                CompletableFuture<String> call = new CompletableFuture<>();
+                calls.add(call);
+                return call;
+            }));
+        }
+
+        // Assert
+        assertEquals(2, started.get());
+        assertEquals(2, bulkhead.inFlight());
+        assertEquals(1, bulkhead.queued());
+
+        calls.get(0).complete("first");
+        assertEquals("first", results.get(0).join());
+        assertEquals(3, started.get());
+        assertEquals(0, bulkhead.queued());
+        assertEquals(2, bulkhead.inFlight());
+    }
+
+    @Test
+    void execute_WhenQueueIsFull_RejectsAtOnce() {
+        // Arrange
+        TenantBulkhead bulkhead = new TenantBulkhead("tenant1", limit(1), 1);
+        bulkhead.execute(CompletableFuture::new);
+        bulkhead.execute(CompletableFuture::new);
+
+        // Act
+        CompletableFuture<String> rejected = bulkhead.execute(CompletableFuture::new);
+
+        // Assert
+        assertTrue(rejected.isDone());
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(TenantOverloadedException.class, exception.getCause());
+        assertEquals(1, bulkhead.rejectedCount());
+    }
+
+    @Test
+    void execute_WhenCallFails_ReleasesItsSlotAndKeepsLimit() {
+        // Arrange
+        TenantBulkhead bulkhead = new TenantBulkhead("tenant1", limit(4), 0);
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> result = bulkhead.execute(() -> call);
+
+        // Act
+        call.completeExceptionally(new IllegalStateException("boom"));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(0, bulkhead.inFlight());
+        assertEquals(4, bulkhead.limit(), "only attempts reported through onLatency teach the limit");
+    }
+
+    @Test
+    void onLatency_WhenLimitRises_StartsQueuedCall() {
+        // Arrange
+        TenantBulkhead bulkhead = new TenantBulkhead("tenant1", limit(1), 1);
+        bulkhead.execute(CompletableFuture::new);
+        AtomicInteger started = new AtomicInteger();
+        bulkhead.execute(() -> {
+            started.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        // Act: the first call reports a fast attempt while it still holds the only slot
+        bulkhead.onLatency(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Assert
+        assertEquals(2, bulkhead.limit());
+        assertEquals(1, started.get());
+        assertEquals(0, bulkhead.queued());
+    }
+
+    @Test
+    void execute_WhenSupplierThrows_FailsTheResultAndReleasesItsSlot() {
+        // Arrange
+        TenantBulkhead bulkhead = new TenantBulkhead("tenant1", limit(1), 0);
+
+        // Act
+        CompletableFuture<String> result = bulkhead.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        // Assert
+        assertThrows(CompletionException.class, result::join);
+        assertEquals(0, bulkhead.inFlight());
+    }
+
+    private static AdaptiveConcurrencyLimit limit(int initialLimit) {
+        return new AdaptiveConcurrencyLimit(initialLimit, 1, 64, 0.5, 2.0);
+    }
+}
@@ -0,0 +1,233 @@
+package com.deemerge.enrichment.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedConcurrentCacheTest {
+
+    @Test
+    void getIfPresent_AfterPut_ReturnsLatestValue() {
+        // Arrange
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(10);
+
+        // Act
+        cache.put("key", "first");
+        cache.put("key", "second");
+
+        // Assert
+        assertEquals("second", cache.getIfPresent("key"));
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    void remove_ExistingKey_ReturnsValueAndRemovesMapping() {
+        // Arrange
+        BoundedConcurrentCache<String, String> cache = new BoundedConcurrentCache<>(10);
+        cache.put("key", "value");
+
+        // Act & Assert
+        assertEquals("value", cache.remove("key"));
+        assertNull(cache.getIfPresent("key"));
+        assertNull(cache.remove("key"));
+    }
+
+    @Test
+    void put_BeyondMaximum_BoundsSize() {
+        // Arrange
+        BoundedConcurrentCache<Integer, Integer> cache = new BoundedConcurrentCache<>(100);
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+
+        // Assert
+        assertEquals(100, cache.estimatedSize());
+    }
+
+    @Test
+    void put_WithOneOffScan_KeepsFrequentlyReadEntries() {
+        // Arrange
+        BoundedConcurrentCache<Integer, Integer> cache = new BoundedConcurrentCache<>(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.getIfPresent(i);
+            }
+        }
+        cache.cleanUp();
+
+        // Act: a scan of keys that are each seen once
+        for (int i = 1_000; i < 1_300; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+
+        // Assert: at most the admission window was given up to the scan
+        int retained = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.getIfPresent(i) != null) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 99, "retained " + retained);
+    }
+
+    @Test
+    void concurrentReadsAndWrites_KeepMappingsConsistentAndBounded() throws Exception {
+        // Arrange
+        BoundedConcurrentCache<Integer, Integer> cache = new BoundedConcurrentCache<>(500);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 4; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 100_000; i++) {
+                    int key = random.nextInt(2_000);
+                    int operation = random.nextInt(10);
+                    if (operation < 7) {
+                        Integer value = cache.getIfPresent(key);
+                        assertTrue(value == null || value == key);
+                    } else if (operation < 9) {
+                        cache.put(key, key);
+                    } else {
+                        cache.remove(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        cache.cleanUp();
+
+        // Assert
+        assertTrue(cache.estimatedSize() <= 500, "size " + cache.estimatedSize());
+    }
+
+    @Test
+    void put_WithWeigher_BoundsTotalWeight() {
+        // Arrange
+        BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(10_000, (key, value) -> value.length());
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "x".repeat(1_000));
+        }
+        cache.put(99, "x".repeat(3_000));
+        cache.cleanUp();
+
+        // Assert
+        assertTrue(cache.weightedSize() <= 10_000, "weight " + cache.weightedSize());
+        assertEquals(3_000, cache.getIfPresent(99).length());
+    }
+
+    @Test
+    void put_WithEntryHeavierThanMaximum_DiscardsOnlyThatEntry() {
+        // Arrange
+        BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(100, (key, value) -> value.length());
+        cache.put(1, "small");
+
+        // Act
+        cache.put(2, "x".repeat(101));
+        cache.cleanUp();
+
+        // Assert
+        assertNull(cache.getIfPresent(2));
+        assertEquals("small", cache.getIfPresent(1));
+        assertEquals(5, cache.weightedSize());
+    }
+
+    @Test
+    void getIfPresent_AfterExpireAfterWrite_ReturnsNullAndCleanUpRemovesEntries() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        BoundedConcurrentCache<Integer, Integer> cache = BoundedConcurrentCache.<Integer, Integer>builder()
+                .maximumWeight(100)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .ticker(ticker::get)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+
+        // Act
+        ticker.addAndGet(Duration.ofMinutes(6).toNanos());
+        cache.put(0, 100);
+        ticker.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        // Assert
+        assertNull(cache.getIfPresent(1));
+        assertEquals(100, cache.getIfPresent(0));
+        cache.cleanUp();
+        assertEquals(1, cache.estimatedSize());
+        assertEquals(9, cache.evictionCount());
+    }
+
+    @Test
+    void getIfPresent_WithExpireAfterAccess_KeepsEntriesThatAreRead() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        BoundedConcurrentCache<Integer, Integer> cache = BoundedConcurrentCache.<Integer, Integer>builder()
+                .maximumWeight(100)
+                .expireAfterAccess(Duration.ofSeconds(30))
+                .ticker(ticker::get)
+                .build();
+        cache.put(1, 1);
+        cache.put(2, 2);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            ticker.addAndGet(Duration.ofSeconds(20).toNanos());
+            cache.getIfPresent(1);
+            cache.cleanUp();
+        }
+
+        // Assert
+        assertEquals(1, cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    void isRefreshDue_AfterRefreshAfterWrite_IsTrueUntilRewritten() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        BoundedConcurrentCache<Integer, Integer> cache = BoundedConcurrentCache.<Integer, Integer>builder()
+                .maximumWeight(100)
+                .refreshAfterWrite(Duration.ofMinutes(5))
+                .ticker(ticker::get)
+                .build();
+        cache.put(1, 1);
+
+        // Act & Assert
+        assertFalse(cache.isRefreshDue(1));
+        ticker.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertTrue(cache.isRefreshDue(1));
+        assertEquals(1, cache.getIfPresent(1));
+        cache.put(1, 2);
+        assertFalse(cache.isRefreshDue(1));
+        assertFalse(cache.isRefreshDue(2));
+    }
+
+    @Test
+    void constructor_WithNonPositiveMaximum_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedConcurrentCache<>(0));
+    }
+}
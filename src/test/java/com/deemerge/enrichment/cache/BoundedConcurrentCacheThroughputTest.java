@@ -0,0 +1,109 @@
+package com.deemerge.enrichment.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Read throughput of {@link BoundedConcurrentCache} from one thread up to twice the core count,
+ * next to an access-ordered LinkedHashMap behind a lock (the previous per-tenant structure).
+ * With one thread per core, on four or more cores, the lock-free cache must read at least as
+ * fast as the locked LRU and at least {@value #MIN_SCALING} times as fast as on one thread.
+ * An uncontended lock is cheap, so on fewer cores the numbers are only logged.
+ * Disabled by default; enable with -Dcache.throughput.benchmark=true.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "cache.throughput.benchmark", matches = "true")
+class BoundedConcurrentCacheThroughputTest {
+
+    private static final int SIZE = 1_000;
+    private static final long WARMUP_MILLIS = 300;
+    private static final long MEASURE_MILLIS = 1_000;
+    private static final double MIN_SCALING = 2.0;
+
+    @Test
+    void readThroughputScalesWithThreads() throws Exception {
+        BoundedConcurrentCache<Integer, Integer> cache = new BoundedConcurrentCache<>(SIZE);
+        Map<Integer, Integer> lockedLru = new LinkedHashMap<>(SIZE, 0.75f, true);
+        for (int i = 0; i < SIZE; i++) {
+            cache.put(i, i);
+            lockedLru.put(i, i);
+        }
+        cache.cleanUp();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double singleThread = 0;
+        double lockFreeAtCores = 0;
+        double lockedAtCores = 0;
+        for (int threads = 1; threads <= cores * 2; threads *= 2) {
+            double lockFree = measure(threads, cache::getIfPresent);
+            double locked = measure(threads, key -> {
+                synchronized (lockedLru) {
+                    return lockedLru.get(key);
+                }
+            });
+            log.info("{} threads: lock-free {} Mops/s, locked LRU {} Mops/s",
+                    threads, String.format("%.1f", lockFree), String.format("%.1f", locked));
+            if (threads == 1) {
+                singleThread = lockFree;
+            }
+            if (threads <= cores) {
+                lockFreeAtCores = lockFree;
+                lockedAtCores = locked;
+            }
+        }
+
+        assumeTrue(cores >= 4, "scaling needs at least four cores, found " + cores);
+        assertTrue(lockFreeAtCores >= lockedAtCores, String.format(
+                "lock-free %.1f Mops/s below locked LRU %.1f Mops/s", lockFreeAtCores, lockedAtCores));
+        assertTrue(lockFreeAtCores >= singleThread * MIN_SCALING, String.format(
+                "lock-free reads reached %.1f Mops/s on %d cores, %.1f on one", lockFreeAtCores, cores, singleThread));
+    }
+
+    private static double measure(int threads, IntFunction<Integer> reader) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        LongAdder operations = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t * 7919;
+            Thread worker = new Thread(() -> {
+                int key = seed % SIZE;
+                while (running.get()) {
+                    for (int i = 0; i < 64; i++) {
+                        reader.apply(key);
+                        key = (key * 31 + 7) % SIZE;
+                    }
+                    if (measuring.get()) {
+                        operations.add(64);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        Thread.sleep(WARMUP_MILLIS);
+        measuring.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(MEASURE_MILLIS);
+        measuring.set(false);
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() / (elapsed / 1e9) / 1e6;
+    }
+}
@@ -0,0 +1,170 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.SummaryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapSummaryStoreTest {
+
+    private static final int SEGMENT_BYTES = 16 * 1024;
+
+    private final OffHeapSummaryStore store = new OffHeapSummaryStore(4 * SEGMENT_BYTES, SEGMENT_BYTES);
+
+    @Test
+    void get_AfterPut_ReturnsEqualSummary() {
+        // Arrange
+        SummaryResponse response = SummaryResponse.builder()
+                .inputText("Größe ☃ text")
+                .summary("Summary: short")
+                .tenantId("tenant1")
+                .timestamp(Instant.parse("2024-05-01T10:15:30.123456789Z"))
+                .build();
+
+        // Act
+        store.put(key("1"), response);
+
+        // Assert
+        assertEquals(response, store.get(key("1")));
+        assertEquals(1, store.size());
+        assertEquals(1, store.hitCount());
+    }
+
+    @Test
+    void get_WithNullFields_ReturnsThemAsNull() {
+        // Arrange
+        SummaryResponse response = SummaryResponse.builder().summary("Summary").build();
+
+        // Act
+        store.put(key("1"), response);
+
+        // Assert
+        assertEquals(response, store.get(key("1")));
+    }
+
+    @Test
+    void get_ForOtherTenantWithSameText_Misses() {
+        // Arrange
+        store.put(key("1"), summary("tenant1 summary"));
+
+        // Act & Assert
+        assertNull(store.get(new SummaryCacheKey("tenant2", "1", "gpt-4", "formal", "1")));
+        assertEquals(1, store.missCount());
+    }
+
+    @Test
+    void put_SameKey_ReplacesSummary() {
+        // Act
+        store.put(key("1"), summary("first"));
+        store.put(key("1"), summary("second"));
+
+        // Assert
+        assertEquals("second", store.get(key("1")).getSummary());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void remove_ExistingKey_RemovesSummary() {
+        // Arrange
+        store.put(key("1"), summary("first"));
+        store.put(key("2"), summary("second"));
+
+        // Act
+        store.remove(key("1"));
+
+        // Assert
+        assertNull(store.get(key("1")));
+        assertEquals("second", store.get(key("2")).getSummary());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void put_BeyondCapacity_EvictsOldestSegmentAndKeepsNewestEntries() {
+        // Act
+        int count = 2_000;
+        for (int i = 0; i < count; i++) {
+            store.put(key(String.valueOf(i)), summary("summary " + i));
+        }
+
+        // Assert
+        assertEquals("summary " + (count - 1), store.get(key(String.valueOf(count - 1))).getSummary());
+        assertNull(store.get(key("0")));
+        assertTrue(store.evictionCount() > 0);
+        assertEquals(count, store.size() + store.evictionCount());
+        assertEquals(4L * SEGMENT_BYTES, store.allocatedBytes());
+    }
+
+    @Test
+    void put_WithEntryLargerThanSegment_IsRejected() {
+        // Act
+        boolean stored = store.put(key("1"), summary("x".repeat(SEGMENT_BYTES)));
+
+        // Assert
+        assertFalse(stored);
+        assertNull(store.get(key("1")));
+    }
+
+    @Test
+    void get_AfterTimeToLive_Misses() {
+        // Arrange
+        AtomicLong ticker = new AtomicLong();
+        OffHeapSummaryStore expiringStore = new OffHeapSummaryStore(
+                4 * SEGMENT_BYTES, SEGMENT_BYTES, Duration.ofMinutes(10), ticker::get);
+        expiringStore.put(key("1"), summary("first"));
+
+        // Act & Assert
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertNotNull(expiringStore.get(key("1")));
+        ticker.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertNull(expiringStore.get(key("1")));
+    }
+
+    @Test
+    void removeTenant_RemovesOnlyThatTenantsSummaries() {
+        // Arrange: "tenant1" is a prefix of "tenant10" but not of its encoded key
+        for (int i = 0; i < 50; i++) {
+            store.put(key(String.valueOf(i)), summary("tenant1 " + i));
+            store.put(new SummaryCacheKey("tenant10", String.valueOf(i), "gpt-4", "formal", "1"), summary("other"));
+        }
+
+        // Act
+        int removed = store.removeTenant("tenant1");
+
+        // Assert
+        assertEquals(50, removed);
+        assertEquals(50, store.size());
+        for (int i = 0; i < 50; i++) {
+            assertNull(store.get(key(String.valueOf(i))));
+            assertNotNull(store.get(new SummaryCacheKey("tenant10", String.valueOf(i), "gpt-4", "formal", "1")));
+        }
+    }
+
+    @Test
+    void clear_RemovesAllSummaries() {
+        // Arrange
+        store.put(key("1"), summary("first"));
+
+        // Act
+        store.clear();
+
+        // Assert
+        assertNull(store.get(key("1")));
+        assertEquals(0, store.size());
+    }
+
+    private static SummaryCacheKey key(String digest) {
+        return new SummaryCacheKey("tenant1", digest, "gpt-4", "formal", "1");
+    }
+
+    private static SummaryResponse summary(String summary) {
+        return SummaryResponse.builder()
+                .summary(summary)
+                .tenantId("tenant1")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
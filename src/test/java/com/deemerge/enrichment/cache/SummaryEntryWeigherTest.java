@@ -0,0 +1,43 @@
+package com.deemerge.enrichment.cache;
+
+import com.deemerge.enrichment.model.SummaryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryEntryWeigherTest {
+
+    private final SummaryEntryWeigher weigher = new SummaryEntryWeigher();
+    private final SummaryCacheKey key = new SummaryCacheKey("tenant1", "digest", "gpt-4", "formal", "1");
+
+    @Test
+    void weigh_GrowsWithTextLength() {
+        // Arrange
+        SummaryResponse shortSummary = response("Summary: ", null);
+        SummaryResponse longSummary = response("Summary: " + "x".repeat(1_000), null);
+
+        // Act & Assert
+        assertTrue(weigher.weigh(key, longSummary) - weigher.weigh(key, shortSummary) >= 2 * 1_000);
+    }
+
+    @Test
+    void weigh_WithoutInputText_IsLighter() {
+        // Arrange
+        SummaryResponse withText = response("Summary", "input text ".repeat(50));
+        SummaryResponse withoutText = response("Summary", null);
+
+        // Act & Assert
+        assertTrue(weigher.weigh(key, withoutText) < weigher.weigh(key, withText));
+    }
+
+    private static SummaryResponse response(String summary, String inputText) {
+        return SummaryResponse.builder()
+                .inputText(inputText)
+                .summary(summary)
+                .tenantId("tenant1")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
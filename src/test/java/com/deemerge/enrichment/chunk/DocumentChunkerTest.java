@@ -0,0 +1,194 @@
+package com.deemerge.enrichment.chunk;
+
+import com.deemerge.enrichment.token.BpeTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentChunkerTest {
+
+    private static final int MAX_TOKENS = 100;
+    private static final String[] WORDS = {"the", "model", "summary", "tenant", "cache", "request", "latency",
+            "document", "chunk", "service", "returns", "keeps", "splits", "quickly", "every", "long"};
+
+    private final BpeTokenizer tokenizer = BpeTokenizer.fromResource("tokenizer/bpe-merges.txt");
+    private final DocumentChunker chunker = new DocumentChunker(tokenizer);
+
+    @Test
+    void split_TextWithinLimit_ReturnsItTrimmed() {
+        // Act & Assert
+        assertEquals(List.of("One sentence. And another."), chunker.split("  One sentence. And another.\n", MAX_TOKENS));
+        assertEquals(List.of(), chunker.split(" \n\t ", MAX_TOKENS));
+    }
+
+    @Test
+    void split_LongText_ChunksFitAndEndOnSentences() {
+        // Arrange
+        String text = document(new Random(1), 80);
+
+        // Act
+        List<String> chunks = chunker.split(text, MAX_TOKENS);
+
+        // Assert
+        assertTrue(chunks.size() > 5);
+        for (String chunk : chunks) {
+            assertTrue(tokenizer.countTokens(chunk) <= MAX_TOKENS, chunk);
+            assertTrue(chunk.endsWith("."), chunk);
+            assertEquals(chunk.strip(), chunk);
+        }
+        // Nothing is lost or reordered
+        assertEquals(normalize(text), normalize(String.join(" ", chunks)));
+    }
+
+    @Test
+    void split_EndsChunkAtParagraphBreak() {
+        // Arrange
+        String paragraph = sentences(new Random(2), 100, 60);
+        String text = paragraph + "\n\nNext paragraph. " + sentences(new Random(3), 100, 60);
+
+        // Act
+        List<String> chunks = chunker.split(text, MAX_TOKENS);
+
+        // Assert
+        assertTrue(chunks.stream().anyMatch(chunk -> paragraph.endsWith(chunk)));
+        assertTrue(chunks.stream().anyMatch(chunk -> chunk.startsWith("Next paragraph.")));
+    }
+
+    @Test
+    void split_AfterEdit_OnlyChunksAroundItChange() {
+        // Arrange
+        Random random = new Random(4);
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            sentences.add(sentence(random));
+        }
+        String original = String.join(" ", sentences);
+        sentences.set(60, "An edited sentence that was not there before.");
+        String edited = String.join(" ", sentences);
+
+        // Act
+        List<String> before = chunker.split(original, MAX_TOKENS);
+        List<String> after = chunker.split(edited, MAX_TOKENS);
+
+        // Assert
+        Set<String> changed = new HashSet<>(after);
+        changed.removeAll(before);
+        assertTrue(after.size() > 10);
+        assertTrue(changed.size() <= 2, "changed chunks: " + changed.size());
+        assertTrue(changed.stream().anyMatch(chunk -> chunk.contains("An edited sentence")));
+    }
+
+    @Test
+    void split_SentenceOverLimit_IsCutBetweenWords() {
+        // Arrange
+        StringBuilder text = new StringBuilder("Short start.");
+        for (int i = 0; i < 200; i++) {
+            text.append(' ').append(WORDS[i % WORDS.length]);
+        }
+
+        // Act
+        List<String> chunks = chunker.split(text.toString(), MAX_TOKENS);
+
+        // Assert
+        assertTrue(chunks.size() > 2);
+        for (String chunk : chunks) {
+            assertTrue(tokenizer.countTokens(chunk) <= MAX_TOKENS, chunk);
+        }
+        assertEquals(normalize(text.toString()), normalize(String.join(" ", chunks)));
+    }
+
+    @Test
+    void split_WordOverLimit_IsCutWithinIt() {
+        // Arrange
+        String word = "\uD83D\uDE00x".repeat(150);
+
+        // Act
+        List<String> chunks = chunker.split(word, MAX_TOKENS);
+
+        // Assert
+        assertTrue(chunks.size() > 1);
+        for (String chunk : chunks) {
+            assertTrue(tokenizer.countTokens(chunk) <= MAX_TOKENS);
+            assertFalse(Character.isLowSurrogate(chunk.charAt(0)));
+        }
+        assertEquals(word, String.join("", chunks));
+    }
+
+    @Test
+    void split_WithChunkLimit_StopsAtTheFirstChunkOverIt() {
+        // Arrange
+        String text = document(new Random(1), 80);
+        List<String> all = chunker.split(text, MAX_TOKENS);
+
+        // Act
+        List<String> limited = chunker.split(text, MAX_TOKENS, 3);
+
+        // Assert: the leading chunks of the full split, one more than the limit
+        assertTrue(all.size() > 4);
+        assertEquals(all.subList(0, 4), limited);
+        assertEquals(all, chunker.split(text, MAX_TOKENS, all.size()));
+    }
+
+    @Test
+    void split_WithChunkLimit_StopsWithinUnpunctuatedText() {
+        // Arrange: one sentence of many words, and one word of many tokens
+        String words = "word ".repeat(200_000);
+        String word = "x".repeat(200_000);
+        List<String> leadingWords = chunker.split("word ".repeat(2_000), MAX_TOKENS);
+        List<String> leadingWord = chunker.split("x".repeat(2_000), MAX_TOKENS);
+
+        // Act
+        List<String> limitedWords = chunker.split(words, MAX_TOKENS, 3);
+        List<String> limitedWord = chunker.split(word, MAX_TOKENS, 3);
+
+        // Assert: the leading chunks of the full split, one more than the limit
+        assertEquals(leadingWords.subList(0, 4), limitedWords);
+        assertEquals(leadingWord.subList(0, 4), limitedWord);
+    }
+
+    @Test
+    void split_WithTinyLimit_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> chunker.split("text", 3));
+    }
+
+    private static String document(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i % 10 == 9 ? "\n\n" : " ").append(sentence(random));
+        }
+        return text.toString();
+    }
+
+    private String sentences(Random random, int maxTokens, int minTokens) {
+        StringBuilder text = new StringBuilder(sentence(random));
+        while (tokenizer.countTokens(text) < minTokens) {
+            String next = text + " " + sentence(random);
+            if (tokenizer.countTokens(next) > maxTokens) {
+                break;
+            }
+            text.setLength(0);
+            text.append(next);
+        }
+        return text.toString();
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sentence = new StringBuilder("Sentence");
+        int words = 4 + random.nextInt(10);
+        for (int i = 0; i < words; i++) {
+            sentence.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append(random.nextInt(1000)).append('.').toString();
+    }
+
+    private static String normalize(String text) {
+        return text.strip().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,174 @@
+package com.deemerge.enrichment.client;
+
+import com.deemerge.enrichment.exception.ModelCallException;
+import com.deemerge.enrichment.exception.ModelRequestRejectedException;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpModelClientTest {
+
+    private static final String PROMPT = "Please summarize the following text with a formal tone...";
+
+    private StubModelServer server;
+    private TenantSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = TenantSettings.builder()
+                .model("gpt-4")
+                .tone("formal")
+                .maxTokens(200)
+                .retryAttempts(3)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void complete_ReturnsTheModelsContent() throws IOException {
+        // Arrange
+        HttpModelClient client = clientFor(startServer(Duration.ZERO, 0), Duration.ofSeconds(5));
+
+        // Act
+        String summary = client.complete(PROMPT, settings).join();
+
+        // Assert
+        assertEquals("Stub summary by gpt-4 of a prompt of " + PROMPT.length() + " characters.", summary);
+    }
+
+    @Test
+    void complete_ManyConcurrentCalls_AllSucceed() throws IOException {
+        // Arrange
+        HttpModelClient client = clientFor(startServer(Duration.ofMillis(50), 0), Duration.ofSeconds(5));
+
+        // Act
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            calls.add(client.complete(PROMPT + i, settings));
+        }
+
+        // Assert
+        for (CompletableFuture<String> call : calls) {
+            assertTrue(call.join().startsWith("Stub summary by gpt-4"));
+        }
+        assertEquals(100, server.requestCount());
+    }
+
+    @Test
+    void complete_WhenTheServerIsOverloaded_FailsRetryably() throws IOException {
+        // Arrange: every call is answered with 503
+        HttpModelClient client = clientFor(startServer(Duration.ZERO, 1.0), Duration.ofSeconds(5));
+
+        // Act
+        ModelCallException exception = failure(client.complete(PROMPT, settings));
+
+        // Assert
+        assertTrue(exception.isRetryable());
+        assertTrue(exception.getMessage().contains("503"));
+    }
+
+    @Test
+    void complete_WhenTheRequestIsRefused_FailsWithoutRetry() throws IOException {
+        // Arrange
+        HttpModelClient client = clientFor(startServer(Duration.ZERO, 0), Duration.ofSeconds(5));
+
+        // Act: the stub refuses a request without prompt content with 400
+        ModelCallException exception = failure(client.complete("", settings));
+
+        // Assert
+        assertFalse(exception.isRetryable());
+        assertInstanceOf(ModelRequestRejectedException.class, exception);
+    }
+
+    @Test
+    void complete_WhenSlowerThanTheRequestTimeout_FailsRetryably() throws IOException {
+        // Arrange
+        HttpModelClient client = clientFor(startServer(Duration.ofSeconds(5), 0), Duration.ofMillis(200));
+
+        // Act
+        ModelCallException exception = failure(client.complete(PROMPT, settings));
+
+        // Assert
+        assertTrue(exception.isRetryable());
+    }
+
+    @Test
+    void complete_WhenTheServerIsDown_FailsRetryably() throws IOException {
+        // Arrange: nothing listens on the port once the server is closed
+        StubModelServer stopped = startServer(Duration.ZERO, 0);
+        HttpModelClient client = clientFor(stopped, Duration.ofSeconds(5));
+        stopped.close();
+
+        // Act
+        ModelCallException exception = failure(client.complete(PROMPT, settings));
+
+        // Assert
+        assertTrue(exception.isRetryable());
+    }
+
+    @Test
+    void stream_PassesTheFragmentsOnInOrder() throws IOException {
+        // Arrange
+        HttpModelClient client = clientFor(startServer(Duration.ofMillis(100), 0), Duration.ofSeconds(5));
+        List<String> fragments = new CopyOnWriteArrayList<>();
+
+        // Act
+        String summary = client.stream(PROMPT, settings, fragments::add).join();
+
+        // Assert
+        assertTrue(fragments.size() > 1);
+        assertEquals(summary, String.join("", fragments));
+        assertTrue(summary.startsWith("Stub summary by gpt-4"));
+    }
+
+    @Test
+    void stream_WhenTheServerIsOverloaded_FailsRetryablyWithoutFragments() throws IOException {
+        // Arrange
+        HttpModelClient client = clientFor(startServer(Duration.ZERO, 1.0), Duration.ofSeconds(5));
+        List<String> fragments = new CopyOnWriteArrayList<>();
+
+        // Act
+        ModelCallException exception = failure(client.stream(PROMPT, settings, fragments::add));
+
+        // Assert
+        assertTrue(exception.isRetryable());
+        assertTrue(fragments.isEmpty());
+    }
+
+    private StubModelServer startServer(Duration latency, double errorRate) throws IOException {
+        server = new StubModelServer(0, latency, errorRate);
+        return server;
+    }
+
+    private static HttpModelClient clientFor(StubModelServer server, Duration requestTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        return new HttpModelClient(httpClient, server.baseUri(), null, requestTimeout, new ObjectMapper());
+    }
+
+    private static ModelCallException failure(CompletableFuture<String> call) {
+        CompletionException exception = assertThrows(CompletionException.class, call::join);
+        return assertInstanceOf(ModelCallException.class, exception.getCause());
+    }
+}
@@ -0,0 +1,67 @@
+package com.deemerge.enrichment.client;
+
+import com.deemerge.enrichment.exception.ModelCallException;
+import com.deemerge.enrichment.model.TenantSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedModelClientTest {
+
+    private static final String PROMPT = "Please summarize the following text with a formal tone...";
+
+    private ScheduledExecutorService scheduler;
+    private SimulatedModelClient client;
+    private TenantSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        client = new SimulatedModelClient(scheduler, Runnable::run);
+        settings = TenantSettings.builder()
+                .model("gpt-3.5")
+                .tone("formal")
+                .maxTokens(300)
+                .retryAttempts(3)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void complete_ManyCalls_FailAboutOneInFiveWithRetryableErrors() {
+        // Arrange: the calls share one 500 ms timer window
+        int callCount = 2_000;
+        List<CompletableFuture<String>> calls = new ArrayList<>(callCount);
+
+        // Act
+        for (int i = 0; i < callCount; i++) {
+            calls.add(client.complete(PROMPT, settings));
+        }
+
+        // Assert: 20% of 2000 calls, with a margin of more than six standard deviations
+        int failed = 0;
+        for (CompletableFuture<String> call : calls) {
+            try {
+                assertTrue(call.join().endsWith("In conclusion, this summarizes the key points."));
+            } catch (CompletionException e) {
+                ModelCallException cause = assertInstanceOf(ModelCallException.class, e.getCause());
+                assertTrue(cause.isRetryable());
+                failed++;
+            }
+        }
+        assertTrue(failed >= 300 && failed <= 500, failed + " of " + callCount + " calls failed");
+    }
+}
@@ -0,0 +1,117 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.client.SimulatedModelClient;
+import com.deemerge.enrichment.repository.InMemoryTenantSettingsRepository;
+import com.deemerge.enrichment.service.EnrichmentServiceBuilder;
+import com.deemerge.enrichment.service.EnrichmentServiceImpl;
+import com.deemerge.enrichment.service.PromptBuilderImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Load comparison between the platform and virtual execution modes. Both modes drive the same
+ * number of concurrent blocking summarize() callers, the way request threads do, and report
+ * throughput and latency percentiles. Disabled by default because it runs for several seconds;
+ * enable with -Dexecution.mode.comparison=true on a Java 21+ runtime.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "execution.mode.comparison", matches = "true")
+class ExecutionModeComparisonTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int PLATFORM_REQUEST_THREADS = 200; // Tomcat's default server.tomcat.threads.max
+    private static final String INPUT_TEXT = "The enrichment service summarizes text for tenants.\n"
+            + "It simulates model latency, failures and retries.\n"
+            + "This input is used to compare execution modes.\n";
+
+    @Test
+    void compareBlockingCallersAcrossExecutionModes() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21 or newer");
+
+        Result platform = run(ExecutionMode.PLATFORM);
+        Result virtual = run(ExecutionMode.VIRTUAL);
+
+        log.info("{}", platform);
+        log.info("{}", virtual);
+
+        assertEquals(REQUESTS, platform.succeeded + platform.failed);
+        assertEquals(REQUESTS, virtual.succeeded + virtual.failed);
+    }
+
+    private Result run(ExecutionMode mode) throws Exception {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        ExecutorService modelCallExecutor = mode.newExecutor("model-call-", 8);
+        ExecutorService requestExecutor = mode.newExecutor("request-", PLATFORM_REQUEST_THREADS);
+        InMemoryTenantSettingsRepository repository = new InMemoryTenantSettingsRepository();
+        SummaryCacheProperties cacheProperties = new SummaryCacheProperties();
+        // Every request belongs to one tenant; without this its bulkhead would reject most of them
+        BulkheadProperties bulkheadProperties = new BulkheadProperties();
+        bulkheadProperties.setEnabled(false);
+        EnrichmentServiceImpl service = new EnrichmentServiceBuilder(repository, new PromptBuilderImpl(),
+                new SimulatedModelClient(scheduler, modelCallExecutor),
+                new TenantAwareCacheManager(cacheProperties, repository), scheduler)
+                .cacheProperties(cacheProperties)
+                .bulkheads(new TenantBulkheadRegistry(bulkheadProperties))
+                .modelCallExecutor(modelCallExecutor)
+                .build();
+
+        AtomicInteger failed = new AtomicInteger();
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                futures.add(requestExecutor.submit(() -> {
+                    long requestStart = System.nanoTime();
+                    try {
+                        // Distinct texts, so that every request reaches the model instead of the cache
+                        service.summarize("tenant2", INPUT_TEXT + index);
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - requestStart;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            requestExecutor.shutdownNow();
+            modelCallExecutor.shutdownNow();
+            scheduler.shutdownNow();
+            requestExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(mode, REQUESTS - failed.get(), failed.get(), elapsed,
+                latencies[REQUESTS / 2], latencies[(int) (REQUESTS * 0.99) - 1]);
+    }
+
+    private record Result(ExecutionMode mode, int succeeded, int failed, long elapsedNanos,
+                          long p50Nanos, long p99Nanos) {
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-8s requests=%d ok=%d failed=%d elapsed=%.2fs throughput=%.0f req/s p50=%dms p99=%dms",
+                    mode, succeeded + failed, succeeded, failed, seconds, (succeeded + failed) / seconds,
+                    TimeUnit.NANOSECONDS.toMillis(p50Nanos), TimeUnit.NANOSECONDS.toMillis(p99Nanos));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.deemerge.enrichment.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCircuitBreakerMetricsTest {
+
+    @Test
+    void bindTo_PublishesStateAndTransitionsPerModel() {
+        // Arrange: one failure opens the breaker
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setWindowSize(1);
+        properties.setMinimumCalls(1);
+        ModelCircuitBreakerRegistry breakers = new ModelCircuitBreakerRegistry(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        breakers.onSuccess("gpt-3.5", breakers.tryAcquirePermission("gpt-3.5"));
+
+        // Act
+        new ModelCircuitBreakerMetrics(breakers).bindTo(registry);
+        breakers.onError("gpt-4", breakers.tryAcquirePermission("gpt-4"));
+        breakers.tryAcquirePermission("gpt-4");
+
+        // Assert
+        assertEquals(0.0, registry.get("enrichment.model.circuit.state").tag("model", "gpt-3.5").gauge().value());
+        assertEquals(1.0, registry.get("enrichment.model.circuit.state").tag("model", "gpt-4").gauge().value());
+        assertEquals(1.0, registry.get("enrichment.model.circuit.transitions")
+                .tags("model", "gpt-4", "state", "open").functionCounter().count());
+        assertEquals(1.0, registry.get("enrichment.model.circuit.rejected").tag("model", "gpt-4")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("enrichment.model.circuit.failure.rate").tag("model", "gpt-4")
+                .gauge().value());
+    }
+}
@@ -0,0 +1,51 @@
+package com.deemerge.enrichment.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetRegistryTest {
+
+    @Test
+    void tryAcquire_WhenOneTenantSpentItsBudget_StillAllowsOthers() {
+        // Arrange: one retry per tenant, two overall
+        RetryBudgetRegistry registry = new RetryBudgetRegistry(properties(0, 0.1, 0.2));
+        assertTrue(registry.tryAcquire("tenant1"));
+
+        // Act & Assert
+        assertFalse(registry.tryAcquire("tenant1"));
+        assertTrue(registry.tryAcquire("tenant2"));
+    }
+
+    @Test
+    void tryAcquire_WhenTheGlobalBudgetIsSpent_RefusesEveryTenant() {
+        // Arrange
+        RetryBudgetRegistry registry = new RetryBudgetRegistry(properties(0, 0.1, 0.2));
+        assertTrue(registry.tryAcquire("tenant1"));
+        assertTrue(registry.tryAcquire("tenant2"));
+
+        // Act & Assert
+        assertFalse(registry.tryAcquire("tenant3"));
+    }
+
+    @Test
+    void recordSuccess_EarnsRetries() {
+        // Arrange
+        RetryBudgetRegistry registry = new RetryBudgetRegistry(properties(1, 0, 0));
+        assertFalse(registry.tryAcquire("tenant1"));
+
+        // Act
+        registry.recordSuccess("tenant1");
+
+        // Assert
+        assertTrue(registry.tryAcquire("tenant1"));
+    }
+
+    private static RetryProperties properties(double ratio, double tenantMinPerSecond, double globalMinPerSecond) {
+        RetryProperties properties = new RetryProperties();
+        properties.setBudgetRatio(ratio);
+        properties.setTenantMinRetriesPerSecond(tenantMinPerSecond);
+        properties.setGlobalMinRetriesPerSecond(globalMinPerSecond);
+        return properties;
+    }
+}
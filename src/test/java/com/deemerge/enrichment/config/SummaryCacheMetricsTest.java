@@ -0,0 +1,61 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.cache.SummaryCacheKey;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SummaryCacheMetricsTest {
+
+    private TenantAwareCacheManager cacheManager;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new TenantAwareCacheManager(new SummaryCacheProperties(), tenantId -> Optional.empty());
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void bindTo_RegistersMetersForTenantsSeenBeforeAndAfterBinding() {
+        // Arrange
+        Cache cache = cacheManager.getCache("summaryCache");
+        cache.put(key("tenant1"), "summary");
+
+        // Act
+        new SummaryCacheMetrics(cacheManager).bindTo(registry);
+        cache.get(key("tenant1"));
+        cache.retrieve(key("tenant2"), () -> CompletableFuture.completedFuture("summary")).join();
+
+        // Assert
+        assertEquals(1.0, registry.get("enrichment.cache.gets")
+                .tags("tenant", "tenant1", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("enrichment.cache.hit.ratio").tag("tenant", "tenant1").gauge().value());
+        assertEquals(1.0, registry.get("enrichment.cache.gets")
+                .tags("tenant", "tenant2", "result", "miss").functionCounter().count());
+        FunctionTimer loads = registry.get("enrichment.cache.loads").tag("tenant", "tenant2").functionTimer();
+        assertEquals(1.0, loads.count());
+        assertEquals(1.0, registry.get("enrichment.cache.size").tag("tenant", "tenant2").gauge().value());
+        assertNotNull(registry.get("enrichment.cache.time.saved.per.hit").tag("tenant", "tenant2").timeGauge());
+    }
+
+    @Test
+    void bindTo_WithoutOffHeapTier_RegistersNoOffHeapMeters() {
+        // Act
+        new SummaryCacheMetrics(cacheManager).bindTo(registry);
+
+        // Assert
+        assertNull(registry.find("enrichment.cache.offheap.size").gauge());
+    }
+
+    private static SummaryCacheKey key(String tenantId) {
+        return new SummaryCacheKey(tenantId, "digest", "gpt-4", "neutral", "v1");
+    }
+}
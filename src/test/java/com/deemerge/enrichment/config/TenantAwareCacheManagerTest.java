@@ -0,0 +1,319 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.cache.SummaryCacheKey;
+import com.deemerge.enrichment.cache.SummaryEntryWeigher;
+import com.deemerge.enrichment.cache.TenantCacheStats;
+import com.deemerge.enrichment.model.SummaryResponse;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.repository.FileTenantSettingsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantAwareCacheManagerTest {
+
+    // Every entry used below weighs the same: two-digit texts and values
+    private static final int ENTRY_WEIGHT = new SummaryEntryWeigher().weigh(key("tenant1", "10"), "summary 10");
+
+    private SummaryCacheProperties properties;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SummaryCacheProperties();
+        properties.setDefaultTenantBudgetBytes(3L * ENTRY_WEIGHT);
+        // tenant1 has room for five entries, everyone else uses the default budget
+        TenantSettings tenant1 = TenantSettings.builder().cacheBudgetBytes(5L * ENTRY_WEIGHT).build();
+        cache = new TenantAwareCacheManager(properties,
+                tenantId -> "tenant1".equals(tenantId) ? Optional.of(tenant1) : Optional.empty())
+                .getCache("summaryCache");
+    }
+
+    @Test
+    void put_WithDashedTenantIds_KeepsTenantsApart() {
+        // Act
+        cache.put(key("acme-eu", "1"), "eu summary");
+        cache.put(key("acme", "1"), "global summary");
+
+        // Assert
+        assertEquals("eu summary", cache.get(key("acme-eu", "1"), String.class));
+        assertEquals("global summary", cache.get(key("acme", "1"), String.class));
+    }
+
+    @Test
+    void put_WithNonTenantKey_IsIgnored() {
+        // Act
+        cache.put("tenant1-1", "summary");
+
+        // Assert
+        assertNull(cache.get("tenant1-1"));
+    }
+
+    @Test
+    void getCache_ForSummaryCache_ReturnsTenantAwareCache() {
+        assertInstanceOf(TenantAwareCacheManager.TenantAwareLruCache.class, cache);
+    }
+
+    @Test
+    void put_BeyondTenantBudget_KeepsFrequentlyReadEntriesOfThatTenantOnly() {
+        // Arrange
+        cache.put(key("tenant2", "10"), "summary 10");
+        for (int i = 11; i <= 15; i++) {
+            cache.put(key("tenant1", String.valueOf(i)), "summary " + i);
+        }
+        for (int i = 0; i < 3; i++) {
+            cache.get(key("tenant1", "11"));
+        }
+
+        // Act
+        for (int i = 16; i <= 20; i++) {
+            cache.put(key("tenant1", String.valueOf(i)), "summary " + i);
+        }
+
+        // Assert
+        assertEquals(5, retained("tenant1", 11, 20));
+        assertNotNull(cache.get(key("tenant1", "11")));
+        assertNotNull(cache.get(key("tenant2", "10")));
+    }
+
+    @Test
+    void put_ForTenantWithoutBudget_UsesDefaultBudget() {
+        // Act
+        for (int i = 10; i < 20; i++) {
+            cache.put(key("tenant2", String.valueOf(i)), "summary " + i);
+        }
+
+        // Assert
+        assertEquals(3, retained("tenant2", 10, 19));
+    }
+
+    @Test
+    void put_WithValueLargerThanBudget_DoesNotCacheIt() {
+        // Arrange
+        cache.put(key("tenant2", "10"), "summary 10");
+
+        // Act
+        cache.put(key("tenant2", "11"), "x".repeat(4 * ENTRY_WEIGHT));
+
+        // Assert
+        assertNull(cache.get(key("tenant2", "11")));
+        assertNotNull(cache.get(key("tenant2", "10")));
+    }
+
+    @Test
+    void retrieve_WithConcurrentMisses_InvokesLoaderOnce() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pendingLoad = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> first = cache.retrieve(key("tenant1", "42"), () -> {
+            loads.incrementAndGet();
+            return pendingLoad;
+        });
+        CompletableFuture<String> second = cache.retrieve(key("tenant1", "42"), () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("unexpected");
+        });
+        pendingLoad.complete("summary");
+
+        // Assert
+        assertEquals("summary", first.join());
+        assertEquals("summary", second.join());
+        assertEquals(1, loads.get());
+        assertEquals("summary", cache.get(key("tenant1", "42"), String.class));
+    }
+
+    @Test
+    void retrieve_WhenLoadFails_DoesNotCacheAndAllowsRetry() {
+        // Act
+        CompletableFuture<String> failed = cache.retrieve(key("tenant1", "7"),
+                () -> CompletableFuture.failedFuture(new IllegalStateException("model down")));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertNull(cache.get(key("tenant1", "7")));
+        assertEquals("summary", cache.retrieve(key("tenant1", "7"),
+                () -> CompletableFuture.completedFuture("summary")).join());
+    }
+
+    @Test
+    void getWithValueLoader_OnHit_DoesNotInvokeLoader() {
+        // Arrange
+        cache.put(key("tenant1", "1"), "cached");
+
+        // Act
+        String value = cache.get(key("tenant1", "1"), () -> {
+            throw new AssertionError("loader must not be called");
+        });
+
+        // Assert
+        assertEquals("cached", value);
+    }
+
+    @Test
+    void get_AfterEvictionFromTenantCache_FallsThroughToOffHeapTierAndPromotes() {
+        // Arrange
+        properties.getOffHeap().setEnabled(true);
+        properties.getOffHeap().setCapacityBytes(2 * 1024 * 1024);
+        properties.getOffHeap().setSegmentBytes(1024 * 1024);
+        Cache tieredCache = new TenantAwareCacheManager(properties, tenantId -> Optional.empty())
+                .getCache("summaryCache");
+        for (int i = 10; i < 20; i++) {
+            tieredCache.put(key("tenant2", String.valueOf(i)), summaryResponse("summary " + i));
+        }
+
+        // Act: entry 10 no longer fits the tenant's on-heap budget
+        SummaryResponse evicted = tieredCache.get(key("tenant2", "10"), SummaryResponse.class);
+
+        // Assert
+        assertNotNull(evicted);
+        assertEquals("summary 10", evicted.getSummary());
+        assertEquals("tenant2", evicted.getTenantId());
+    }
+
+    @Test
+    void retrieve_OnEntryDueForRefresh_ServesCachedValueAndReloadsInBackground() {
+        // Arrange
+        properties.setRefreshAfterWrite(Duration.ofNanos(1));
+        Cache refreshingCache = new TenantAwareCacheManager(properties, tenantId -> Optional.empty())
+                .getCache("summaryCache");
+        refreshingCache.put(key("tenant1", "10"), "summary 10");
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pendingRefresh = new CompletableFuture<>();
+
+        // Act
+        String first = refreshingCache.retrieve(key("tenant1", "10"), () -> {
+            loads.incrementAndGet();
+            return pendingRefresh;
+        }).join();
+        String second = refreshingCache.retrieve(key("tenant1", "10"), () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("unexpected");
+        }).join();
+        pendingRefresh.complete("summary 11");
+
+        // Assert
+        assertEquals("summary 10", first);
+        assertEquals("summary 10", second);
+        assertEquals(1, loads.get());
+        assertEquals("summary 11", refreshingCache.get(key("tenant1", "10"), String.class));
+    }
+
+    @Test
+    void get_AfterExpireAfterWrite_ReturnsNull() {
+        // Arrange
+        properties.setExpireAfterWrite(Duration.ofNanos(1));
+        Cache expiringCache = new TenantAwareCacheManager(properties, tenantId -> Optional.empty())
+                .getCache("summaryCache");
+
+        // Act
+        expiringCache.put(key("tenant1", "10"), "summary 10");
+
+        // Assert
+        assertNull(expiringCache.get(key("tenant1", "10")));
+    }
+
+    @Test
+    void retrieve_RecordsHitsMissesAndLoadsPerTenant() {
+        // Arrange
+        TenantAwareCacheManager.TenantAwareLruCache lruCache = (TenantAwareCacheManager.TenantAwareLruCache) cache;
+
+        // Act
+        cache.retrieve(key("tenant1", "10"), () -> CompletableFuture.completedFuture("summary 10")).join();
+        cache.retrieve(key("tenant1", "10"), () -> CompletableFuture.completedFuture("unexpected")).join();
+        cache.get(key("tenant1", "11"));
+        cache.retrieve(key("tenant2", "7"),
+                () -> CompletableFuture.failedFuture(new IllegalStateException("model down")));
+
+        // Assert
+        TenantCacheStats tenant1 = lruCache.stats("tenant1");
+        assertEquals(1, tenant1.hitCount());
+        assertEquals(2, tenant1.missCount());
+        assertEquals(1, tenant1.loadSuccessCount());
+        assertEquals(0, tenant1.loadFailureCount());
+        assertEquals(1, tenant1.size());
+        TenantCacheStats tenant2 = lruCache.stats("tenant2");
+        assertEquals(1, tenant2.missCount());
+        assertEquals(1, tenant2.loadFailureCount());
+        assertEquals(0, tenant2.size());
+    }
+
+    @Test
+    void put_BeyondTenantBudget_CountsEvictions() {
+        // Act
+        for (int i = 10; i < 20; i++) {
+            cache.put(key("tenant2", String.valueOf(i)), "summary " + i);
+        }
+
+        // Assert
+        TenantCacheStats stats = ((TenantAwareCacheManager.TenantAwareLruCache) cache).stats("tenant2");
+        assertEquals(7, stats.evictionCount());
+        assertEquals(3L * ENTRY_WEIGHT, stats.weightedSize());
+    }
+
+    @Test
+    void reload_OfChangedTenantSettings_InvalidatesOnlyThatTenantInBothTiers(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path file = directory.resolve("tenants.yml");
+        Files.writeString(file, tenants(64 * 1024));
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file);
+        properties.getOffHeap().setEnabled(true);
+        properties.getOffHeap().setCapacityBytes(2 * 1024 * 1024);
+        properties.getOffHeap().setSegmentBytes(1024 * 1024);
+        TenantAwareCacheManager cacheManager = new TenantAwareCacheManager(properties, repository);
+        Cache tieredCache = cacheManager.getCache("summaryCache");
+        tieredCache.put(key("tenant1", "10"), summaryResponse("summary 10"));
+        tieredCache.put(key("tenant2", "10"), summaryResponse("summary 10"));
+        tieredCache.get(key("tenant1", "10"));
+
+        // Act: tenant1's budget shrinks
+        Files.writeString(file, tenants(32 * 1024));
+        repository.reload();
+
+        // Assert
+        assertNull(tieredCache.get(key("tenant1", "10")));
+        assertNotNull(tieredCache.get(key("tenant2", "10")));
+        TenantCacheStats stats = ((TenantAwareCacheManager.TenantAwareLruCache) tieredCache).stats("tenant1");
+        assertEquals(32 * 1024, stats.budgetBytes());
+        assertEquals(0, stats.size());
+        assertEquals(1, stats.hitCount(), "statistics carry over to the new cache");
+        assertEquals(1, cacheManager.getOffHeapStore().orElseThrow().size());
+    }
+
+    private int retained(String tenantId, int from, int to) {
+        int retained = 0;
+        for (int i = from; i <= to; i++) {
+            if (cache.get(key(tenantId, String.valueOf(i))) != null) {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    private static String tenants(int tenant1BudgetBytes) {
+        return "tenant1:\n  model: gpt-4\n  tone: formal\n  maxTokens: 300\n  cacheBudgetBytes: " + tenant1BudgetBytes
+                + "\ntenant2:\n  model: gpt-3.5\n  tone: friendly\n  maxTokens: 200\n";
+    }
+
+    private static SummaryResponse summaryResponse(String summary) {
+        return SummaryResponse.builder().summary(summary).tenantId("tenant2").build();
+    }
+
+    private static SummaryCacheKey key(String tenantId, String text) {
+        return new SummaryCacheKey(tenantId, text, "gpt-4", "formal", "1");
+    }
+}
@@ -0,0 +1,33 @@
+package com.deemerge.enrichment.config;
+
+import com.deemerge.enrichment.token.BpeTokenizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenUsageMetricsTest {
+
+    @Test
+    void bindTo_PublishesPromptAndCompletionTokensPerTenant() {
+        // Arrange
+        BpeTokenizer tokenizer = new TokenizerConfig().tokenizer();
+        TokenUsageRegistry tokenUsage = new TokenUsageRegistry(tokenizer);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tokenUsage.recordCall("tenant1", "Summarize this text.", "A summary.");
+
+        // Act
+        new TokenUsageMetrics(tokenUsage).bindTo(registry);
+        tokenUsage.recordCall("tenant1", "Summarize another text.", "Another summary.");
+        tokenUsage.recordCall("tenant2", "Summarize this text.", "A summary.");
+
+        // Assert
+        assertEquals(tokenizer.countTokens("Summarize this text.") + tokenizer.countTokens("Summarize another text."),
+                registry.get("enrichment.model.tokens").tags("tenant", "tenant1", "type", "prompt")
+                        .functionCounter().count());
+        assertEquals(tokenizer.countTokens("A summary."),
+                registry.get("enrichment.model.tokens").tags("tenant", "tenant2", "type", "completion")
+                        .functionCounter().count());
+        assertEquals(2.0, registry.get("enrichment.model.calls").tag("tenant", "tenant1").functionCounter().count());
+    }
+}
@@ -1,9 +1,20 @@
 package com.deemerge.enrichment.controller;
 
 import com.deemerge.enrichment.exception.EmptyInputException;
+import com.deemerge.enrichment.exception.GlobalExceptionHandler;
+import com.deemerge.enrichment.exception.TenantNotFoundException;
+import com.deemerge.enrichment.model.BatchItemResult;
+import com.deemerge.enrichment.model.BatchSummarizationRequest;
+import com.deemerge.enrichment.model.BatchSummaryResponse;
+import com.deemerge.enrichment.model.ResponseMode;
 import com.deemerge.enrichment.model.SummarizationRequest;
 import com.deemerge.enrichment.model.SummaryResponse;
 import com.deemerge.enrichment.service.EnrichmentService;
+import com.deemerge.enrichment.service.LongDocumentSummarizer;
+import com.deemerge.enrichment.service.NdjsonSummarizer;
+import com.deemerge.enrichment.util.ContentDigest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,14 +22,30 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +54,12 @@ class EnrichmentControllerTest {
     @Mock
     private EnrichmentService enrichmentService;
 
+    @Mock
+    private NdjsonSummarizer ndjsonSummarizer;
+
+    @Mock
+    private LongDocumentSummarizer longDocumentSummarizer;
+
     @InjectMocks
     private EnrichmentController enrichmentController;
 
@@ -48,14 +81,14 @@ class EnrichmentControllerTest {
     @Test
     void summarize_ReturnsOkResponseWithSummary() {
         // Arrange
-        when(enrichmentService.summarize(eq(TENANT_ID), anyString()))
-                .thenReturn(mockResponse);
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
                 
         SummarizationRequest request = new SummarizationRequest(INPUT_TEXT);
 
         // Act
         ResponseEntity<SummaryResponse> response = 
-                enrichmentController.summarize(TENANT_ID, request);
+                enrichmentController.summarize(TENANT_ID, "full", request).join();
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -65,6 +98,48 @@ class EnrichmentControllerTest {
         assertEquals(SUMMARY, response.getBody().getSummary());
     }
 
+    @Test
+    void summarize_FullResponse_KeepsItsFieldsWithoutDigest() throws IOException {
+        // Arrange: the service hands over the cache key's digest for lean responses
+        SummaryResponse withDigest = mockResponse.toBuilder().inputDigest(ContentDigest.sha256Hex(INPUT_TEXT)).build();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(withDigest));
+
+        // Act
+        ResponseEntity<SummaryResponse> response =
+                enrichmentController.summarize(TENANT_ID, "full", new SummarizationRequest(INPUT_TEXT)).join();
+
+        // Assert
+        JsonNode json = new ObjectMapper().findAndRegisterModules().valueToTree(response.getBody());
+        List<String> fields = new ArrayList<>();
+        json.fieldNames().forEachRemaining(fields::add);
+        assertEquals(List.of("inputText", "summary", "tenantId", "timestamp"), fields);
+    }
+
+    @Test
+    void summarize_LeanResponse_ReplacesInputTextWithDigest() {
+        // Arrange
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        // Act
+        ResponseEntity<SummaryResponse> response =
+                enrichmentController.summarize(TENANT_ID, "Lean", new SummarizationRequest(INPUT_TEXT)).join();
+
+        // Assert
+        assertNull(response.getBody().getInputText());
+        assertEquals(ContentDigest.sha256Hex(INPUT_TEXT), response.getBody().getInputDigest());
+        assertEquals(INPUT_TEXT.length(), response.getBody().getInputLength());
+        assertEquals(SUMMARY, response.getBody().getSummary());
+    }
+
+    @Test
+    void summarize_WithUnknownResponseMode_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> enrichmentController.summarize(TENANT_ID, "tiny", new SummarizationRequest(INPUT_TEXT)));
+    }
+
     @Test
     void summarize_WithNullInputText_ThrowsEmptyInputException() {
         // Arrange
@@ -73,9 +148,124 @@ class EnrichmentControllerTest {
         // Act & Assert
         Exception exception = org.junit.jupiter.api.Assertions.assertThrows(
             EmptyInputException.class, 
-            () -> enrichmentController.summarize(TENANT_ID, request)
+            () -> enrichmentController.summarize(TENANT_ID, "full", request)
         );
         
         assertEquals("Input text cannot be empty", exception.getMessage());
     }
+
+    @Test
+    void summarizeLong_UsesLongDocumentSummarizer() {
+        // Arrange
+        when(longDocumentSummarizer.summarizeAsync(TENANT_ID, INPUT_TEXT))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        // Act
+        ResponseEntity<SummaryResponse> response =
+                enrichmentController.summarizeLong(TENANT_ID, "full", new SummarizationRequest(INPUT_TEXT)).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(SUMMARY, response.getBody().getSummary());
+    }
+
+    @Test
+    void summarizeBatch_PassesTextsInOrderAndReturnsOkResponse() {
+        // Arrange
+        BatchSummaryResponse batchResponse = BatchSummaryResponse.builder()
+                .tenantId(TENANT_ID)
+                .succeeded(1)
+                .failed(0)
+                .results(List.of(BatchItemResult.success(0, mockResponse)))
+                .build();
+        when(enrichmentService.summarizeBatchAsync(TENANT_ID, Arrays.asList(INPUT_TEXT, null)))
+                .thenReturn(CompletableFuture.completedFuture(batchResponse));
+
+        BatchSummarizationRequest request = new BatchSummarizationRequest(
+                Arrays.asList(new SummarizationRequest(INPUT_TEXT), new SummarizationRequest(null)));
+
+        // Act
+        ResponseEntity<BatchSummaryResponse> response =
+                enrichmentController.summarizeBatch(TENANT_ID, "full", request).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(batchResponse, response.getBody());
+    }
+
+    @Test
+    void summarizeBatch_LeanResponse_LeavesOutInputTexts() {
+        // Arrange
+        BatchSummaryResponse batchResponse = BatchSummaryResponse.builder()
+                .tenantId(TENANT_ID)
+                .succeeded(1)
+                .failed(1)
+                .results(List.of(BatchItemResult.success(0, mockResponse), BatchItemResult.failure(1,
+                        new GlobalExceptionHandler.ErrorResponse("EMPTY_INPUT", "Input text cannot be empty"))))
+                .build();
+        when(enrichmentService.summarizeBatchAsync(eq(TENANT_ID), any()))
+                .thenReturn(CompletableFuture.completedFuture(batchResponse));
+        BatchSummarizationRequest request = new BatchSummarizationRequest(
+                Arrays.asList(new SummarizationRequest(INPUT_TEXT), new SummarizationRequest(null)));
+
+        // Act
+        BatchSummaryResponse response = enrichmentController.summarizeBatch(TENANT_ID, "lean", request).join().getBody();
+
+        // Assert
+        assertNull(response.getResults().get(0).getResult().getInputText());
+        assertEquals(ContentDigest.sha256Hex(INPUT_TEXT), response.getResults().get(0).getResult().getInputDigest());
+        assertEquals("EMPTY_INPUT", response.getResults().get(1).getError().getCode());
+    }
+
+    @Test
+    void summarizeBatch_WithoutItems_ThrowsIllegalArgumentException() {
+        // Arrange
+        BatchSummarizationRequest request = new BatchSummarizationRequest(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> enrichmentController.summarizeBatch(TENANT_ID, "full", request));
+    }
+
+    @Test
+    void summarizeStream_ReturnsEmitterFedByService() {
+        // Arrange
+        when(enrichmentService.summarizeStreamAsync(eq(TENANT_ID), eq(INPUT_TEXT), any()))
+                .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+        // Act
+        SseEmitter emitter = enrichmentController.summarizeStream(TENANT_ID, "full", new SummarizationRequest(INPUT_TEXT));
+
+        // Assert
+        assertNotNull(emitter);
+    }
+
+    @Test
+    void summarizeStream_WithUnknownTenant_ThrowsBeforeStreaming() {
+        // Arrange
+        when(enrichmentService.summarizeStreamAsync(eq(TENANT_ID), eq(INPUT_TEXT), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TenantNotFoundException(TENANT_ID)));
+
+        // Act & Assert
+        assertThrows(TenantNotFoundException.class,
+                () -> enrichmentController.summarizeStream(TENANT_ID, "full", new SummarizationRequest(INPUT_TEXT)));
+    }
+
+    @Test
+    void summarizeNdjson_StreamsBodyThroughNdjsonSummarizer() throws IOException {
+        // Arrange
+        InputStream body = new ByteArrayInputStream(
+                ("{\"input_text\": \"" + INPUT_TEXT + "\"}\n").getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = enrichmentController.summarizeNdjson(TENANT_ID, "full", body);
+        assertNotNull(response.getBody());
+        response.getBody().writeTo(output);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(ndjsonSummarizer).summarize(eq(TENANT_ID), eq(body), eq(output), eq(ResponseMode.FULL), any());
+    }
 }
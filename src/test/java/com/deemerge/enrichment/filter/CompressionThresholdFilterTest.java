@@ -0,0 +1,127 @@
+package com.deemerge.enrichment.filter;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionThresholdFilterTest {
+
+    private static final int MIN_RESPONSE_SIZE = 100;
+
+    private CompressionThresholdFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        ServerProperties serverProperties = new ServerProperties();
+        serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(MIN_RESPONSE_SIZE));
+        filter = new CompressionThresholdFilter(serverProperties);
+        request = new MockHttpServletRequest("POST", "/api/v1/enrichment/summarize");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void doFilter_SmallJsonBody_IsSentWithItsLength() throws ServletException, IOException {
+        // Arrange
+        String body = "{\"summary\":\"short\"}";
+
+        // Act: Jackson flushes after writing
+        filter.doFilter(request, response, writing(MediaType.APPLICATION_JSON_VALUE, body));
+
+        // Assert
+        assertEquals(body.length(), response.getContentLength());
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_LargeJsonBody_IsStreamedWithoutLength() throws ServletException, IOException {
+        // Arrange
+        String body = "{\"summary\":\"" + "x".repeat(MIN_RESPONSE_SIZE) + "\"}";
+
+        // Act
+        filter.doFilter(request, response, writing(MediaType.APPLICATION_JSON_VALUE, body));
+
+        // Assert
+        assertEquals(0, response.getContentLength());
+        assertNull(response.getHeader("Content-Length"));
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_StreamedNdjsonLine_IsPassedOnAtItsFlush() throws ServletException, IOException {
+        // Arrange
+        String line = "{\"index\":0}\n";
+        StringBuilder seenAtFlush = new StringBuilder();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream output = res.getOutputStream();
+            output.write(line.getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            seenAtFlush.append(response.getContentAsString());
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(line, seenAtFlush.toString());
+        assertNull(response.getHeader("Content-Length"));
+    }
+
+    @Test
+    void doFilter_WhenAsyncStarted_HoldsBodyUntilAsyncDispatch() throws ServletException, IOException {
+        // Arrange: the initial dispatch starts async processing without writing anything
+        String body = "{\"summary\":\"short\"}";
+        request.setAsyncSupported(true);
+        FilterChain startAsync = (req, res) -> request.startAsync(req, res);
+
+        // Act
+        filter.doFilter(request, response, startAsync);
+        HttpServletResponse asyncResponse = (HttpServletResponse) request.getAsyncContext().getResponse();
+        request.setDispatcherType(DispatcherType.ASYNC);
+        request.setAsyncStarted(false);
+        filter.doFilter(request, asyncResponse, writing(MediaType.APPLICATION_JSON_VALUE, body));
+
+        // Assert
+        assertEquals(body.length(), response.getContentLength());
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WithoutGzip_PassesResponseThrough() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest plainRequest = new MockHttpServletRequest("POST", "/api/v1/enrichment/summarize");
+        HttpServletResponse[] seen = new HttpServletResponse[1];
+
+        // Act
+        filter.doFilter(plainRequest, response, (req, res) -> seen[0] = (HttpServletResponse) res);
+
+        // Assert
+        assertSame(response, seen[0]);
+    }
+
+    private static FilterChain writing(String contentType, String body) {
+        return (req, res) -> {
+            res.setContentType(contentType);
+            OutputStream output = res.getOutputStream();
+            output.write(body.getBytes(StandardCharsets.UTF_8));
+            output.flush();
+        };
+    }
+}
@@ -89,6 +89,20 @@ class TenantMdcFilterTest {
         verify(filterChain, never()).doFilter(request, response);
     }
     
+    @Test
+    void shouldPassActuatorRequestsWithoutTenantIdHeader() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/actuator/metrics");
+        when(request.getHeader("X-TENANT-ID")).thenReturn(null);
+        
+        // Act
+        filter.doFilter(request, response, filterChain);
+        
+        // Assert
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        verify(filterChain).doFilter(request, response);
+    }
+    
     @Test
     void shouldClearMdcEvenWhenExceptionOccurs() throws ServletException, IOException {
         // Arrange
@@ -0,0 +1,60 @@
+package com.deemerge.enrichment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms of a load test in microseconds: one over all requests, one per tenant
+ * and one per outcome code, and the response body bytes received. Latencies are recorded by the caller from the time a request was
+ * meant to be sent, so a stalled service also shows in the latencies of the requests that
+ * queued up behind the stall (coordinated omission).
+ */
+final class LatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram overall = newHistogram();
+    private final ConcurrentMap<String, Histogram> byTenant = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> byOutcome = new ConcurrentHashMap<>();
+    private final LongAdder responseBytes = new LongAdder();
+
+    /**
+     * @param outcome the HTTP status, or the kind of failure when there was no response
+     * @param bodyBytes bytes of the response body as received, before any decompression
+     */
+    void record(String tenantId, String outcome, long latencyNanos, long bodyBytes) {
+        responseBytes.add(bodyBytes);
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        overall.recordValue(micros);
+        byTenant.computeIfAbsent(tenantId, t -> newHistogram()).recordValue(micros);
+        byOutcome.computeIfAbsent(outcome, o -> newHistogram()).recordValue(micros);
+    }
+
+    Histogram overall() {
+        return overall;
+    }
+
+    long responseBytes() {
+        return responseBytes.sum();
+    }
+
+    Map<String, Histogram> byTenant() {
+        return new TreeMap<>(byTenant);
+    }
+
+    Map<String, Histogram> byOutcome() {
+        return new TreeMap<>(byOutcome);
+    }
+
+    private static Histogram newHistogram() {
+        // Grows as needed, so no maximum latency has to be guessed up front
+        return new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    }
+}
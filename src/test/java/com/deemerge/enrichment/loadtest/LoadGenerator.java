@@ -0,0 +1,268 @@
+package com.deemerge.enrichment.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for a running instance of the service, sending summarize requests and
+ * reporting their latencies with HdrHistogram.
+ * <p>
+ * In the open loop (--mode=open) requests start at a fixed --rate per second whether or not
+ * earlier ones have completed, like independent users would send them. In the closed loop
+ * (--mode=closed) each of --users sends its next request once the previous one completed;
+ * with --pace each user aims to start one request per pace interval, otherwise right away.
+ * Latency is measured from when a request was meant to start rather than when it did, so
+ * time the service stalled the generator is not left out of the histograms. Only an unpaced
+ * closed loop has no such schedule and reports uncorrected latencies.
+ * <p>
+ * Requests come from a weighted tenant mix and input size distribution, or are replayed from
+ * a JSONL file. Options, all --name=value:
+ * <pre>
+ * --target=http://localhost:8080   service base URL
+ * --mode=open|closed               traffic model (open)
+ * --rate=50                        open loop: requests per second
+ * --users=16                       closed loop: concurrent users
+ * --pace=200ms                     closed loop: target interval between a user's requests
+ * --duration=60s --warmup=10s      measured time, after an unrecorded warm-up
+ * --tenants=tenant1=0.5,tenant2=0.3,tenant3=0.2
+ * --input-sizes=200=0.7,2000=0.25,8000=0.05
+ * --replay=requests.jsonl          lines of {"tenant_id": ..., "input_text": ...} instead
+ * --path=/api/v1/enrichment/summarize/long
+ *                                  endpoint (/api/v1/enrichment/summarize)
+ * --response=full|lean             response mode asked for (full)
+ * --accept-encoding=gzip           sent as Accept-Encoding; response sizes are counted as received
+ * --max-in-flight=10000            open loop: cap on outstanding requests
+ * --timeout=30s                    per request
+ * --seed=1                         random workload seed
+ * --report-dir=target/loadtest     where report.json and overall.hgrm are written
+ * --baseline=old/report.json       report to compare against
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String SUMMARIZE_PATH = "/api/v1/enrichment/summarize";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final URI summarizeUri;
+    private final String acceptEncoding;
+    private final Duration timeout;
+    private final Workload workload;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private volatile long recordFromNanos;
+
+    LoadGenerator(URI target, Duration timeout, Workload workload) {
+        this(target, SUMMARIZE_PATH, null, timeout, workload);
+    }
+
+    /**
+     * @param path endpoint path, with any query
+     * @param acceptEncoding Accept-Encoding header to send, or null for none
+     */
+    LoadGenerator(URI target, String path, String acceptEncoding, Duration timeout, Workload workload) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.summarizeUri = target.resolve(path);
+        this.acceptEncoding = acceptEncoding;
+        this.timeout = timeout;
+        this.workload = workload;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapper();
+        String replay = options.get("replay", null);
+        Workload workload = replay != null
+                ? Workload.replay(Path.of(replay), objectMapper)
+                : Workload.random(options.get("tenants", "tenant1=0.5,tenant2=0.3,tenant3=0.2"),
+                        options.get("input-sizes", "200=0.7,2000=0.25,8000=0.05"), options.getInt("seed", 1));
+
+        String mode = options.get("mode", "open");
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        String response = options.get("response", "full");
+        String path = options.get("path", SUMMARIZE_PATH) + (response.equals("full") ? "" : "?response=" + response);
+        String acceptEncoding = options.get("accept-encoding", null);
+        LoadGenerator generator = new LoadGenerator(URI.create(options.get("target", "http://localhost:8080")),
+                path, acceptEncoding, options.getDuration("timeout", Duration.ofSeconds(30)), workload);
+
+        ObjectNode settings = objectMapper.createObjectNode();
+        settings.put("mode", mode);
+        settings.put("path", path);
+        settings.put("acceptEncoding", acceptEncoding);
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("workload", replay != null ? "replay " + replay
+                : options.get("tenants", "default") + " / " + options.get("input-sizes", "default"));
+
+        System.out.printf("Running %s loop against %s for %s after %s warm-up%n", mode,
+                options.get("target", "http://localhost:8080"), duration, warmup);
+        double elapsedSeconds;
+        if (mode.equals("open")) {
+            double rate = options.getDouble("rate", 50);
+            settings.put("rate", rate);
+            settings.put("coordinatedOmissionCorrected", true);
+            elapsedSeconds = generator.runOpenLoop(rate, options.getInt("max-in-flight", 10_000), warmup, duration);
+        } else if (mode.equals("closed")) {
+            int users = options.getInt("users", 16);
+            Duration pace = options.getDuration("pace", Duration.ZERO);
+            settings.put("users", users);
+            settings.put("paceMillis", pace.toMillis());
+            settings.put("coordinatedOmissionCorrected", !pace.isZero());
+            elapsedSeconds = generator.runClosedLoop(users, pace, warmup, duration);
+        } else {
+            throw new IllegalArgumentException("--mode must be open or closed");
+        }
+
+        LoadReport report = new LoadReport(objectMapper, settings, generator.recorder, elapsedSeconds);
+        Path reportDir = Path.of(options.get("report-dir", "target/loadtest"));
+        report.write(reportDir);
+        report.print(System.out);
+        String baseline = options.get("baseline", null);
+        if (baseline != null) {
+            report.compare(objectMapper.readTree(Path.of(baseline).toFile()), System.out);
+        }
+        System.out.printf("Report written to %s%n", reportDir.resolve("report.json"));
+    }
+
+    /**
+     * Starts requests at the given rate until the run ends, then waits for the outstanding ones
+     *
+     * @return measured seconds
+     */
+    double runOpenLoop(double ratePerSecond, int maxInFlight, Duration warmup, Duration duration)
+            throws InterruptedException {
+        long intervalNanos = Math.max(1, Math.round(1e9 / ratePerSecond));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        recordFromNanos = start + warmup.toNanos();
+        long end = recordFromNanos + duration.toNanos();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Running behind only delays the start; the latency still counts from the intended time
+            inFlight.acquire();
+            send(intended).whenComplete((ignored, ex) -> inFlight.release());
+        }
+        inFlight.acquire(maxInFlight);
+        return duration.toNanos() / 1e9;
+    }
+
+    /**
+     * Runs the users until the run ends, then waits for their last requests
+     *
+     * @return measured seconds
+     */
+    double runClosedLoop(int users, Duration pace, Duration warmup, Duration duration)
+            throws InterruptedException {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch done = new CountDownLatch(users);
+        long start = System.nanoTime();
+        recordFromNanos = start + warmup.toNanos();
+        long end = recordFromNanos + duration.toNanos();
+        try {
+            for (int i = 0; i < users; i++) {
+                // Spread the first requests over one pace interval instead of sending them all at once
+                long first = start + (pace.isZero() ? 0 : pace.toNanos() * i / users);
+                userLoop(first, pace.toNanos(), end, timer, done);
+            }
+            done.await();
+        } finally {
+            timer.shutdownNow();
+        }
+        return duration.toNanos() / 1e9;
+    }
+
+    private void userLoop(long intended, long paceNanos, long end, ScheduledExecutorService timer,
+                          CountDownLatch done) {
+        if (intended >= end) {
+            done.countDown();
+            return;
+        }
+        long delay = intended - System.nanoTime();
+        timer.schedule(() -> {
+            // Unpaced users have no schedule, so their latency counts from the actual start
+            long from = paceNanos > 0 ? intended : System.nanoTime();
+            send(from).whenComplete((ignored, ex) -> {
+                long next = paceNanos > 0 ? intended + paceNanos : System.nanoTime();
+                userLoop(next, paceNanos, end, timer, done);
+            });
+        }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sends the next request of the workload, recording its latency from the given time
+     */
+    CompletableFuture<Void> send(long fromNanos) {
+        Workload.LoadRequest request = workload.next();
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder(summarizeUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-TENANT-ID", request.tenantId())
+                .POST(HttpRequest.BodyPublishers.ofString(body(request)));
+        if (acceptEncoding != null) {
+            httpRequest.header("Accept-Encoding", acceptEncoding);
+        }
+        // The body is only counted; the client does not decompress it
+        LongAdder bodyBytes = new LongAdder();
+        HttpResponse.BodyHandler<Void> countingHandler = HttpResponse.BodyHandlers.ofByteArrayConsumer(
+                bytes -> bytes.ifPresent(chunk -> bodyBytes.add(chunk.length)));
+        return httpClient.sendAsync(httpRequest.build(), countingHandler)
+                .handle((response, ex) -> {
+                    if (fromNanos >= recordFromNanos) {
+                        recorder.record(request.tenantId(), outcome(response, ex), System.nanoTime() - fromNanos,
+                                bodyBytes.sum());
+                    }
+                    return null;
+                });
+    }
+
+    LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    private String body(Workload.LoadRequest request) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("input_text", request.inputText());
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String outcome(HttpResponse<?> response, Throwable ex) {
+        if (ex == null) {
+            return String.valueOf(response.statusCode());
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return cause instanceof IOException ? "io-error" : "error";
+    }
+}
@@ -0,0 +1,146 @@
+package com.deemerge.enrichment.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    private static final long SERVICE_LATENCY_MILLIS = 300;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private URI target;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Answers one request at a time after a fixed latency; tenant3 requests are refused
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/v1/enrichment/summarize", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            boolean refused = "tenant3".equals(exchange.getRequestHeaders().getFirst("X-TENANT-ID"));
+            try {
+                Thread.sleep(refused ? 0 : SERVICE_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(refused ? 429 : 200, -1);
+            exchange.close();
+        });
+        // Answers with as many bytes as the query and Accept-Encoding header add up to
+        server.createContext("/echo", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            String query = exchange.getRequestURI().getQuery();
+            String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] response = new byte[(query != null ? query.length() : 0) + (encoding != null ? encoding.length() : 0)];
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        serverExecutor = Executors.newSingleThreadExecutor();
+        server.setExecutor(serverExecutor);
+        server.start();
+        target = URI.create("http://" + server.getAddress().getAddress().getHostAddress() + ":"
+                + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void runClosedLoop_RecordsEveryRequestByTenantAndOutcome() throws InterruptedException {
+        // Arrange
+        LoadGenerator generator = new LoadGenerator(target, Duration.ofSeconds(5),
+                Workload.random("tenant1=1,tenant3=1", "100", 1));
+
+        // Act
+        generator.runClosedLoop(2, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(2));
+
+        // Assert
+        LatencyRecorder recorder = generator.recorder();
+        long total = recorder.overall().getTotalCount();
+        assertTrue(total > 0);
+        assertEquals(total, recorder.byTenant().get("tenant1").getTotalCount()
+                + recorder.byTenant().get("tenant3").getTotalCount());
+        assertEquals(recorder.byTenant().get("tenant1").getTotalCount(),
+                recorder.byOutcome().get("200").getTotalCount());
+        assertEquals(recorder.byTenant().get("tenant3").getTotalCount(),
+                recorder.byOutcome().get("429").getTotalCount());
+    }
+
+    @Test
+    void runClosedLoop_WhenPacedFasterThanTheService_CountsTheQueueingDelay() throws InterruptedException {
+        // Arrange: one request per 100 ms is intended, but each takes 300 ms
+        LoadGenerator generator = new LoadGenerator(target, Duration.ofSeconds(10),
+                Workload.random("tenant1", "100", 1));
+
+        // Act
+        generator.runClosedLoop(1, Duration.ofMillis(100), Duration.ZERO, Duration.ofSeconds(1));
+
+        // Assert: the tenth request was meant to start at 900 ms and completed after about 3 s
+        long maxMillis = generator.recorder().overall().getMaxValue() / 1000;
+        assertEquals(10, generator.recorder().overall().getTotalCount());
+        assertTrue(maxMillis >= 1500, "queueing delay left out: max " + maxMillis + " ms");
+    }
+
+    @Test
+    void runClosedLoop_WithoutPacing_MeasuresServiceTimeOnly() throws InterruptedException {
+        // Arrange
+        LoadGenerator generator = new LoadGenerator(target, Duration.ofSeconds(10),
+                Workload.random("tenant1", "100", 1));
+
+        // Act
+        generator.runClosedLoop(1, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(1));
+
+        // Assert: the median, as the first request also opens the connection
+        long medianMillis = generator.recorder().overall().getValueAtPercentile(50) / 1000;
+        assertTrue(medianMillis < 2 * SERVICE_LATENCY_MILLIS, "median " + medianMillis + " ms");
+    }
+
+    @Test
+    void runOpenLoop_StartsRequestsAtTheRate() throws InterruptedException {
+        // Arrange: tenant3 is answered at once, so the single-threaded server keeps up
+        LoadGenerator generator = new LoadGenerator(target, Duration.ofSeconds(5),
+                Workload.random("tenant3", "100", 1));
+
+        // Act
+        generator.runOpenLoop(100, 1_000, Duration.ZERO, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(100, generator.recorder().overall().getTotalCount());
+    }
+
+    @Test
+    void send_UsesPathAndAcceptEncodingAndCountsResponseBytes() {
+        // Arrange
+        LoadGenerator generator = new LoadGenerator(target, "/echo?response=lean", "gzip", Duration.ofSeconds(5),
+                Workload.random("tenant1", "100", 1));
+
+        // Act
+        generator.send(System.nanoTime()).join();
+        generator.send(System.nanoTime()).join();
+
+        // Assert: "response=lean" and "gzip" per request
+        assertEquals(2, generator.recorder().overall().getTotalCount());
+        assertEquals(2 * ("response=lean".length() + "gzip".length()), generator.recorder().responseBytes());
+    }
+}
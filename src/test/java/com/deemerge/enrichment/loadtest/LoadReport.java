@@ -0,0 +1,135 @@
+package com.deemerge.enrichment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Report of a load test run: a report.json with the run's settings, throughput, mean response
+ * size and latency percentiles overall, per tenant and per outcome code, and the overall
+ * HdrHistogram percentile distribution in overall.hgrm for plotting. Reports of two builds
+ * are compared by their percentiles.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final ObjectMapper objectMapper;
+    private final ObjectNode report;
+    private final Histogram overall;
+
+    LoadReport(ObjectMapper objectMapper, ObjectNode settings, LatencyRecorder recorder, double elapsedSeconds) {
+        this.objectMapper = objectMapper;
+        this.overall = recorder.overall();
+        this.report = objectMapper.createObjectNode();
+        report.set("settings", settings);
+        report.put("requests", overall.getTotalCount());
+        report.put("elapsedSeconds", round(elapsedSeconds));
+        report.put("throughputPerSecond", round(overall.getTotalCount() / Math.max(elapsedSeconds, 1e-9)));
+        report.put("meanResponseBytes", round((double) recorder.responseBytes() / Math.max(1, overall.getTotalCount())));
+        report.set("overall", summary(overall));
+        ObjectNode tenants = report.putObject("byTenant");
+        recorder.byTenant().forEach((tenantId, histogram) -> tenants.set(tenantId, summary(histogram)));
+        ObjectNode outcomes = report.putObject("byOutcome");
+        recorder.byOutcome().forEach((outcome, histogram) -> outcomes.set(outcome, summary(histogram)));
+    }
+
+    JsonNode json() {
+        return report;
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), report);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("overall.hgrm")))) {
+            // Recorded in microseconds, reported in milliseconds
+            overall.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf("%d requests in %.1fs, %.1f req/s, %.0f response bytes each%n", report.path("requests").asLong(),
+                report.path("elapsedSeconds").asDouble(), report.path("throughputPerSecond").asDouble(),
+                report.path("meanResponseBytes").asDouble());
+        out.printf("%-24s %8s %10s %10s %10s %10s %10s%n", "", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms",
+                "max ms");
+        printRow(out, "overall", report.path("overall"));
+        report.path("byTenant").fields().forEachRemaining(e -> printRow(out, "tenant " + e.getKey(), e.getValue()));
+        report.path("byOutcome").fields().forEachRemaining(e -> printRow(out, "outcome " + e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Prints how this run's percentiles moved against a baseline report, for every row both have
+     */
+    void compare(JsonNode baseline, PrintStream out) {
+        out.printf("%nChange against baseline (negative is faster):%n");
+        out.printf("%-24s %10s %10s %10s %10s%n", "", "p50", "p90", "p99", "p99.9");
+        compareRow(out, "overall", baseline.path("overall"), report.path("overall"));
+        compareSection(out, "tenant ", baseline.path("byTenant"), report.path("byTenant"));
+        compareSection(out, "outcome ", baseline.path("byOutcome"), report.path("byOutcome"));
+        double before = baseline.path("throughputPerSecond").asDouble();
+        out.printf("throughput %+.1f%%%n", change(before, report.path("throughputPerSecond").asDouble()));
+        out.printf("response bytes %+.1f%%%n", change(baseline.path("meanResponseBytes").asDouble(),
+                report.path("meanResponseBytes").asDouble()));
+    }
+
+    private ObjectNode summary(Histogram histogram) {
+        ObjectNode summary = objectMapper.createObjectNode();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("meanMs", round(histogram.getMean() / 1000.0));
+        for (double percentile : PERCENTILES) {
+            summary.put(key(percentile), round(histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        summary.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+        return summary;
+    }
+
+    private static void printRow(PrintStream out, String label, JsonNode summary) {
+        out.printf("%-24s %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n", label, summary.path("count").asLong(),
+                summary.path("p50Ms").asDouble(), summary.path("p90Ms").asDouble(), summary.path("p99Ms").asDouble(),
+                summary.path("p99_9Ms").asDouble(), summary.path("maxMs").asDouble());
+    }
+
+    private static void compareSection(PrintStream out, String prefix, JsonNode before, JsonNode after) {
+        for (Iterator<Map.Entry<String, JsonNode>> it = after.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> row = it.next();
+            if (before.has(row.getKey())) {
+                compareRow(out, prefix + row.getKey(), before.get(row.getKey()), row.getValue());
+            }
+        }
+    }
+
+    private static void compareRow(PrintStream out, String label, JsonNode before, JsonNode after) {
+        StringBuilder row = new StringBuilder(String.format("%-24s", label));
+        for (double percentile : PERCENTILES) {
+            String key = key(percentile);
+            row.append(String.format(" %+9.1f%%", change(before.path(key).asDouble(), after.path(key).asDouble())));
+        }
+        out.println(row);
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static String key(double percentile) {
+        String number = percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace('.', '_');
+        return "p" + number + "Ms";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
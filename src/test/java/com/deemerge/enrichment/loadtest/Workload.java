@@ -0,0 +1,135 @@
+package com.deemerge.enrichment.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The sequence of summarize requests a load test sends: either replayed in order from a
+ * JSONL file, cycling at its end, or drawn at random from a weighted tenant mix and a
+ * weighted distribution of input sizes. Safe to draw from concurrently.
+ */
+final class Workload {
+
+    private static final String[] WORDS = {
+            "the", "quarterly", "report", "shows", "revenue", "growth", "across", "all", "regions",
+            "while", "costs", "stayed", "flat", "and", "the", "team", "expects", "further", "gains"
+    };
+
+    private final List<LoadRequest> replay;
+    private final Weighted<String> tenants;
+    private final Weighted<Integer> inputSizes;
+    private final long seed;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Workload(List<LoadRequest> replay, Weighted<String> tenants, Weighted<Integer> inputSizes, long seed) {
+        this.replay = replay;
+        this.tenants = tenants;
+        this.inputSizes = inputSizes;
+        this.seed = seed;
+    }
+
+    /**
+     * Random requests
+     *
+     * @param tenantMix   weights by tenant, e.g. tenant1=0.7,tenant2=0.3
+     * @param inputSizes  weights by input size in characters, e.g. 200=0.8,4000=0.2
+     */
+    static Workload random(String tenantMix, String inputSizes, long seed) {
+        return new Workload(null, Weighted.parse(tenantMix, Function.identity()),
+                Weighted.parse(inputSizes, Integer::parseInt), seed);
+    }
+
+    /**
+     * Requests replayed from a file holding one {"tenant_id": ..., "input_text": ...} object per line
+     */
+    static Workload replay(Path file, ObjectMapper objectMapper) throws IOException {
+        List<LoadRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                requests.add(new LoadRequest(node.path("tenant_id").asText(), node.path("input_text").asText()));
+            }
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No requests to replay in " + file);
+        }
+        return new Workload(requests, null, null, 0);
+    }
+
+    LoadRequest next() {
+        long n = sequence.getAndIncrement();
+        if (replay != null) {
+            return replay.get((int) (n % replay.size()));
+        }
+        // Seeded per request, so a run draws the same sequence whatever the thread interleaving;
+        // SplittableRandom mixes its seed, so neighbouring seeds still give independent draws
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + n);
+        return new LoadRequest(tenants.pick(random), text(inputSizes.pick(random), n));
+    }
+
+    /**
+     * Text of the given length; the sequence number makes every text distinct, so requests
+     * reach the model instead of being served from the summary cache
+     */
+    static String text(int chars, long sequenceNumber) {
+        StringBuilder text = new StringBuilder(chars + 16);
+        text.append(sequenceNumber).append(' ');
+        for (int i = 0; text.length() < chars; i++) {
+            text.append(WORDS[i % WORDS.length]).append(i % 12 == 11 ? ".\n" : " ");
+        }
+        text.setLength(Math.max(1, chars));
+        return text.toString();
+    }
+
+    record LoadRequest(String tenantId, String inputText) {
+    }
+
+    /**
+     * Values with relative weights, drawn in proportion to them
+     */
+    static final class Weighted<T> {
+        private final List<T> values = new ArrayList<>();
+        private final List<Double> cumulativeWeights = new ArrayList<>();
+        private double totalWeight;
+
+        static <T> Weighted<T> parse(String spec, Function<String, T> parser) {
+            Weighted<T> weighted = new Weighted<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split("=");
+                double weight = parts.length > 1 ? Double.parseDouble(parts[1]) : 1;
+                if (weight <= 0) {
+                    throw new IllegalArgumentException("Weights must be positive: " + entry);
+                }
+                weighted.totalWeight += weight;
+                weighted.values.add(parser.apply(parts[0].trim()));
+                weighted.cumulativeWeights.add(weighted.totalWeight);
+            }
+            return weighted;
+        }
+
+        T pick(SplittableRandom random) {
+            double point = random.nextDouble() * totalWeight;
+            for (int i = 0; i < values.size(); i++) {
+                if (point < cumulativeWeights.get(i)) {
+                    return values.get(i);
+                }
+            }
+            return values.get(values.size() - 1);
+        }
+    }
+}
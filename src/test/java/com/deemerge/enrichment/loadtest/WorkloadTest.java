@@ -0,0 +1,78 @@
+package com.deemerge.enrichment.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadTest {
+
+    @Test
+    void next_DrawsTenantsInProportionToTheirWeights() {
+        // Arrange
+        Workload workload = Workload.random("tenant1=3,tenant2=1", "100", 1);
+
+        // Act
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            counts.merge(workload.next().tenantId(), 1, Integer::sum);
+        }
+
+        // Assert
+        assertEquals(0.75, counts.get("tenant1") / 10_000.0, 0.03);
+        assertEquals(0.25, counts.get("tenant2") / 10_000.0, 0.03);
+    }
+
+    @Test
+    void next_GivesInputsOfTheDrawnSizes() {
+        // Arrange
+        Workload workload = Workload.random("tenant1", "200=1,5000=1", 1);
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            int length = workload.next().inputText().length();
+            assertTrue(length == 200 || length == 5000, "unexpected input size " + length);
+        }
+    }
+
+    @Test
+    void next_WithTheSameSeed_RepeatsTheSequence() {
+        // Arrange
+        Workload first = Workload.random("tenant1=1,tenant2=1,tenant3=1", "100=1,1000=1", 42);
+        Workload second = Workload.random("tenant1=1,tenant2=1,tenant3=1", "100=1,1000=1", 42);
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.next(), second.next());
+        }
+    }
+
+    @Test
+    void replay_SendsTheFileInOrderAndCycles() throws IOException {
+        // Arrange
+        Path file = Files.createTempFile("replay", ".jsonl");
+        Files.write(file, List.of(
+                "{\"tenant_id\": \"tenant1\", \"input_text\": \"first\"}",
+                "",
+                "{\"tenant_id\": \"tenant2\", \"input_text\": \"second\"}"));
+        Workload workload = Workload.replay(file, new ObjectMapper());
+
+        // Act & Assert
+        assertEquals(new Workload.LoadRequest("tenant1", "first"), workload.next());
+        assertEquals(new Workload.LoadRequest("tenant2", "second"), workload.next());
+        assertEquals(new Workload.LoadRequest("tenant1", "first"), workload.next());
+        Files.delete(file);
+    }
+
+    @Test
+    void random_WithANonPositiveWeight_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> Workload.random("tenant1=0", "100", 1));
+    }
+}
@@ -0,0 +1,165 @@
+package com.deemerge.enrichment.repository;
+
+import com.deemerge.enrichment.model.TenantSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTenantSettingsRepositoryTest {
+
+    private static final String TENANTS_YAML = """
+            tenant1:
+              model: gpt-4
+              tone: formal
+              maxTokens: 300
+              retryAttempts: 3
+              promptVariables:
+                audience: executives
+            tenant2:
+              model: gpt-3.5
+              tone: friendly
+              maxTokens: 200
+              retryAttempts: 2
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findByTenantId_ReadsYamlFileAsVersionOne() throws IOException {
+        // Arrange
+        Path file = write("tenants.yml", TENANTS_YAML);
+
+        // Act
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file);
+
+        // Assert
+        TenantSettings tenant1 = repository.findByTenantId("tenant1").orElseThrow();
+        assertEquals("gpt-4", tenant1.getModel());
+        assertEquals(300, tenant1.getMaxTokens());
+        assertEquals("executives", tenant1.getPromptVariables().get("audience"));
+        assertTrue(repository.findByTenantId("tenant3").isEmpty());
+        assertEquals(1, repository.getSnapshot().getVersion());
+    }
+
+    @Test
+    void findByTenantId_ReadsJsonFile() throws IOException {
+        // Arrange
+        Path file = write("tenants.json",
+                "{\"tenant1\": {\"model\": \"gpt-4\", \"tone\": \"formal\", \"maxTokens\": 300}}");
+
+        // Act
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file);
+
+        // Assert
+        assertEquals("gpt-4", repository.findByTenantId("tenant1").orElseThrow().getModel());
+    }
+
+    @Test
+    void reload_WithChangedTenants_PublishesNextVersionAndReportsOnlyThem() throws IOException {
+        // Arrange
+        Path file = write("tenants.yml", TENANTS_YAML);
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file);
+        TenantSettingsSnapshot before = repository.getSnapshot();
+        List<Set<String>> changes = new CopyOnWriteArrayList<>();
+        repository.addChangeListener(changes::add);
+        write("tenants.yml", TENANTS_YAML.replace("friendly", "formal") + """
+                tenant3:
+                  model: gpt-3.5
+                  tone: technical
+                  maxTokens: 250
+                """);
+
+        // Act
+        boolean reloaded = repository.reload();
+
+        // Assert
+        assertTrue(reloaded);
+        assertEquals(2, repository.getSnapshot().getVersion());
+        assertEquals(List.of(Set.of("tenant2", "tenant3")), changes);
+        assertEquals("formal", repository.findByTenantId("tenant2").orElseThrow().getTone());
+        // Earlier snapshots are not modified by a reload
+        assertEquals("friendly", before.find("tenant2").orElseThrow().getTone());
+        assertTrue(before.find("tenant3").isEmpty());
+    }
+
+    @Test
+    void reload_WithoutChanges_KeepsVersion() throws IOException {
+        // Arrange
+        Path file = write("tenants.yml", TENANTS_YAML);
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file);
+        List<Set<String>> changes = new CopyOnWriteArrayList<>();
+        repository.addChangeListener(changes::add);
+
+        // Act
+        boolean reloaded = repository.reload();
+
+        // Assert
+        assertFalse(reloaded);
+        assertEquals(1, repository.getSnapshot().getVersion());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void reload_WithInvalidFile_KeepsCurrentSettings() throws IOException {
+        // Arrange
+        Path file = write("tenants.yml", TENANTS_YAML);
+        FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file);
+
+        // Act & Assert
+        for (String invalid : List.of("", "tenant1:\n  model: gpt-4\n  maxTokenz: 300\n",
+                "tenant1:\n  tone: formal\n  maxTokens: 300\n", "tenant1: [")) {
+            write("tenants.yml", invalid);
+            assertThrows(IllegalArgumentException.class, repository::reload, invalid);
+        }
+        assertEquals(1, repository.getSnapshot().getVersion());
+        assertEquals(300, repository.findByTenantId("tenant1").orElseThrow().getMaxTokens());
+    }
+
+    @Test
+    void constructor_WithTenantWithoutTone_RejectsFile() throws IOException {
+        // Arrange: the tone picks the prompt's tone instructions and the simulator's closing line
+        Path file = write("tenants.yml", "tenant1:\n  model: gpt-4\n  maxTokens: 300\n");
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new FileTenantSettingsRepository(file));
+        assertTrue(exception.getMessage().contains("tenant1 has no tone"), exception.getMessage());
+    }
+
+    @Test
+    void startWatching_FileReplacedByRename_IsReloaded() throws Exception {
+        // Arrange
+        Path file = write("tenants.yml", TENANTS_YAML);
+        LinkedBlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+        try (FileTenantSettingsRepository repository = new FileTenantSettingsRepository(file)) {
+            repository.addChangeListener(changes::add);
+            repository.startWatching(Duration.ofMillis(50));
+
+            // Act
+            Path replacement = write("tenants.yml.tmp", TENANTS_YAML.replace("maxTokens: 300", "maxTokens: 400"));
+            Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // Assert
+            assertEquals(Set.of("tenant1"), changes.poll(10, TimeUnit.SECONDS));
+            assertEquals(400, repository.findByTenantId("tenant1").orElseThrow().getMaxTokens());
+            assertEquals(2, repository.getSnapshot().getVersion());
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
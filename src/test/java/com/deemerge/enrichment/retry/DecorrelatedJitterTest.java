@@ -0,0 +1,57 @@
+package com.deemerge.enrichment.retry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecorrelatedJitterTest {
+
+    @Test
+    void next_StaysBetweenBaseAndThreeTimesThePreviousDelay() {
+        // Arrange
+        DecorrelatedJitter jitter = new DecorrelatedJitter(100, 10_000);
+
+        // Act & Assert
+        long previous = 0;
+        for (int i = 0; i < 1_000; i++) {
+            long next = jitter.next(previous);
+            assertTrue(next >= 100, "below the base delay: " + next);
+            assertTrue(next <= Math.max(100, previous) * 3, "grew more than threefold: " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void next_NeverExceedsTheMaximum() {
+        // Arrange
+        DecorrelatedJitter jitter = new DecorrelatedJitter(100, 500);
+
+        // Act & Assert
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(jitter.next(400) <= 500);
+        }
+    }
+
+    @Test
+    void next_SpreadsDelaysOut() {
+        // Arrange
+        DecorrelatedJitter jitter = new DecorrelatedJitter(100, 10_000);
+
+        // Act
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 1_000; i++) {
+            long next = jitter.next(1_000);
+            min = Math.min(min, next);
+            max = Math.max(max, next);
+        }
+
+        // Assert: callers that failed together do not all retry after the same delay
+        assertTrue(max - min > 1_000, "delays bunched between " + min + " and " + max);
+    }
+
+    @Test
+    void constructor_WithMaximumBelowBase_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new DecorrelatedJitter(100, 50));
+    }
+}
@@ -0,0 +1,125 @@
+package com.deemerge.enrichment.retry;
+
+import com.deemerge.enrichment.config.RetryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    private AtomicLong ticker;
+
+    @BeforeEach
+    void setUp() {
+        ticker = new AtomicLong();
+    }
+
+    @Test
+    void tryAcquire_WithoutSuccesses_AllowsOnlyTheReserve() {
+        // Arrange: a reserve of 0.2 retries per second is two retries over the window
+        RetryBudget budget = new RetryBudget(0.5, 0.2, ticker::get);
+
+        // Act & Assert
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_AllowsTheRatioOfRecentSuccesses() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(0.5, 0, ticker::get);
+        for (int i = 0; i < 4; i++) {
+            budget.recordSuccess();
+        }
+
+        // Act & Assert
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_ForgetsSuccessesOutsideTheWindow() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(1, 0, ticker::get);
+        budget.recordSuccess();
+
+        // Act
+        advanceSeconds(RetryBudget.WINDOW_SECONDS);
+
+        // Assert
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_RegainsRetriesOnceOldOnesLeaveTheWindow() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(0, 0.1, ticker::get);
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        // Act
+        advanceSeconds(RetryBudget.WINDOW_SECONDS);
+
+        // Assert
+        assertTrue(budget.tryAcquire());
+    }
+
+    @Test
+    void release_ReturnsARetryToTheBudget() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(0, 0.1, ticker::get);
+        assertTrue(budget.tryAcquire());
+
+        // Act
+        budget.release();
+
+        // Assert
+        assertTrue(budget.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_AtTheSimulatorErrorRate_DefaultRatioAllowsEveryRetry() {
+        // Arrange: a model failing 20% of calls needs about 0.2 + 0.04 retries per success with three attempts
+        double errorRate = 0.2;
+        RetryProperties defaults = new RetryProperties();
+        RetryBudget budget = new RetryBudget(defaults.getBudgetRatio(), defaults.getTenantMinRetriesPerSecond(),
+                ticker::get);
+        RetryBudget tooSmall = new RetryBudget(errorRate, defaults.getTenantMinRetriesPerSecond(), ticker::get);
+
+        // Act: a minute of 100 requests per second, with the same failures for both budgets
+        Random random = new Random(42);
+        int denied = 0;
+        int deniedTooSmall = 0;
+        for (int second = 0; second < 60; second++) {
+            for (int request = 0; request < 100; request++) {
+                for (int attempt = 1; attempt <= 3; attempt++) {
+                    if (random.nextDouble() >= errorRate) {
+                        budget.recordSuccess();
+                        tooSmall.recordSuccess();
+                        break;
+                    }
+                    if (attempt < 3) {
+                        denied += budget.tryAcquire() ? 0 : 1;
+                        deniedTooSmall += tooSmall.tryAcquire() ? 0 : 1;
+                    }
+                }
+            }
+            advanceSeconds(1);
+        }
+
+        // Assert
+        assertEquals(0, denied);
+        assertTrue(deniedTooSmall > 0, "a ratio equal to the error rate runs out of retries");
+    }
+
+    private void advanceSeconds(long seconds) {
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
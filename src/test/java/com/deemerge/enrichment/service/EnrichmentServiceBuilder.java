@@ -0,0 +1,117 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.client.ModelClient;
+import com.deemerge.enrichment.config.BatchProperties;
+import com.deemerge.enrichment.config.BulkheadProperties;
+import com.deemerge.enrichment.config.CircuitBreakerProperties;
+import com.deemerge.enrichment.config.HedgingProperties;
+import com.deemerge.enrichment.config.ModelBatchingProperties;
+import com.deemerge.enrichment.config.ModelCircuitBreakerRegistry;
+import com.deemerge.enrichment.config.RetryBudgetRegistry;
+import com.deemerge.enrichment.config.RetryProperties;
+import com.deemerge.enrichment.config.SummaryCacheProperties;
+import com.deemerge.enrichment.config.TenantBulkheadRegistry;
+import com.deemerge.enrichment.config.TokenUsageRegistry;
+import com.deemerge.enrichment.config.TokenizerConfig;
+import com.deemerge.enrichment.repository.TenantSettingsRepository;
+import org.springframework.cache.CacheManager;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Builds an EnrichmentServiceImpl for tests. Everything but the collaborators passed to the
+ * constructor defaults to its configuration defaults, and the model calls run on the caller's
+ * thread; tests override only what they exercise.
+ */
+public final class EnrichmentServiceBuilder {
+
+    private final TenantSettingsRepository tenantSettingsRepository;
+    private final PromptBuilder promptBuilder;
+    private final ModelClient modelClient;
+    private final CacheManager cacheManager;
+    private final ScheduledExecutorService scheduler;
+    private SummaryCacheProperties cacheProperties = new SummaryCacheProperties();
+    private BatchProperties batchProperties = new BatchProperties();
+    private ModelBatchingProperties modelBatchingProperties = new ModelBatchingProperties();
+    private HedgingProperties hedgingProperties = new HedgingProperties();
+    private RetryProperties retryProperties = new RetryProperties();
+    private TenantBulkheadRegistry bulkheads = new TenantBulkheadRegistry(new BulkheadProperties());
+    private ModelCircuitBreakerRegistry circuitBreakers =
+            new ModelCircuitBreakerRegistry(new CircuitBreakerProperties());
+    private RetryBudgetRegistry retryBudgets;
+    private TokenUsageRegistry tokenUsage;
+    private Executor modelCallExecutor = Runnable::run;
+
+    public EnrichmentServiceBuilder(TenantSettingsRepository tenantSettingsRepository, PromptBuilder promptBuilder,
+                                    ModelClient modelClient, CacheManager cacheManager,
+                                    ScheduledExecutorService scheduler) {
+        this.tenantSettingsRepository = tenantSettingsRepository;
+        this.promptBuilder = promptBuilder;
+        this.modelClient = modelClient;
+        this.cacheManager = cacheManager;
+        this.scheduler = scheduler;
+    }
+
+    public EnrichmentServiceBuilder cacheProperties(SummaryCacheProperties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder batchProperties(BatchProperties batchProperties) {
+        this.batchProperties = batchProperties;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder modelBatchingProperties(ModelBatchingProperties modelBatchingProperties) {
+        this.modelBatchingProperties = modelBatchingProperties;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder hedgingProperties(HedgingProperties hedgingProperties) {
+        this.hedgingProperties = hedgingProperties;
+        return this;
+    }
+
+    /**
+     * Also sizes the retry budgets, unless they are set themselves
+     */
+    public EnrichmentServiceBuilder retryProperties(RetryProperties retryProperties) {
+        this.retryProperties = retryProperties;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder bulkheads(TenantBulkheadRegistry bulkheads) {
+        this.bulkheads = bulkheads;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder circuitBreakers(ModelCircuitBreakerRegistry circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder retryBudgets(RetryBudgetRegistry retryBudgets) {
+        this.retryBudgets = retryBudgets;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder tokenUsage(TokenUsageRegistry tokenUsage) {
+        this.tokenUsage = tokenUsage;
+        return this;
+    }
+
+    public EnrichmentServiceBuilder modelCallExecutor(Executor modelCallExecutor) {
+        this.modelCallExecutor = modelCallExecutor;
+        return this;
+    }
+
+    public EnrichmentServiceImpl build() {
+        return new EnrichmentServiceImpl(tenantSettingsRepository, promptBuilder, modelClient, cacheManager,
+                cacheProperties, batchProperties, modelBatchingProperties, hedgingProperties, retryProperties,
+                bulkheads, circuitBreakers,
+                retryBudgets != null ? retryBudgets : new RetryBudgetRegistry(retryProperties),
+                tokenUsage != null ? tokenUsage : new TokenUsageRegistry(new TokenizerConfig().tokenizer()),
+                scheduler, modelCallExecutor);
+    }
+}
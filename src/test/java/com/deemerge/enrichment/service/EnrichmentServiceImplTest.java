@@ -1,23 +1,59 @@
 package com.deemerge.enrichment.service;
 
+import com.deemerge.enrichment.cache.SummaryCacheKey;
+import com.deemerge.enrichment.client.ModelClient;
+import com.deemerge.enrichment.client.SimulatedModelClient;
+import com.deemerge.enrichment.config.BatchProperties;
+import com.deemerge.enrichment.config.BulkheadProperties;
+import com.deemerge.enrichment.config.CircuitBreakerProperties;
+import com.deemerge.enrichment.config.ModelBatchingProperties;
+import com.deemerge.enrichment.config.ModelCircuitBreakerRegistry;
+import com.deemerge.enrichment.config.RetryProperties;
+import com.deemerge.enrichment.config.SummaryCacheProperties;
+import com.deemerge.enrichment.config.TenantAwareCacheManager;
+import com.deemerge.enrichment.config.TenantBulkheadRegistry;
+import com.deemerge.enrichment.config.TokenUsageRegistry;
+import com.deemerge.enrichment.config.TokenizerConfig;
 import com.deemerge.enrichment.exception.EmptyInputException;
+import com.deemerge.enrichment.exception.ModelCallException;
+import com.deemerge.enrichment.exception.ModelRequestRejectedException;
+import com.deemerge.enrichment.exception.ModelUnavailableException;
 import com.deemerge.enrichment.exception.TenantNotFoundException;
+import com.deemerge.enrichment.exception.TenantOverloadedException;
 import com.deemerge.enrichment.exception.TokenLimitExceededException;
+import com.deemerge.enrichment.model.BatchItemResult;
+import com.deemerge.enrichment.model.BatchSummaryResponse;
 import com.deemerge.enrichment.model.SummaryResponse;
 import com.deemerge.enrichment.model.TenantSettings;
 import com.deemerge.enrichment.repository.TenantSettingsRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,16 +65,31 @@ class EnrichmentServiceImplTest {
     @Mock
     private PromptBuilder promptBuilder;
 
-    @InjectMocks
+    private ScheduledExecutorService scheduler;
+
+    private StubModelClient modelClient;
+
+    private TenantAwareCacheManager cacheManager;
+
+    private TokenUsageRegistry tokenUsage;
+
     private EnrichmentServiceImpl enrichmentService;
 
     private TenantSettings tenantSettings;
     private final String TENANT_ID = "test-tenant";
     private final String INPUT_TEXT = "This is a test input for summarization.";
     private final String PROMPT = "Please summarize the following text with a formal tone...";
+    private final String SUMMARY = "Summary: the text is a test input.";
+    private final long MODEL_LATENCY_MILLIS = 10;
 
     @BeforeEach
     void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        modelClient = new StubModelClient();
+        cacheManager = new TenantAwareCacheManager(new SummaryCacheProperties(), tenantId -> Optional.empty());
+        tokenUsage = new TokenUsageRegistry(new TokenizerConfig().tokenizer());
+        enrichmentService = serviceWith(modelClient).build();
+
         tenantSettings = TenantSettings.builder()
                 .model("gpt-4")
                 .tone("formal")
@@ -47,6 +98,12 @@ class EnrichmentServiceImplTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        MDC.clear();
+    }
+
     @Test
     void summarize_WithValidInput_ReturnsSummaryResponse() {
         // Arrange
@@ -95,18 +152,561 @@ class EnrichmentServiceImplTest {
         when(tenantSettingsRepository.findByTenantId(TENANT_ID))
                 .thenReturn(Optional.of(tenantSettings));
         
-        // Create a string longer than the max tokens (300)
+        // Create a text of more than the max tokens (300); every number is at least one token
         StringBuilder longInput = new StringBuilder();
-        for (int i = 0; i < 400; i++) { // exceeding 300 tokens limit
-            longInput.append("a");
+        for (int i = 0; i < 400; i++) {
+            longInput.append(i).append(' ');
         }
         
         // Act & Assert
         Exception exception = assertThrows(TokenLimitExceededException.class, () ->
                 enrichmentService.summarize(TENANT_ID, longInput.toString()));
         
-        assertTrue(exception.getMessage().contains("exceeds the maximum allowed tokens"));
-        assertTrue(exception.getMessage().contains("400"));
-        assertTrue(exception.getMessage().contains("300"));
+        assertEquals("Input text of " + longInput.length() + " characters has more than the maximum of 300 tokens",
+                exception.getMessage());
+    }
+
+    @Test
+    void summarize_WithInputLongerThanMaxTokensInCharacters_CountsTokensNotCharacters() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        
+        // About 600 characters of prose, well under 300 tokens
+        String input = String.join(" ", Collections.nCopies(15, "The summary of this text is returned."));
+        
+        // Act
+        SummaryResponse response = enrichmentService.summarize(TENANT_ID, input);
+        
+        // Assert
+        assertTrue(input.length() > tenantSettings.getMaxTokens());
+        assertEquals(input, response.getInputText());
+    }
+
+    @Test
+    void summarize_WithValidInput_RecordsTheTokensOfTheModelCall() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        
+        // Act
+        enrichmentService.summarize(TENANT_ID, INPUT_TEXT);
+        
+        // Assert
+        assertEquals(1, tokenUsage.usage(TENANT_ID).calls());
+        assertEquals(new TokenizerConfig().tokenizer().countTokens(PROMPT),
+                tokenUsage.usage(TENANT_ID).promptTokens());
+        assertEquals(new TokenizerConfig().tokenizer().countTokens(SUMMARY),
+                tokenUsage.usage(TENANT_ID).completionTokens());
+    }
+
+    @Test
+    void summarizeAsync_WithValidInput_CompletesWithSummaryAndCarriesMdc() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        MDC.put("requestId", "request-1");
+
+        // Act: the model call completes on the scheduler thread
+        CompletableFuture<String> requestIdOnCompletion = enrichmentService.summarizeAsync(TENANT_ID, INPUT_TEXT)
+                .thenApply(response -> response.getSummary() + " " + MDC.get("requestId"));
+        MDC.clear();
+
+        // Assert
+        assertEquals(SUMMARY + " request-1", requestIdOnCompletion.join());
+    }
+
+    @Test
+    void summarizeAsync_WithUnknownTenant_CompletesExceptionally() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId("unknown-tenant"))
+                .thenReturn(Optional.empty());
+
+        // Act
+        CompletableFuture<SummaryResponse> future = enrichmentService.summarizeAsync("unknown-tenant", INPUT_TEXT);
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TenantNotFoundException.class, exception.getCause());
+    }
+
+    @Test
+    void summarize_WithRepeatedInput_ServesSecondCallFromCache() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        SummaryResponse first = enrichmentService.summarize(TENANT_ID, INPUT_TEXT);
+        SummaryResponse second = enrichmentService.summarize(TENANT_ID, INPUT_TEXT);
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals(INPUT_TEXT, second.getInputText());
+        verify(promptBuilder, times(1)).buildSummarizationPrompt(any(TenantSettings.class), anyString());
+    }
+
+    @Test
+    void summarize_ByDefault_CachesEntryWithoutInputText() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        when(promptBuilder.getTemplateVersion(any(TenantSettings.class)))
+                .thenReturn("1");
+
+        // Act
+        SummaryResponse response = enrichmentService.summarize(TENANT_ID, INPUT_TEXT);
+
+        // Assert
+        SummaryResponse cached = cacheManager.getCache("summaryCache")
+                .get(SummaryCacheKey.of(TENANT_ID, INPUT_TEXT, tenantSettings, "1"), SummaryResponse.class);
+        assertNotNull(cached);
+        assertNull(cached.getInputText());
+        assertEquals(SUMMARY, cached.getSummary());
+        assertEquals(SUMMARY, response.getSummary());
+        assertEquals(INPUT_TEXT, response.getInputText());
+    }
+
+    @Test
+    void summarizeAsync_WithConcurrentIdenticalRequests_MakesSingleModelCall() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        CompletableFuture<SummaryResponse> first = enrichmentService.summarizeAsync(TENANT_ID, INPUT_TEXT);
+        CompletableFuture<SummaryResponse> second = enrichmentService.summarizeAsync(TENANT_ID, INPUT_TEXT);
+
+        // Assert
+        assertEquals(first.join(), second.join());
+        assertEquals(1, modelClient.calls.get());
+        verify(promptBuilder, times(1)).buildSummarizationPrompt(any(TenantSettings.class), anyString());
+    }
+
+    @Test
+    void summarizeBatchAsync_WithDuplicateAndInvalidItems_ReportsEachItemAndCallsModelOncePerText() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        List<String> inputTexts = Arrays.asList(INPUT_TEXT, "", INPUT_TEXT, "a".repeat(400), null);
+
+        // Act
+        BatchSummaryResponse response = enrichmentService.summarizeBatchAsync(TENANT_ID, inputTexts).join();
+
+        // Assert
+        assertEquals(TENANT_ID, response.getTenantId());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(3, response.getFailed());
+        List<BatchItemResult> results = response.getResults();
+        assertEquals(5, results.size());
+        assertEquals(INPUT_TEXT, results.get(0).getResult().getInputText());
+        assertEquals(SUMMARY, results.get(0).getResult().getSummary());
+        assertEquals(results.get(0).getResult(), results.get(2).getResult());
+        assertEquals("EMPTY_INPUT", results.get(1).getError().getCode());
+        assertEquals("TOKEN_LIMIT_EXCEEDED", results.get(3).getError().getCode());
+        assertEquals("EMPTY_INPUT", results.get(4).getError().getCode());
+        assertEquals(4, results.get(4).getIndex());
+        assertEquals(1, modelClient.calls.get());
+        verify(tenantSettingsRepository, times(1)).findByTenantId(TENANT_ID);
+        verify(promptBuilder, times(1)).buildSummarizationPrompt(any(TenantSettings.class), anyString());
+    }
+
+    @Test
+    void summarizeBatchAsync_WithConcurrencyOfOne_RunsModelCallsOneAfterAnother() {
+        // Arrange
+        BatchProperties batchProperties = new BatchProperties();
+        batchProperties.setConcurrency(1);
+        EnrichmentServiceImpl sequentialService = serviceWith(new SimulatedModelClient(scheduler, Runnable::run))
+                .batchProperties(batchProperties)
+                .build();
+        tenantSettings.setModel("gpt-3.5"); // 500 ms per simulated call
+        tenantSettings.setRetryAttempts(1);
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        long start = System.nanoTime();
+        BatchSummaryResponse response = sequentialService.summarizeBatchAsync(TENANT_ID,
+                List.of("first text", "second text", "third text")).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert: failed calls are not retried, so each item took exactly one call
+        assertEquals(3, response.getResults().size());
+        assertTrue(elapsedMillis >= 1500, "calls overlapped: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void summarizeBatchAsync_WithModelBatching_SendsOneBatchedCall() {
+        // Arrange
+        ModelBatchingProperties modelBatchingProperties = new ModelBatchingProperties();
+        modelBatchingProperties.setEnabled(true);
+        modelBatchingProperties.setMaxBatchSize(4);
+        modelBatchingProperties.setMaxWait(Duration.ofSeconds(5));
+        EnrichmentServiceImpl batchingService = serviceWith(new SimulatedModelClient(scheduler, Runnable::run))
+                .modelBatchingProperties(modelBatchingProperties)
+                .build();
+        tenantSettings.setModel("gpt-3.5"); // 500 ms per simulated call, 650 ms for a batch of four
+        tenantSettings.setRetryAttempts(1);
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        long start = System.nanoTime();
+        BatchSummaryResponse response = batchingService.summarizeBatchAsync(TENANT_ID,
+                List.of("first text", "second text", "third text", "fourth text")).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert: the fourth prompt filled the batch long before the wait window, and the
+        // batched call succeeded or failed for all items at once
+        assertTrue(response.getSucceeded() == 4 || response.getFailed() == 4,
+                "items of one batched call completed differently: " + response);
+        assertTrue(elapsedMillis >= 650, "batch returned too early: " + elapsedMillis + " ms");
+        assertTrue(elapsedMillis < 5000, "batch waited for its window: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void summarizeAsync_WhenTenantBulkheadIsFull_RejectsAtOnce() {
+        // Arrange: one call in flight per tenant and no queue
+        BulkheadProperties bulkheadProperties = new BulkheadProperties();
+        bulkheadProperties.setInitialLimit(1);
+        bulkheadProperties.setMaxQueued(0);
+        EnrichmentServiceImpl limitedService = serviceWith(new SimulatedModelClient(scheduler, Runnable::run))
+                .bulkheads(new TenantBulkheadRegistry(bulkheadProperties))
+                .build();
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        CompletableFuture<SummaryResponse> first = limitedService.summarizeAsync(TENANT_ID, "first text");
+        CompletableFuture<SummaryResponse> second = limitedService.summarizeAsync(TENANT_ID, "second text");
+
+        // Assert: the second call fails without waiting for the first
+        assertTrue(second.isDone());
+        CompletionException exception = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(TenantOverloadedException.class, exception.getCause());
+        assertFalse(first.isDone());
+    }
+
+    @Test
+    void summarizeAsync_WithRetriedCalls_KeepsTenantLimit() {
+        // Arrange: every other request fails once, and the backoff before its retry dwarfs a model call
+        RetryProperties retryProperties = new RetryProperties();
+        retryProperties.setBaseBackoff(Duration.ofMillis(100));
+        retryProperties.setMaxBackoff(Duration.ofMillis(100));
+        retryProperties.setTenantMinRetriesPerSecond(100);
+        retryProperties.setGlobalMinRetriesPerSecond(100);
+        TenantBulkheadRegistry bulkheads = new TenantBulkheadRegistry(new BulkheadProperties());
+        int requests = 8;
+        AtomicInteger calls = new AtomicInteger();
+        ModelClient flakyClient = new ModelClient() {
+            @Override
+            public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+                int call = calls.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> {
+                    if (call <= requests && call % 2 == 1) {
+                        throw new ModelCallException("Model is busy", true);
+                    }
+                    return "A summary.";
+                }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                                    Consumer<String> fragmentConsumer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        EnrichmentServiceImpl retryingService = serviceWith(flakyClient)
+                .retryProperties(retryProperties)
+                .bulkheads(bulkheads)
+                .build();
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        int initialLimit = bulkheads.bulkhead(TENANT_ID).limit();
+
+        // Act
+        List<CompletableFuture<SummaryResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(retryingService.summarizeAsync(TENANT_ID, "text number " + i));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        // Assert: neither the failed attempts nor the backoff before the retries cut the limit
+        assertEquals(requests + requests / 2, calls.get());
+        assertTrue(bulkheads.bulkhead(TENANT_ID).limit() >= initialLimit,
+                "limit fell to " + bulkheads.bulkhead(TENANT_ID).limit());
+    }
+
+    @Test
+    void summarizeAsync_WhenRetryBudgetIsSpent_FailsWithoutRetrying() {
+        // Arrange: two retries in the tenant's budget, none earned by successes, and a model
+        // that fails more often than that
+        RetryProperties retryProperties = new RetryProperties();
+        retryProperties.setBaseBackoff(Duration.ofMillis(1));
+        retryProperties.setMaxBackoff(Duration.ofMillis(1));
+        retryProperties.setBudgetRatio(0);
+        retryProperties.setTenantMinRetriesPerSecond(0.2);
+        retryProperties.setGlobalMinRetriesPerSecond(100);
+        AtomicInteger calls = new AtomicInteger();
+        ModelClient failingClient = new ModelClient() {
+            @Override
+            public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+                return calls.incrementAndGet() <= 5
+                        ? CompletableFuture.failedFuture(new ModelCallException("Model is busy", true))
+                        : CompletableFuture.completedFuture(SUMMARY);
+            }
+
+            @Override
+            public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                                    Consumer<String> fragmentConsumer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        EnrichmentServiceImpl retryingService = serviceWith(failingClient)
+                .retryProperties(retryProperties)
+                .build();
+        tenantSettings.setRetryAttempts(10);
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        CompletableFuture<SummaryResponse> first = retryingService.summarizeAsync(TENANT_ID, "first text");
+        CompletionException firstException = assertThrows(CompletionException.class, first::join);
+        int callsOfFirst = calls.get();
+        CompletableFuture<SummaryResponse> second = retryingService.summarizeAsync(TENANT_ID, "second text");
+        CompletionException secondException = assertThrows(CompletionException.class, second::join);
+
+        // Assert: the first request spent the budget on its two retries, the second got none,
+        // though both had attempts left
+        assertEquals(3, callsOfFirst);
+        assertEquals(4, calls.get());
+        assertInstanceOf(ModelCallException.class, firstException.getCause().getCause());
+        assertInstanceOf(ModelCallException.class, secondException.getCause().getCause());
+    }
+
+    @Test
+    void summarizeAsync_WhenModelCircuitIsOpen_FailsFastWithoutRetrying() {
+        // Arrange: a single failure opens the breaker of the tenant's model
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setWindowSize(1);
+        circuitBreakerProperties.setMinimumCalls(1);
+        ModelCircuitBreakerRegistry circuitBreakers = new ModelCircuitBreakerRegistry(circuitBreakerProperties);
+        EnrichmentServiceImpl guardedService = serviceWith(modelClient)
+                .circuitBreakers(circuitBreakers)
+                .build();
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        circuitBreakers.onError(tenantSettings.getModel(),
+                circuitBreakers.tryAcquirePermission(tenantSettings.getModel()));
+
+        // Act
+        CompletableFuture<SummaryResponse> future = guardedService.summarizeAsync(TENANT_ID, INPUT_TEXT);
+
+        // Assert: refused before any simulated latency or backoff
+        assertTrue(future.isDone());
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(ModelUnavailableException.class, exception.getCause());
+    }
+
+    @Test
+    void summarizeAsync_WhenModelRejectsRequest_KeepsCircuitClosed() {
+        // Arrange: a single failure would open the breaker of the tenant's model
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setWindowSize(1);
+        circuitBreakerProperties.setMinimumCalls(1);
+        ModelCircuitBreakerRegistry circuitBreakers = new ModelCircuitBreakerRegistry(circuitBreakerProperties);
+        ModelClient rejectingClient = new ModelClient() {
+            @Override
+            public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+                return CompletableFuture.failedFuture(new ModelRequestRejectedException("Model call failed with HTTP 400"));
+            }
+
+            @Override
+            public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                                    Consumer<String> fragmentConsumer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        EnrichmentServiceImpl guardedService = serviceWith(rejectingClient)
+                .circuitBreakers(circuitBreakers)
+                .build();
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        CompletableFuture<SummaryResponse> future = guardedService.summarizeAsync(TENANT_ID, INPUT_TEXT);
+
+        // Assert: the request failed without retry, and the model is still callable
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(ModelRequestRejectedException.class, exception.getCause().getCause());
+        assertFalse(circuitBreakers.isOpen(tenantSettings.getModel()));
+    }
+
+    @Test
+    void summarizeAsync_WhenModelCallThrows_FailsAndReportsItToCircuit() {
+        // Arrange: a single failure opens the breaker of the tenant's model
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setWindowSize(1);
+        circuitBreakerProperties.setMinimumCalls(1);
+        ModelCircuitBreakerRegistry circuitBreakers = new ModelCircuitBreakerRegistry(circuitBreakerProperties);
+        ModelClient throwingClient = new ModelClient() {
+            @Override
+            public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+                throw new RejectedExecutionException("Model call executor is full");
+            }
+
+            @Override
+            public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                                    Consumer<String> fragmentConsumer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        EnrichmentServiceImpl guardedService = serviceWith(throwingClient)
+                .circuitBreakers(circuitBreakers)
+                .build();
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+
+        // Act
+        CompletableFuture<SummaryResponse> future = guardedService.summarizeAsync(TENANT_ID, INPUT_TEXT);
+
+        // Assert: the request failed at once, and the breaker counted the call instead of holding its permit
+        assertTrue(future.isDone());
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause().getCause());
+        assertTrue(circuitBreakers.isOpen(tenantSettings.getModel()));
+    }
+
+    @Test
+    void summarizeBatchAsync_WithUnknownTenant_CompletesExceptionally() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId("unknown-tenant"))
+                .thenReturn(Optional.empty());
+
+        // Act
+        CompletableFuture<BatchSummaryResponse> future =
+                enrichmentService.summarizeBatchAsync("unknown-tenant", List.of(INPUT_TEXT));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TenantNotFoundException.class, exception.getCause());
+    }
+
+    @Test
+    void summarizeBatchAsync_WithTooManyItems_CompletesExceptionally() {
+        // Act
+        CompletableFuture<BatchSummaryResponse> future = enrichmentService.summarizeBatchAsync(TENANT_ID,
+                Collections.nCopies(new BatchProperties().getMaxItems() + 1, INPUT_TEXT));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+    }
+
+    @Test
+    void summarizeStreamAsync_OnCacheMiss_StreamsFragmentsAndCachesSummary() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID))
+                .thenReturn(Optional.of(tenantSettings));
+        when(promptBuilder.buildSummarizationPrompt(any(TenantSettings.class), anyString()))
+                .thenReturn(PROMPT);
+        List<String> streamed = Collections.synchronizedList(new ArrayList<>());
+        List<String> replayed = new ArrayList<>();
+
+        // Act
+        SummaryResponse response = enrichmentService.summarizeStreamAsync(TENANT_ID, INPUT_TEXT, streamed::add).join();
+        SummaryResponse cached = enrichmentService.summarizeStreamAsync(TENANT_ID, INPUT_TEXT, replayed::add).join();
+
+        // Assert
+        assertEquals(List.of(SUMMARY.split("(?<= )")), streamed);
+        assertEquals(SUMMARY, response.getSummary());
+        assertEquals(INPUT_TEXT, response.getInputText());
+        assertEquals(List.of(response.getSummary()), replayed);
+        assertEquals(response, cached);
+        assertEquals(1, modelClient.calls.get());
+        verify(promptBuilder, times(1)).buildSummarizationPrompt(any(TenantSettings.class), anyString());
+    }
+
+    @Test
+    void summarizeStreamAsync_WithUnknownTenant_CompletesExceptionallyWithoutFragments() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId("unknown-tenant"))
+                .thenReturn(Optional.empty());
+        List<String> streamed = new ArrayList<>();
+
+        // Act
+        CompletableFuture<SummaryResponse> future =
+                enrichmentService.summarizeStreamAsync("unknown-tenant", INPUT_TEXT, streamed::add);
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TenantNotFoundException.class, exception.getCause());
+        assertTrue(streamed.isEmpty());
+    }
+
+    private EnrichmentServiceBuilder serviceWith(ModelClient client) {
+        return new EnrichmentServiceBuilder(tenantSettingsRepository, promptBuilder, client, cacheManager, scheduler)
+                .tokenUsage(tokenUsage);
+    }
+
+    /**
+     * Model client that answers every prompt with the same summary a few milliseconds later,
+     * on the scheduler thread, and counts its calls
+     */
+    private final class StubModelClient implements ModelClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<String> complete(String prompt, TenantSettings settings) {
+            calls.incrementAndGet();
+            CompletableFuture<String> call = new CompletableFuture<>();
+            scheduler.schedule(() -> call.complete(SUMMARY), MODEL_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            return call;
+        }
+
+        @Override
+        public CompletableFuture<String> stream(String prompt, TenantSettings settings,
+                                                Consumer<String> fragmentConsumer) {
+            calls.incrementAndGet();
+            CompletableFuture<String> call = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                for (String fragment : SUMMARY.split("(?<= )")) {
+                    fragmentConsumer.accept(fragment);
+                }
+                call.complete(SUMMARY);
+            }, MODEL_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            return call;
+        }
     }
 }
@@ -0,0 +1,256 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.chunk.DocumentChunker;
+import com.deemerge.enrichment.config.LongDocumentProperties;
+import com.deemerge.enrichment.exception.EmptyInputException;
+import com.deemerge.enrichment.exception.ModelUnavailableException;
+import com.deemerge.enrichment.exception.TenantNotFoundException;
+import com.deemerge.enrichment.exception.TokenLimitExceededException;
+import com.deemerge.enrichment.model.SummaryResponse;
+import com.deemerge.enrichment.model.TenantSettings;
+import com.deemerge.enrichment.repository.TenantSettingsRepository;
+import com.deemerge.enrichment.token.BpeTokenizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LongDocumentSummarizerTest {
+
+    private static final String TENANT_ID = "tenant1";
+    private static final int MAX_TOKENS = 100;
+
+    @Mock
+    private EnrichmentService enrichmentService;
+
+    @Mock
+    private TenantSettingsRepository tenantSettingsRepository;
+
+    private final BpeTokenizer tokenizer = BpeTokenizer.fromResource("tokenizer/bpe-merges.txt");
+    private LongDocumentProperties properties;
+    private LongDocumentSummarizer summarizer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LongDocumentProperties();
+        summarizer = new LongDocumentSummarizer(enrichmentService, tenantSettingsRepository,
+                new DocumentChunker(tokenizer), properties);
+    }
+
+    @Test
+    void summarizeAsync_TextWithinLimit_SummarizesItInOneCall() {
+        // Arrange
+        knownTenant();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(summary(invocation.getArgument(1))));
+
+        // Act
+        SummaryResponse response = summarizer.summarizeAsync(TENANT_ID, "A short text. It fits.").join();
+
+        // Assert
+        assertEquals(summaryOf("A short text. It fits."), response.getSummary());
+        verify(enrichmentService, times(1)).summarizeAsync(eq(TENANT_ID), anyString());
+    }
+
+    @Test
+    void summarizeAsync_LongText_SummarizesChunksThenTheirSummaries() {
+        // Arrange
+        knownTenant();
+        List<String> inputs = new CopyOnWriteArrayList<>();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation -> {
+            inputs.add(invocation.getArgument(1));
+            return CompletableFuture.completedFuture(summary(invocation.getArgument(1)));
+        });
+        String document = document(300, "");
+
+        // Act
+        SummaryResponse response = summarizer.summarizeAsync(TENANT_ID, document).join();
+
+        // Assert
+        assertTrue(inputs.size() > 20);
+        for (String input : inputs) {
+            assertTrue(tokenizer.countTokens(input) <= MAX_TOKENS);
+        }
+        String last = inputs.get(inputs.size() - 1);
+        assertTrue(last.startsWith("Summary "), "the final call summarizes summaries");
+        assertEquals(summaryOf(last), response.getSummary());
+        assertEquals(document, response.getInputText());
+    }
+
+    @Test
+    void summarizeAsync_KeepsAtMostConcurrencyChunksInFlight() {
+        // Arrange
+        knownTenant();
+        properties.setConcurrency(2);
+        List<CompletableFuture<SummaryResponse>> pending = new ArrayList<>();
+        List<String> inputs = new ArrayList<>();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<SummaryResponse> call = new CompletableFuture<>();
+            inputs.add(invocation.getArgument(1));
+            pending.add(call);
+            return call;
+        });
+
+        // Act
+        CompletableFuture<SummaryResponse> result = summarizer.summarizeAsync(TENANT_ID, document(60, ""));
+
+        // Assert: completing one call starts the next, never more than two at once
+        int completed = 0;
+        while (!result.isDone()) {
+            assertTrue(pending.size() - completed <= 2);
+            assertTrue(pending.size() > completed, "a call is in flight");
+            pending.get(completed).complete(summary(inputs.get(completed)));
+            completed++;
+        }
+        assertNotNull(result.join().getSummary());
+        assertTrue(completed > 3);
+    }
+
+    @Test
+    void summarizeAsync_EditedDocument_OnlySummarizesChangedChunksAgain() {
+        // Arrange: the service caches by text, like the summary cache
+        knownTenant();
+        Map<String, SummaryResponse> cache = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(cache.computeIfAbsent(invocation.getArgument(1), text -> {
+                    misses.add(text);
+                    return summary(text);
+                })));
+        summarizer.summarizeAsync(TENANT_ID, document(120, "")).join();
+        int firstMisses = misses.size();
+        misses.clear();
+
+        // Act
+        summarizer.summarizeAsync(TENANT_ID, document(120, "An edited sentence.")).join();
+
+        // Assert: a chunk or two around the edit, plus the summaries above them
+        assertTrue(firstMisses > 10);
+        assertTrue(misses.stream().anyMatch(text -> text.contains("An edited sentence.")));
+        assertTrue(misses.size() <= 6, "summarized again: " + misses.size());
+    }
+
+    @Test
+    void summarizeAsync_FailingChunk_FailsTheDocument() {
+        // Arrange
+        knownTenant();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                ((String) invocation.getArgument(1)).contains("Sentence 7 ")
+                        ? CompletableFuture.failedFuture(new ModelUnavailableException("gpt-4"))
+                        : CompletableFuture.completedFuture(summary(invocation.getArgument(1))));
+
+        // Act
+        CompletableFuture<SummaryResponse> result = summarizer.summarizeAsync(TENANT_ID, document(60, ""));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(ModelUnavailableException.class, exception.getCause());
+    }
+
+    @Test
+    void summarizeAsync_SummariesThatDoNotShrink_FailAfterMaxLevels() {
+        // Arrange: a model that echoes its input never makes the summaries fit
+        knownTenant();
+        properties.setMaxLevels(2);
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(SummaryResponse.builder()
+                        .summary(invocation.getArgument(1))
+                        .tenantId(TENANT_ID)
+                        .build()));
+
+        // Act
+        CompletableFuture<SummaryResponse> result = summarizer.summarizeAsync(TENANT_ID, document(60, ""));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(TokenLimitExceededException.class, exception.getCause());
+    }
+
+    @Test
+    void summarizeAsync_DocumentOverChunkLimit_FailsWithoutModelCalls() {
+        // Arrange
+        knownTenant();
+        properties.setMaxChunks(4);
+        String document = document(300, "");
+
+        // Act
+        CompletableFuture<SummaryResponse> result = summarizer.summarizeAsync(TENANT_ID, document);
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        assertEquals("Document of " + document.length() + " characters has more than the maximum of 4 chunks",
+                exception.getCause().getMessage());
+        verify(enrichmentService, never()).summarizeAsync(anyString(), anyString());
+    }
+
+    @Test
+    void summarizeAsync_RejectsUnknownTenantAndEmptyInput() {
+        // Arrange
+        when(tenantSettingsRepository.findByTenantId("unknown")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        CompletionException unknown = assertThrows(CompletionException.class,
+                () -> summarizer.summarizeAsync("unknown", "Some text.").join());
+        assertInstanceOf(TenantNotFoundException.class, unknown.getCause());
+        CompletionException empty = assertThrows(CompletionException.class,
+                () -> summarizer.summarizeAsync(TENANT_ID, "  ").join());
+        assertInstanceOf(EmptyInputException.class, empty.getCause());
+    }
+
+    private void knownTenant() {
+        when(tenantSettingsRepository.findByTenantId(TENANT_ID)).thenReturn(Optional.of(TenantSettings.builder()
+                .model("gpt-4")
+                .maxTokens(MAX_TOKENS)
+                .build()));
+    }
+
+    /**
+     * Sentences numbered from 0, with the one in the middle replaced if an edit is given
+     */
+    private static String document(int sentences, String edit) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) {
+                text.append(i % 12 == 0 ? "\n\n" : " ");
+            }
+            if (i == sentences / 2 && !edit.isEmpty()) {
+                text.append(edit);
+            } else {
+                text.append("Sentence ").append(i).append(" describes part ").append(i * 7 % 13)
+                        .append(" of the document in a few words.");
+            }
+        }
+        return text.toString();
+    }
+
+    private static SummaryResponse summary(String text) {
+        return SummaryResponse.builder()
+                .summary(summaryOf(text))
+                .tenantId(TENANT_ID)
+                .build();
+    }
+
+    private static String summaryOf(String text) {
+        return "Summary " + Integer.toHexString(text.hashCode()) + ".";
+    }
+}
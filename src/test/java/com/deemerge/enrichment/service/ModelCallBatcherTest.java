@@ -0,0 +1,146 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.exception.EnrichmentException;
+import com.deemerge.enrichment.model.TenantSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCallBatcherTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<List<String>> calls;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        calls = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void submit_WhenBatchIsFull_SendsItAtOnce() {
+        // Arrange: a wait window far longer than the test
+        ModelCallBatcher batcher = new ModelCallBatcher(3, TimeUnit.MINUTES.toMillis(1), scheduler, this::echo);
+
+        // Act
+        CompletableFuture<String> first = batcher.submit("a", settings("gpt-4", "formal"));
+        CompletableFuture<String> second = batcher.submit("b", settings("gpt-4", "formal"));
+        assertFalse(first.isDone());
+        CompletableFuture<String> third = batcher.submit("c", settings("gpt-4", "formal"));
+
+        // Assert
+        assertEquals(List.of(List.of("a", "b", "c")), calls);
+        assertEquals("out:a", first.join());
+        assertEquals("out:b", second.join());
+        assertEquals("out:c", third.join());
+    }
+
+    @Test
+    void submit_WhenWaitWindowExpires_SendsPartialBatch() {
+        // Arrange
+        ModelCallBatcher batcher = new ModelCallBatcher(8, 50, scheduler, this::echo);
+
+        // Act
+        CompletableFuture<String> first = batcher.submit("a", settings("gpt-4", "formal"));
+        CompletableFuture<String> second = batcher.submit("b", settings("gpt-4", "formal"));
+
+        // Assert
+        assertEquals("out:a", first.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("out:b", second.join());
+        assertEquals(List.of(List.of("a", "b")), calls);
+    }
+
+    @Test
+    void submit_KeepsSeparateBatchesPerModelAndTone() {
+        // Arrange
+        ModelCallBatcher batcher = new ModelCallBatcher(2, TimeUnit.MINUTES.toMillis(1), scheduler, this::echo);
+
+        // Act
+        batcher.submit("a", settings("gpt-4", "formal"));
+        batcher.submit("b", settings("gpt-4", "friendly"));
+        batcher.submit("c", settings("gpt-3.5", "formal"));
+        batcher.submit("d", settings("gpt-4", "formal"));
+
+        // Assert: only the first model and tone filled a batch
+        assertEquals(List.of(List.of("a", "d")), calls);
+    }
+
+    @Test
+    void submit_WithBatchSizeOfOne_SendsEveryPromptAlone() {
+        // Arrange
+        ModelCallBatcher batcher = new ModelCallBatcher(1, TimeUnit.MINUTES.toMillis(1), scheduler, this::echo);
+
+        // Act
+        batcher.submit("a", settings("gpt-4", "formal"));
+        batcher.submit("b", settings("gpt-4", "formal"));
+
+        // Assert
+        assertEquals(List.of(List.of("a"), List.of("b")), calls);
+    }
+
+    @Test
+    void submit_WhenBatchedCallFails_FailsEveryCaller() {
+        // Arrange
+        ModelCallBatcher batcher = new ModelCallBatcher(2, TimeUnit.MINUTES.toMillis(1), scheduler,
+                (prompts, settings) -> CompletableFuture.failedFuture(new EnrichmentException("backend down")));
+
+        // Act
+        CompletableFuture<String> first = batcher.submit("a", settings("gpt-4", "formal"));
+        CompletableFuture<String> second = batcher.submit("b", settings("gpt-4", "formal"));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, first::join);
+        assertEquals("backend down", exception.getCause().getMessage());
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    @Test
+    void submit_WhenBackendReturnsWrongNumberOfResults_FailsEveryCaller() {
+        // Arrange
+        ModelCallBatcher batcher = new ModelCallBatcher(2, TimeUnit.MINUTES.toMillis(1), scheduler,
+                (prompts, settings) -> CompletableFuture.completedFuture(List.of("only one")));
+
+        // Act
+        CompletableFuture<String> first = batcher.submit("a", settings("gpt-4", "formal"));
+        CompletableFuture<String> second = batcher.submit("b", settings("gpt-4", "formal"));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(EnrichmentException.class, exception.getCause());
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    private CompletableFuture<List<String>> echo(List<String> prompts, TenantSettings settings) {
+        calls.add(List.copyOf(prompts));
+        List<String> outputs = new ArrayList<>(prompts.size());
+        for (String prompt : prompts) {
+            outputs.add("out:" + prompt);
+        }
+        return CompletableFuture.completedFuture(outputs);
+    }
+
+    private static TenantSettings settings(String model, String tone) {
+        return TenantSettings.builder()
+                .model(model)
+                .tone(tone)
+                .maxTokens(300)
+                .retryAttempts(3)
+                .build();
+    }
+}
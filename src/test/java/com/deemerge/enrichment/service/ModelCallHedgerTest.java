@@ -0,0 +1,162 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.exception.EnrichmentException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCallHedgerTest {
+
+    private static final String MODEL = "gpt-4";
+
+    private ScheduledExecutorService scheduler;
+    private List<CompletableFuture<String>> legs;
+    private CountDownLatch hedgeStarted;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        legs = new CopyOnWriteArrayList<>();
+        hedgeStarted = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    void call_BeforeMinSamples_DoesNotHedge() throws InterruptedException {
+        // Arrange
+        ModelCallHedger hedger = new ModelCallHedger(0.5, 1.0, 5, scheduler);
+        warmUp(hedger, 4);
+
+        // Act
+        CompletableFuture<String> result = hedger.call(MODEL, this::pendingLeg);
+
+        // Assert
+        assertFalse(hedgeStarted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, legs.size());
+        legs.get(0).complete("primary");
+        assertEquals("primary", result.join());
+        assertEquals(0, hedger.hedgeCount(MODEL));
+    }
+
+    @Test
+    void call_WhenSlowerThanPercentile_TakesTheFasterHedgeAndCancelsThePrimary() throws InterruptedException {
+        // Arrange: warm-up calls complete at once, so any pending call is past the percentile
+        ModelCallHedger hedger = new ModelCallHedger(0.5, 1.0, 5, scheduler);
+        warmUp(hedger, 5);
+
+        // Act
+        CompletableFuture<String> result = hedger.call(MODEL, this::pendingLeg);
+        assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+        legs.get(1).complete("hedge");
+
+        // Assert
+        assertEquals("hedge", result.join());
+        assertTrue(legs.get(0).isCancelled());
+        assertEquals(1, hedger.hedgeCount(MODEL));
+        assertEquals(1, hedger.hedgeWinCount(MODEL));
+    }
+
+    @Test
+    void call_WhenHedged_StartsTheHedgeWithTheCallersMdc() throws InterruptedException {
+        // Arrange
+        ModelCallHedger hedger = new ModelCallHedger(0.5, 1.0, 5, scheduler);
+        warmUp(hedger, 5);
+        List<String> requestIds = new CopyOnWriteArrayList<>();
+        MDC.put("requestId", "request-1");
+
+        // Act
+        CompletableFuture<String> result = hedger.call(MODEL, () -> {
+            requestIds.add(String.valueOf(MDC.get("requestId")));
+            return pendingLeg();
+        });
+        MDC.clear();
+        assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+        legs.get(1).complete("hedge");
+
+        // Assert
+        assertEquals("hedge", result.join());
+        assertEquals(List.of("request-1", "request-1"), requestIds);
+    }
+
+    @Test
+    void call_WhenPrimaryFailsDuringHedge_WaitsForTheHedge() throws InterruptedException {
+        // Arrange
+        ModelCallHedger hedger = new ModelCallHedger(0.5, 1.0, 5, scheduler);
+        warmUp(hedger, 5);
+        CompletableFuture<String> result = hedger.call(MODEL, this::pendingLeg);
+        assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        legs.get(0).completeExceptionally(new EnrichmentException("primary failed"));
+
+        // Assert
+        assertFalse(result.isDone());
+        legs.get(1).complete("hedge");
+        assertEquals("hedge", result.join());
+    }
+
+    @Test
+    void call_WhenBothLegsFail_Fails() throws InterruptedException {
+        // Arrange
+        ModelCallHedger hedger = new ModelCallHedger(0.5, 1.0, 5, scheduler);
+        warmUp(hedger, 5);
+        CompletableFuture<String> result = hedger.call(MODEL, this::pendingLeg);
+        assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        legs.get(1).completeExceptionally(new EnrichmentException("hedge failed"));
+        legs.get(0).completeExceptionally(new EnrichmentException("primary failed"));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(EnrichmentException.class, exception.getCause());
+    }
+
+    @Test
+    void call_WithoutBudget_DoesNotHedge() throws InterruptedException {
+        // Arrange
+        ModelCallHedger hedger = new ModelCallHedger(0.5, 0.0, 5, scheduler);
+        warmUp(hedger, 5);
+
+        // Act
+        CompletableFuture<String> result = hedger.call(MODEL, this::pendingLeg);
+
+        // Assert
+        assertFalse(hedgeStarted.await(200, TimeUnit.MILLISECONDS));
+        legs.get(0).complete("primary");
+        assertEquals("primary", result.join());
+        assertEquals(0, hedger.hedgeCount(MODEL));
+    }
+
+    private CompletableFuture<String> pendingLeg() {
+        CompletableFuture<String> leg = new CompletableFuture<>();
+        legs.add(leg);
+        if (legs.size() > 1) {
+            hedgeStarted.countDown();
+        }
+        return leg;
+    }
+
+    private static void warmUp(ModelCallHedger hedger, int calls) {
+        for (int i = 0; i < calls; i++) {
+            hedger.call(MODEL, () -> CompletableFuture.completedFuture("warm-up")).join();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.deemerge.enrichment.service;
+
+import com.deemerge.enrichment.config.BatchProperties;
+import com.deemerge.enrichment.config.BulkheadProperties;
+import com.deemerge.enrichment.config.TenantBulkheadRegistry;
+import com.deemerge.enrichment.exception.EmptyInputException;
+import com.deemerge.enrichment.model.ResponseMode;
+import com.deemerge.enrichment.model.SummaryResponse;
+import com.deemerge.enrichment.util.ContentDigest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NdjsonSummarizerTest {
+
+    private static final String TENANT_ID = "tenant1";
+
+    @Mock
+    private EnrichmentService enrichmentService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private BatchProperties batchProperties;
+    private BulkheadProperties bulkheadProperties;
+
+    @BeforeEach
+    void setUp() {
+        batchProperties = new BatchProperties();
+        bulkheadProperties = new BulkheadProperties();
+    }
+
+    @Test
+    void summarize_WritesOneResultLinePerItem() throws IOException {
+        // Arrange
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(summary(invocation.getArgument(1))));
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), isNull()))
+                .thenReturn(CompletableFuture.failedFuture(new EmptyInputException()));
+        String input = "{\"input_text\": \"first\"}\n{\"input_text\": null}\n\n{\"input_text\": \"third\"}\n";
+
+        // Act
+        List<JsonNode> lines = run(input);
+
+        // Assert
+        assertEquals(3, lines.size());
+        assertEquals(0, lines.get(0).get("index").asInt());
+        assertEquals("Summary of first", lines.get(0).get("result").get("summary").asText());
+        assertEquals("EMPTY_INPUT", lines.get(1).get("error").get("code").asText());
+        assertFalse(lines.get(1).has("result"));
+        assertEquals(2, lines.get(2).get("index").asInt());
+    }
+
+    @Test
+    void summarize_LeanMode_WritesDigestInsteadOfInputText() throws IOException {
+        // Arrange
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(summary(invocation.getArgument(1))));
+
+        // Act
+        List<JsonNode> lines = run("{\"input_text\": \"first\"}\n", ResponseMode.LEAN);
+
+        // Assert
+        JsonNode result = lines.get(0).get("result");
+        assertFalse(result.has("inputText"));
+        assertEquals(ContentDigest.sha256Hex("first"), result.get("inputDigest").asText());
+        assertEquals(5, result.get("inputLength").asInt());
+        assertEquals("Summary of first", result.get("summary").asText());
+    }
+
+    @Test
+    void summarize_WithMalformedItem_ReportsItAndStopsReading() throws IOException {
+        // Arrange
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(summary(invocation.getArgument(1))));
+        String input = "{\"input_text\": \"first\"}\n{\"input_text\": \n{\"input_text\": \"third\"}\n";
+
+        // Act
+        List<JsonNode> lines = run(input);
+
+        // Assert
+        assertEquals(2, lines.size());
+        assertEquals("Summary of first", lines.get(0).get("result").get("summary").asText());
+        assertEquals(1, lines.get(1).get("index").asInt());
+        assertEquals("BAD_REQUEST", lines.get(1).get("error").get("code").asText());
+    }
+
+    @Test
+    void summarize_WithFullWindow_StopsReadingUntilAnItemCompletes() throws Exception {
+        // Arrange
+        batchProperties.setStreamWindow(2);
+
+        // Act & Assert
+        assertEquals(2, callsWithFullWindow(5));
+    }
+
+    @Test
+    void summarize_WithWindowOverBulkheadCapacity_KeepsWithinCapacity() throws Exception {
+        // Arrange: the tenant's bulkhead holds one call in flight and one queued
+        bulkheadProperties.setInitialLimit(1);
+        bulkheadProperties.setMaxQueued(1);
+
+        // Act & Assert
+        assertEquals(2, callsWithFullWindow(5));
+    }
+
+    /**
+     * Streams the given number of items, completing none of them until no more calls start,
+     * and returns how many started by then
+     */
+    private int callsWithFullWindow(int items) throws Exception {
+        List<CompletableFuture<SummaryResponse>> calls = new CopyOnWriteArrayList<>();
+        when(enrichmentService.summarizeAsync(eq(TENANT_ID), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<SummaryResponse> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < items; i++) {
+            input.append("{\"input_text\": \"text ").append(i).append("\"}\n");
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> stream = executor.submit(() -> {
+                summarizer().summarize(TENANT_ID,
+                        new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), output,
+                        ResponseMode.FULL, Collections.emptyMap());
+                return null;
+            });
+            awaitCalls(calls, 2);
+            Thread.sleep(100);
+            int callsWithFullWindow = calls.size();
+            for (int i = 0; i < items; i++) {
+                awaitCalls(calls, i + 1);
+                calls.get(i).complete(summary("text " + i));
+            }
+            stream.get(5, TimeUnit.SECONDS);
+            assertEquals(items, output.toString(StandardCharsets.UTF_8).lines().count());
+            return callsWithFullWindow;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<JsonNode> run(String input) throws IOException {
+        return run(input, ResponseMode.FULL);
+    }
+
+    private List<JsonNode> run(String input, ResponseMode mode) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        summarizer().summarize(TENANT_ID, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output,
+                mode, Map.of());
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private NdjsonSummarizer summarizer() {
+        return new NdjsonSummarizer(enrichmentService, new TenantBulkheadRegistry(bulkheadProperties), objectMapper,
+                batchProperties);
+    }
+
+    private static void awaitCalls(List<?> calls, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(calls.size() >= count, "expected " + count + " calls, saw " + calls.size());
+    }
+
+    private static SummaryResponse summary(String inputText) {
+        return SummaryResponse.builder()
+                .inputText(inputText)
+                .summary("Summary of " + inputText)
+                .tenantId(TENANT_ID)
+                .build();
+    }
+}
@@ -4,6 +4,11 @@ import com.deemerge.enrichment.model.TenantSettings;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PromptBuilderImplTest {
@@ -83,4 +88,111 @@ class PromptBuilderImplTest {
         assertTrue(result.contains("Please summarize the following text."));
         assertTrue(result.contains(INPUT_TEXT));
     }
+
+    @Test
+    void buildSummarizationPrompt_WithDefaultTemplate_MatchesTheBaseTemplate() {
+        // Arrange
+        TenantSettings settings = TenantSettings.builder()
+                .tone("formal")
+                .model("gpt-4")
+                .build();
+
+        // Act
+        String result = promptBuilder.buildSummarizationPrompt(settings, INPUT_TEXT);
+
+        // Assert
+        assertEquals("Please summarize the following text. Use a professional and formal tone in your response."
+                + "\n\nText to summarize:\n" + INPUT_TEXT, result);
+        assertEquals("1", promptBuilder.getTemplateVersion(settings));
+    }
+
+    @Test
+    void buildSummarizationPrompt_WithCustomTemplate_FillsBuiltInAndTenantVariables() {
+        // Arrange
+        TenantSettings settings = TenantSettings.builder()
+                .tone("friendly")
+                .model("gpt-4")
+                .promptTemplate("Summarize for {{audience}} with {{model}}. {{tone_instructions}}\n{{input_text}}")
+                .promptVariables(Map.of("audience", "the sales team"))
+                .build();
+
+        // Act
+        String result = promptBuilder.buildSummarizationPrompt(settings, INPUT_TEXT);
+
+        // Assert
+        assertEquals("Summarize for the sales team with gpt-4. "
+                + "Use a casual and conversational tone in your response.\n" + INPUT_TEXT, result);
+    }
+
+    @Test
+    void buildSummarizationPrompt_WithUndefinedVariable_Throws() {
+        // Arrange
+        TenantSettings settings = TenantSettings.builder()
+                .tone("formal")
+                .model("gpt-4")
+                .promptTemplate("Summarize for {{audience}}: {{input_text}}")
+                .build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> promptBuilder.buildSummarizationPrompt(settings, INPUT_TEXT));
+    }
+
+    @Test
+    void buildSummarizationPrompt_WithVariableShadowingBuiltIn_Throws() {
+        // Arrange
+        TenantSettings settings = TenantSettings.builder()
+                .tone("formal")
+                .model("gpt-4")
+                .promptTemplate("Summarize in a {{tone}} way: {{input_text}}")
+                .promptVariables(Map.of("tone", "sarcastic"))
+                .build();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> promptBuilder.buildSummarizationPrompt(settings, INPUT_TEXT));
+        assertTrue(exception.getMessage().contains("'tone'"), exception.getMessage());
+    }
+
+    @Test
+    void getTemplateVersion_WithManyEditedTemplates_KeepsTheCompiledTemplatesBounded() {
+        // Arrange
+        PromptBuilderImpl boundedBuilder = new PromptBuilderImpl(8);
+
+        // Act: every edit of a variable is a new template to compile
+        for (int i = 0; i < 100; i++) {
+            boundedBuilder.getTemplateVersion(customSettings("For {{audience}}: {{input_text}}", "team " + i));
+        }
+
+        // Assert
+        assertTrue(boundedBuilder.customTemplateCount() <= 8,
+                "cached " + boundedBuilder.customTemplateCount() + " templates");
+    }
+
+    @Test
+    void getTemplateVersion_ChangesWithTheCustomTemplateAndItsVariables() {
+        // Arrange
+        TenantSettings custom = customSettings("For {{audience}}: {{input_text}}", "engineers");
+
+        // Act
+        String version = promptBuilder.getTemplateVersion(custom);
+
+        // Assert
+        assertNotEquals("1", version);
+        assertEquals(version, promptBuilder.getTemplateVersion(
+                customSettings("For {{audience}}: {{input_text}}", "engineers")));
+        assertNotEquals(version, promptBuilder.getTemplateVersion(
+                customSettings("For {{audience}}: {{input_text}}", "sales")));
+        assertNotEquals(version, promptBuilder.getTemplateVersion(
+                customSettings("To {{audience}}: {{input_text}}", "engineers")));
+    }
+
+    private static TenantSettings customSettings(String template, String audience) {
+        return TenantSettings.builder()
+                .tone("formal")
+                .model("gpt-4")
+                .promptTemplate(template)
+                .promptVariables(Map.of("audience", audience))
+                .build();
+    }
 }
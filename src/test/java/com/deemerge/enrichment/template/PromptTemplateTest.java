@@ -0,0 +1,83 @@
+package com.deemerge.enrichment.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplateTest {
+
+    @Test
+    void render_FillsEachPlaceholderByName() {
+        // Arrange
+        PromptTemplate template = PromptTemplate.compile("Dear {{name}}, {{ greeting }}! Bye, {{name}}.");
+
+        // Act
+        String result = template.render(Map.of("name", "Ann", "greeting", "hello")::get);
+
+        // Assert
+        assertEquals("Dear Ann, hello! Bye, Ann.", result);
+    }
+
+    @Test
+    void render_WithPlaceholdersAtTheEdges_KeepsOnlyTheValues() {
+        // Arrange
+        PromptTemplate template = PromptTemplate.compile("{{a}}{{b}}");
+
+        // Act & Assert
+        assertEquals("12", template.render(Map.of("a", "1", "b", "2")::get));
+    }
+
+    @Test
+    void render_WithoutPlaceholders_ReturnsTheSource() {
+        // Arrange
+        PromptTemplate template = PromptTemplate.compile("Just text, with a } and a {.");
+
+        // Act & Assert
+        assertEquals("Just text, with a } and a {.", template.render(name -> null));
+        assertTrue(template.variables().isEmpty());
+    }
+
+    @Test
+    void render_DoesNotReinterpretValues() {
+        // Arrange
+        PromptTemplate template = PromptTemplate.compile("Text: {{input_text}}");
+
+        // Act
+        String result = template.render(Map.of("input_text", "100% {{input_text}} %s")::get);
+
+        // Assert
+        assertEquals("Text: 100% {{input_text}} %s", result);
+    }
+
+    @Test
+    void render_WithAMissingValue_Throws() {
+        // Arrange
+        PromptTemplate template = PromptTemplate.compile("Hello {{name}}");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> template.render(name -> null));
+    }
+
+    @Test
+    void variables_ListsEachNameOnceInOrderOfFirstUse() {
+        // Arrange
+        PromptTemplate template = PromptTemplate.compile("{{b}} {{a}} {{b}}");
+
+        // Act & Assert
+        assertEquals(List.of("b", "a"), List.copyOf(template.variables()));
+    }
+
+    @Test
+    void compile_WithAnUnclosedPlaceholder_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("Hello {{name"));
+    }
+
+    @Test
+    void compile_WithAnInvalidName_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("Hello {{first name}}"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("Hello {{}}"));
+    }
+}
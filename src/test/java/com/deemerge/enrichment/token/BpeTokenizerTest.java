@@ -0,0 +1,116 @@
+package com.deemerge.enrichment.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BpeTokenizerTest {
+
+    // t+h -> 256 "th", th+e -> 257 "the", space+the -> 258 " the", c+a -> 259 "ca", ca+t -> 260 "cat"
+    private static final String VOCABULARY = """
+            # test vocabulary
+            116 104
+            256 101
+            32 257
+            99 97
+            259 116
+            """;
+
+    private static BpeTokenizer tokenizer(String vocabulary) throws IOException {
+        return BpeTokenizer.load(new ByteArrayInputStream(vocabulary.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void countTokens_MergesByRank() throws IOException {
+        // Arrange
+        BpeTokenizer tokenizer = tokenizer(VOCABULARY);
+
+        // Act & Assert
+        assertEquals(5, tokenizer.mergeCount());
+        assertEquals(1, tokenizer.countTokens("the"));
+        assertEquals(1, tokenizer.countTokens("cat"));
+        // "the", " cat" is not a rule: " ", "cat"
+        assertEquals(3, tokenizer.countTokens("the cat"));
+        // "cat", " the"
+        assertEquals(2, tokenizer.countTokens("cat the"));
+        // No rule applies to "dog": one token per byte
+        assertEquals(3, tokenizer.countTokens("dog"));
+    }
+
+    @Test
+    void countTokens_SplitsPiecesAtCharacterClasses() throws IOException {
+        // Arrange
+        BpeTokenizer tokenizer = tokenizer(VOCABULARY);
+
+        // Act & Assert: "the", "," and "cat" are separate pieces, so "e," and ",c" never merge
+        assertEquals(3, tokenizer.countTokens("the,cat"));
+        // Digits form pieces of at most three
+        assertEquals(7, tokenizer.countTokens("1234567"));
+        // A space before a word joins it; further whitespace stays on its own
+        assertEquals(4, tokenizer.countTokens("cat   the"));
+    }
+
+    @Test
+    void countTokens_CountsMultiByteCharactersByTheirUtf8Bytes() throws IOException {
+        // Arrange
+        BpeTokenizer tokenizer = tokenizer("");
+
+        // Act & Assert
+        assertEquals(2, tokenizer.countTokens("\u00e9"));
+        assertEquals(3, tokenizer.countTokens("\u20ac"));
+        assertEquals(4, tokenizer.countTokens("\uD83D\uDE00"));
+        assertEquals(0, tokenizer.countTokens(""));
+    }
+
+    @Test
+    void countTokens_WithLimit_StopsOnceTheLimitIsExceeded() throws IOException {
+        // Arrange
+        BpeTokenizer tokenizer = tokenizer(VOCABULARY);
+        String text = "the cat ".repeat(1_000_000);
+
+        // Act
+        int counted = tokenizer.countTokens(text, 10);
+
+        // Assert: stopped in the piece after the limit, far short of the whole text
+        assertTrue(counted > 10 && counted < 20, "counted " + counted);
+        assertEquals(3, tokenizer.countTokens("the cat", 3));
+    }
+
+    @Test
+    void countTokens_WithLimit_StopsWithinOneLongPiece() throws IOException {
+        // Arrange
+        BpeTokenizer tokenizer = tokenizer("");
+        String text = "x".repeat(10_000_000);
+
+        // Act
+        int counted = tokenizer.countTokens(text, 100);
+
+        // Assert
+        assertTrue(counted > 100 && counted < 200, "counted " + counted);
+    }
+
+    @Test
+    void load_WithARuleReferringToALaterToken_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> tokenizer("116 104\n256 257\n"));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer("116\n"));
+    }
+
+    @Test
+    void fromResource_LoadsTheBundledVocabulary() {
+        // Arrange
+        BpeTokenizer tokenizer = BpeTokenizer.fromResource("tokenizer/bpe-merges.txt");
+        String text = "The quarterly review covered revenue growth in the European market, delays in the "
+                + "logistics platform migration and the hiring plan for the second half of the year.";
+
+        // Act
+        int tokens = tokenizer.countTokens(text);
+
+        // Assert: English prose takes about one token per three to five characters
+        assertTrue(tokenizer.mergeCount() > 1_000);
+        assertTrue(tokens > text.length() / 5 && tokens < text.length() / 3, "tokens " + tokens);
+    }
+}
@@ -0,0 +1,40 @@
+package com.deemerge.enrichment.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ContentDigestTest {
+
+    @Test
+    void sha256Hex_WithKnownInput_ReturnsStandardDigest() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ContentDigest.sha256Hex("abc"));
+    }
+
+    @Test
+    void sha256Hex_WithInputLargerThanChunk_MatchesDigestOfWholeEncoding() throws Exception {
+        // Arrange
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            text.append("héllo wörld ☃ 𝄞 ").append(i);
+        }
+        byte[] utf8 = text.toString().getBytes(StandardCharsets.UTF_8);
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(utf8));
+
+        // Act & Assert
+        assertEquals(expected, ContentDigest.sha256Hex(text));
+    }
+
+    @Test
+    void sha256Hex_WithStringsOfEqualHashCode_ReturnsDifferentDigests() {
+        // "Aa" and "BB" share String.hashCode()
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(ContentDigest.sha256Hex("Aa"), ContentDigest.sha256Hex("BB"));
+    }
+}